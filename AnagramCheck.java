@@ -0,0 +1,129 @@
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * This class checks and times AnagramIndex.subAnagrams on full racks. The racks are seven
+ * tiles drawn from the tiles of a game, from a fixed seed. For the first CHECKED racks the
+ * words found are compared with a brute-force scan that tests every word of the Dictionary
+ * against the letters of the rack. Then subAnagrams is timed on every rack, after a warm-up,
+ * and the mean, 99th percentile and slowest times are printed.
+ * <p>
+ * Usage: java AnagramCheck [racks] [seed]
+ */
+public class AnagramCheck {
+	private static final int DEFAULT_RACKS = 10000;
+
+	// the number of racks checked against the brute-force scan
+	private static final int CHECKED = 200;
+
+	public static void main(String[] args) throws IOException {
+		int numRacks = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RACKS;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : 0;
+
+		ScrabbleRules rules = new ScrabbleRules();
+		if (rules.getDictionary() == null) {
+			throw new IOException("the word list could not be read");
+		}
+		Dictionary dictionary = rules.getDictionary();
+		long start = System.nanoTime();
+		AnagramIndex index = dictionary.getAnagramIndex();
+		System.out.printf("built in %d ms: %d signatures%n", (System.nanoTime() - start) / 1000000,
+				index.getNumSignatures());
+
+		List<Character> tiles = new ArrayList<Character>();
+		int[] distribution = rules.getTileDistribution();
+		for (int code = 1; code <= Letters.COUNT; code++) {
+			for (int i = 0; i < distribution[code]; i++) {
+				tiles.add((char) ('a' + code - 1));
+			}
+		}
+		SplittableRandom random = new SplittableRandom(seed);
+		String[] racks = new String[numRacks];
+		for (int r = 0; r < numRacks; r++) {
+			StringBuilder rack = new StringBuilder();
+			for (int i = 0; i < Player.NUM_TILES; i++) {
+				int pick = random.nextInt(tiles.size() - i);
+				rack.append(tiles.get(pick));
+				Collections.swap(tiles, pick, tiles.size() - 1 - i);
+			}
+			racks[r] = rack.toString();
+		}
+
+		int mismatches = 0;
+		int checked = Math.min(CHECKED, numRacks);
+		for (int r = 0; r < checked; r++) {
+			List<String> found = index.subAnagrams(racks[r]);
+			List<String> expected = bruteForce(dictionary, racks[r]);
+			Collections.sort(found);
+			if (!found.equals(expected)) {
+				mismatches++;
+				System.out.println(racks[r] + ": found " + found.size() + " words, expected "
+						+ expected.size());
+			}
+		}
+		System.out.println(checked + " racks checked against a brute-force scan, " + mismatches
+				+ " mismatches");
+
+		for (String rack : racks) {
+			index.subAnagrams(rack);
+		}
+		long[] nanos = new long[numRacks];
+		long total = 0;
+		long words = 0;
+		for (int r = 0; r < numRacks; r++) {
+			start = System.nanoTime();
+			words += index.subAnagrams(racks[r]).size();
+			nanos[r] = System.nanoTime() - start;
+			total += nanos[r];
+		}
+		Arrays.sort(nanos);
+		System.out.printf("%d racks: mean %.1f us, 99th percentile %.1f us, slowest %.1f us, "
+				+ "%.1f words a rack%n", numRacks, total / 1000.0 / numRacks,
+				nanos[numRacks * 99 / 100] / 1000.0, nanos[numRacks - 1] / 1000.0,
+				(double) words / numRacks);
+	}
+
+    /**
+     * This is a private helper function that finds the words of a rack by testing every word
+     * of the Dictionary
+     *
+     * @param dictionary, the Dictionary
+     * @param rack, the lower case letters of the rack
+     * @return a List of the words that can be made from the rack, sorted
+     */
+	private static List<String> bruteForce(Dictionary dictionary, String rack) {
+		int[] have = new int[Letters.COUNT + 1];
+		for (int i = 0; i < rack.length(); i++) {
+			have[rack.charAt(i) - 'a' + 1]++;
+		}
+		List<String> result = new ArrayList<String>();
+		int[] used = new int[Letters.COUNT + 1];
+		for (String word : dictionary.getWordGraph()) {
+			if (word.length() > rack.length()) {
+				continue;
+			}
+			boolean fits = true;
+			for (int i = 0; i < word.length() && fits; i++) {
+				int code = word.charAt(i) - 'a' + 1;
+				fits = code >= 1 && code <= Letters.COUNT && ++used[code] <= have[code];
+			}
+			for (int i = 0; i < word.length(); i++) {
+				int code = word.charAt(i) - 'a' + 1;
+				if (code >= 1 && code <= Letters.COUNT) {
+					used[code] = 0;
+				}
+			}
+			if (fits) {
+				result.add(word);
+			}
+		}
+		Collections.sort(result);
+		return result;
+	}
+}
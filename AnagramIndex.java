@@ -0,0 +1,212 @@
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * This class answers "which words can be made from these letters". Every word is filed under
+ * its signature, the word's letters in sorted order, so all the anagrams of a set of letters
+ * share one signature. The signatures are kept in a sorted array and found by binary search
+ * directly against a char buffer, so a lookup does not build any Strings.
+ * <p>
+ * subAnagrams() finds every word that can be made from some of the letters of a rack in one
+ * walk over the distinct sub-multisets of the rack. A rack of seven tiles has at most 127 of
+ * them, which is far less work than checking every ordering of every subset of the tiles
+ * against the Dictionary.
+ */
+public class AnagramIndex {
+	private final String[] signatures;
+	private final int[] firstWord;
+	private final String[] words;
+
+    /**
+     * Constructs an AnagramIndex of every word in a Dawg
+     *
+     * @param graph, the Dawg of lower case words to index
+     */
+	public AnagramIndex(Dawg graph) {
+		final String[] all = new String[graph.size()];
+		final String[] keys = new String[all.length];
+		int n = 0;
+		for (String word : graph) {
+			char[] letters = word.toCharArray();
+			Arrays.sort(letters);
+			all[n] = word;
+			keys[n] = new String(letters);
+			n++;
+		}
+		Integer[] order = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		// words come out of the graph sorted, and the sort is stable, so anagrams stay sorted
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				return keys[a].compareTo(keys[b]);
+			}
+		});
+
+		words = new String[n];
+		List<String> distinct = new ArrayList<String>();
+		List<Integer> starts = new ArrayList<Integer>();
+		for (int i = 0; i < n; i++) {
+			String key = keys[order[i]];
+			words[i] = all[order[i]];
+			if (distinct.isEmpty() || !distinct.get(distinct.size() - 1).equals(key)) {
+				distinct.add(key);
+				starts.add(i);
+			}
+		}
+		starts.add(n);
+		signatures = distinct.toArray(new String[distinct.size()]);
+		firstWord = new int[starts.size()];
+		for (int i = 0; i < firstWord.length; i++) {
+			firstWord[i] = starts.get(i);
+		}
+	}
+
+    /**
+     * This method returns the signature of some letters: the letters lower cased and sorted
+     *
+     * @param letters, the letters to sign
+     * @return a String, the signature
+     */
+	public static String signature(CharSequence letters) {
+		char[] sorted = new char[letters.length()];
+		for (int i = 0; i < sorted.length; i++) {
+			sorted[i] = Character.toLowerCase(letters.charAt(i));
+		}
+		Arrays.sort(sorted);
+		return new String(sorted);
+	}
+
+    /**
+     * This method returns the number of distinct signatures in the index
+     *
+     * @return an int, the number of signatures
+     */
+	public int getNumSignatures() {
+		return signatures.length;
+	}
+
+    /**
+     * This method returns every word that uses exactly the given letters, ignoring case
+     *
+     * @param letters, the letters each word must use
+     * @return a List of the words, in sorted order
+     */
+	public List<String> anagrams(CharSequence letters) {
+		List<String> result = new ArrayList<String>();
+		char[] sorted = signature(letters).toCharArray();
+		addWords(find(sorted, sorted.length), result);
+		return result;
+	}
+
+    /**
+     * This method returns every word that can be made from some or all of the letters of a
+     * rack, ignoring case.
+     *
+     * @param rack, the letters available
+     * @return a List of the words, grouped by the letters they use
+     */
+	public List<String> subAnagrams(CharSequence rack) {
+		List<String> result = new ArrayList<String>();
+		char[] sorted = signature(rack).toCharArray();
+		subAnagrams(sorted, 0, new char[sorted.length], 0, result);
+		return result;
+	}
+
+    /**
+     * This is a private helper function that walks the distinct sub-multisets of the rack.
+     * At each step it decides how many copies of the next distinct letter to use, so every
+     * sub-multiset is visited exactly once no matter how many duplicate tiles the rack has.
+     *
+     * @param rack, the sorted letters of the rack
+     * @param next, the index in the rack of the next distinct letter to decide on
+     * @param chosen, the sorted letters chosen so far
+     * @param length, the number of letters chosen so far
+     * @param result, where the words found are added
+     */
+	private void subAnagrams(char[] rack, int next, char[] chosen, int length, List<String> result) {
+		if (next == rack.length) {
+			if (length > 0) {
+				addWords(find(chosen, length), result);
+			}
+			return;
+		}
+		int end = next;
+		while (end < rack.length && rack[end] == rack[next]) {
+			end++;
+		}
+		subAnagrams(rack, end, chosen, length, result);
+		for (int copies = 1; copies <= end - next; copies++) {
+			chosen[length + copies - 1] = rack[next];
+			subAnagrams(rack, end, chosen, length + copies, result);
+		}
+	}
+
+    /**
+     * This is a private helper function that binary searches the signatures for the first
+     * length characters of key.
+     *
+     * @param key, the sorted letters to look for
+     * @param length, the number of letters in key
+     * @return an int, the index of the signature or -1 if there is none
+     */
+	private int find(char[] key, int length) {
+		int low = 0;
+		int high = signatures.length - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int cmp = compare(signatures[mid], key, length);
+			if (cmp < 0) {
+				low = mid + 1;
+			} else if (cmp > 0) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+    /**
+     * This is a private helper function that compares a signature with a char buffer the same
+     * way String.compareTo would.
+     *
+     * @param signature, the signature from the index
+     * @param key, the sorted letters being looked for
+     * @param length, the number of letters in key
+     * @return an int, negative, zero or positive as the signature sorts before, equal to or
+     * 			after the key
+     */
+	private static int compare(String signature, char[] key, int length) {
+		int common = Math.min(signature.length(), length);
+		for (int i = 0; i < common; i++) {
+			char a = signature.charAt(i);
+			char b = key[i];
+			if (a != b) {
+				return a - b;
+			}
+		}
+		return signature.length() - length;
+	}
+
+    /**
+     * This is a private helper function that adds the words filed under a signature
+     *
+     * @param signature, the index of the signature, or -1 for none
+     * @param result, where the words are added
+     */
+	private void addWords(int signature, List<String> result) {
+		if (signature < 0) {
+			return;
+		}
+		for (int i = firstWord[signature]; i < firstWord[signature + 1]; i++) {
+			result.add(words[i]);
+		}
+	}
+}
@@ -4,29 +4,44 @@ import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * This class models the bag of letter tiles that exists in a real Scrabble game. Here,
- * the object stores an ArrayList of Strings, where each string represents a distinct
- * tile in the bag. There are methods provided to take a letter and two exchange for use during
- * the gameplay.
+ * the object stores how many tiles of each letter are left and their total, so taking a tile
+ * never moves the others, and a copy is only 27 ints. The tiles are drawn with a
+ * SplittableRandom, so a Bag made with the same seed gives the same tiles every time and a
+ * game or a simulation can be replayed exactly. There are methods provided to take a letter and
+ * two exchange for use during the gameplay.
  */
 public class Bag {
-	
-	private List<String> letters;
+
+	private final int[] counts;
+	private int total;
+	private final SplittableRandom random;
 
     /**
-     * Constructs a Bag by reading the file containing all the letters.
+     * Constructs a Bag by reading the file containing all the letters, with a random seed.
      *
      * @param none
      * @return none
      */
 	public Bag() {
+		this(new SplittableRandom().nextLong());
+	}
+
+    /**
+     * Constructs a Bag by reading the file containing all the letters, drawing with a given
+     * seed.
+     *
+     * @param seed, the seed of the draws
+     * @return none
+     */
+	public Bag(long seed) {
+		this.counts = new int[Letters.COUNT + 1];
+		this.random = new SplittableRandom(seed);
 		try {
-			letters = new ArrayList<String>();
-			Reader in = new FileReader("files/Scrabble_Letters.txt"); 
+			Reader in = new FileReader("files/Scrabble_Letters.txt");
 			BufferedReader br = new BufferedReader(in);
 			boolean hasNext = true;
 			while (hasNext) {
@@ -34,7 +49,11 @@ public class Bag {
         		if (line == null) {
         			hasNext = false;
         		} else {
-        		letters.add(line);
+        			int code = Letters.encode(line.trim());
+        			if (code != Letters.NONE) {
+        				counts[code]++;
+        				total++;
+        			}
         		}
 			}
 			br.close();
@@ -42,51 +61,173 @@ public class Bag {
 			// do nothing
 		}
 	}
-	
+
+    /**
+     * Constructs a Bag holding given tiles, such as the tiles a player cannot see.
+     *
+     * @param counts, how many of each letter code the Bag holds; it is copied
+     * @param random, the source of the draws, which the Bag uses from now on
+     * @return none
+     */
+	public Bag(int[] counts, SplittableRandom random) {
+		this.counts = new int[Letters.COUNT + 1];
+		this.random = random;
+		for (int code = 1; code <= Letters.COUNT; code++) {
+			this.counts[code] = counts[code];
+			total += counts[code];
+		}
+	}
+
+    /**
+     * This is a private constructor that copies another Bag, giving the copy a source of
+     * draws split off from the other Bag's.
+     *
+     * @param other, the Bag to copy
+     */
+	private Bag(Bag other) {
+		this.counts = other.counts.clone();
+		this.total = other.total;
+		this.random = other.random.split();
+	}
+
     /**
-     * Removes a letter from the Arraylist of letters, allowing for a tile to be "taken."
+     * This method returns a copy of the Bag. The copy draws with its own source of random
+     * numbers, split off from this Bag's, so both can be drawn from independently and a fixed
+     * seed still replays both exactly.
      *
-     * @return a String that is the taken letter if the Bag has letters and an empty string 
-     * otherwise.
+     * @return a new Bag holding the same tiles
      */
-	public String take() { 
+	public Bag copy() {
+		return new Bag(this);
+	}
+
+    /**
+     * Removes a random letter from the Bag, allowing for a tile to be "taken."
+     *
+     * @return a String that is the taken letter if the Bag has letters and " " otherwise.
+     */
+	public String take() {
 		if (noMoreTiles()) {
 			return " ";
 		}
-		int randomIndex = getRandom();
-		String randomLetter = letters.get(randomIndex);
-		letters.remove(randomIndex);
-		return randomLetter;
+		return Letters.decode(takeCode());
 	}
-	
+
     /**
-     * This is a private helper function that is used get a random index used for taking.
+     * Removes several random letters from the Bag at once.
      *
-     * @return an int, that is a random index within the ArrayList
+     * @param n, the number of letters to take
+     * @return an array of Strings, the taken letters, shorter than n if the Bag runs out
      */
-	private int getRandom() {
-		return ((int)(Math.random() * (letters.size())));
+	public String[] take(int n) {
+		String[] taken = new String[Math.min(n, total)];
+		for (int i = 0; i < taken.length; i++) {
+			taken[i] = Letters.decode(takeCode());
+		}
+		return taken;
 	}
-	
+
+    /**
+     * Removes a random letter from the Bag and returns its code. Each tile left is equally
+     * likely to be taken.
+     *
+     * @return an int, the letter code of the taken tile, or Letters.NONE if the Bag is empty
+     */
+	public int takeCode() {
+		if (total == 0) {
+			return Letters.NONE;
+		}
+		int pick = random.nextInt(total);
+		int code = 1;
+		while (pick >= counts[code]) {
+			pick -= counts[code];
+			code++;
+		}
+		counts[code]--;
+		total--;
+		return code;
+	}
+
     /**
      * This method allows for a letter to be exchanged for a different one from the bag. It adds
-     * the old letter to the ArrayList and removes the other to be returned.
+     * the old letter to the Bag and takes another to be returned.
      *
      * @param oldWord, a string that is the old letter being returned to the bag
      * @return a String, the new letter from the bag
      */
 	public String exchange(String oldWord) {
-		letters.add(oldWord);
+		putBack(oldWord);
 		return take();
 	}
 
     /**
-     * This method checks if there are any letters left in the bag by checking if the ArrayList
-     * is empty.
+     * This method takes a given letter out of the bag, for when a turn that put it back is
+     * taken back or a turn that drew it is made again.
+     *
+     * @param letter, a String that is the letter being taken
+     */
+	public void remove(String letter) {
+		remove(Letters.encode(letter));
+	}
+
+    /**
+     * This method takes a given letter out of the bag, if the bag holds one.
+     *
+     * @param code, the letter code of the tile being taken
+     */
+	public void remove(int code) {
+		if (code != Letters.NONE && counts[code] > 0) {
+			counts[code]--;
+			total--;
+		}
+	}
+
+    /**
+     * This method puts a letter back in the bag, for when a turn that drew it is taken back.
+     *
+     * @param letter, a String that is the letter being returned to the bag
+     */
+	public void putBack(String letter) {
+		putBack(Letters.encode(letter));
+	}
+
+    /**
+     * This method puts a letter back in the bag.
+     *
+     * @param code, the letter code of the tile being returned
+     */
+	public void putBack(int code) {
+		if (code != Letters.NONE) {
+			counts[code]++;
+			total++;
+		}
+	}
+
+    /**
+     * This method returns how many tiles of a letter are left in the bag
+     *
+     * @param code, the letter code
+     * @return an int, the number of tiles
+     */
+	public int getCount(int code) {
+		return counts[code];
+	}
+
+    /**
+     * This method returns how many tiles are left in the bag
+     *
+     * @return an int, the number of tiles
+     */
+	public int size() {
+		return total;
+	}
+
+    /**
+     * This method checks if there are any letters left in the bag.
      *
-     * @return a boolean that represents whethere or not the ArraList is empty
+     * @return a boolean that represents whethere or not the Bag is empty
      */
 	public boolean noMoreTiles() {
-		return letters.isEmpty();
+		return total == 0;
 	}
 }
@@ -1,34 +1,43 @@
-
+import java.awt.Font;
 
 /**
  * This class models the Board of letter tiles that exists in a real Scrabble game. Here,
- * the object stores a 2D array of Tiles, a created class that models tiles on a board. This
+ * the object stores a BoardModel, the headless record of every square on the board, and a 2D
+ * array of Tiles, a created class that draws each square of the model on the screen. This
  * class provides methods that are used during game-play to make sure that the board follows
- * all the invariants of the rules of the game. This class also stores an instantiation of the
+ * all the invariants of the rules of the game; they all run on the model, so checking a turn
+ * never creates any Swing objects. This class also stores an instantiation of the
  * ScrabbleRules class.
  */
 public class Board {
 	private Tile[][] grid;
+	private BoardModel model;
 	private ScrabbleRules rules;
-	
+	private ScoreBreakdown lastScore = new ScoreBreakdown();
+	private CrossCheckTable crossChecks;
+	private UnseenTiles unseenTiles;
+	private int[] changedSquares = new int[BoardModel.SQUARES];
+
     /**
-     * Constructs a Board's initial state by creating the 2D array and setting up the rules.
-     * This constructor calls two private helper functions as well to set up the initial state
-     * of the premium tiles.
+     * Constructs a Board's initial state by creating the model, the 2D array of Tiles that view
+     * it and setting up the rules. The premium squares are set up by the BoardModel.
      *
      * @param rules, from the ScrabbleRules class, which is used in some of the methods here
      * @return none
      */
 	public Board(ScrabbleRules rules) {
-		grid = new Tile[15][15];
+		model = new BoardModel(rules.getLetterValues());
+		grid = new Tile[BoardModel.SIZE][BoardModel.SIZE];
 		for (int i = 0; i < grid.length; i++) {
 			for(int j = 0; j < grid[i].length; j++) {
-				grid[i][j] = new Tile(getInitialLetterMult(i, j), getInitialWordMult(i, j), rules);
+				grid[i][j] = new Tile(model, BoardModel.index(i, j), rules);
 			}
 		}
 		this.rules = rules;
+		crossChecks = new CrossCheckTable(model, rules.getDictionary().getWordGraph());
+		unseenTiles = new UnseenTiles(rules.getTileDistribution());
 	}
-	
+
     /**
      * This is a simple getter functions which gets the Tile at a specfic position on the Board
      *
@@ -39,352 +48,173 @@ public class Board {
 	public Tile getTile(int x, int y) {
 		return grid[x][y];
 	}
-	
+
+    /**
+     * This is a simple getter function which gets the headless model of the Board
+     *
+     * @return the BoardModel holding the letters of the Board
+     */
+	public BoardModel getModel() {
+		return model;
+	}
+
+    /**
+     * This is a simple getter function which gets the cross-checks of the Board: for each
+     * square, the letters that fit with the finalized letters across it. They are kept up to
+     * date by finalizeBoard.
+     *
+     * @return the CrossCheckTable of the Board
+     */
+	public CrossCheckTable getCrossChecks() {
+		return crossChecks;
+	}
+
+    /**
+     * This is a simple getter function which gets the tracker of the tiles that are not on the
+     * Board, from which each Player's unseen tiles and the chances of their draws are found. It
+     * is kept up to date by finalizeBoard and setFinalLetter.
+     *
+     * @return the UnseenTiles of the Board
+     */
+	public UnseenTiles getUnseenTiles() {
+		return unseenTiles;
+	}
+
+    /**
+     * This is a simple getter function which gets the Zobrist key of the letters on the Board,
+     * so that positions can be compared or cached cheaply (see Zobrist)
+     *
+     * @return a long, the key of the Board's letters
+     */
+	public long getKey() {
+		return model.getKey();
+	}
+
     /**
      * This method returns whether or not any moves have been made since the last turn
      *
      * @return a boolean, representing whether or not any moves have been made in the current turn
      */
 	 public boolean movesMade() {
-		for (int i = 0; i < grid.length; i++) {
-			for(int j = 0; j < grid[i].length; j++) {
-			if (!grid[i][j].isEmpty() && !grid[i][j].isFinalized()	) {
-				return true;
-				}
-			}
-			
-		}
-		return false;
+		return model.movesMade();
 	 }
-	 
-	/**
-	* This is a private helper methods that sets up the initial values of the Tiles' letter 
-	* multipliers at given positions in the board. This is called by the constructor.
-	*
-    * @param int x, the "x-coordinate" position of a Tile on the Board
-    * @param int y, the "y-coordinate" position of a Tile on the Board
-	* @return an int, representing the letterMultilplier for a specific Tile on the Board 
-	*/
-	private int getInitialLetterMult(int x, int y) {
-		if ((x == 0 && y == 11) || (x == 0 && y == 3) || (x == 2 && y == 6)  ||
-			(x == 2 && y == 8)  || (x == 3 && y == 7) || (x == 3 && y == 0)  ||
-			(x == 3 && y == 14) || (x == 6 && y == 2) || (x == 6 && y == 6)  ||
-			(x == 6 && y == 8) || (x == 6 && y == 12) || (x == 7 && y == 3)  ||
-			(x == 7 && y == 11) || (x == 8 && y == 2) || (x == 8 && y == 6)  ||
-			(x == 8 && y == 8) || (x == 8 && y == 12) || (x == 11 && y == 7)  ||
-			(x == 11 && y == 0) || (x == 11 && y == 14) || (x == 12 && y == 6)  ||
-			(x == 12 && y == 8) || (x == 14 && y == 3) || (x == 14 && y == 11)) {
-			return 2;
-		} else if((x == 1 && y == 5) || (x == 1 && y == 9) || (x == 5 && y == 1)  ||
-				(x == 5 && y == 5)  || (x == 5 && y == 9) || (x == 5 && y == 13)  ||
-				(x == 9 && y == 1) || (x == 9 && y == 5) || (x == 9 && y == 9)  ||
-				(x == 9 && y == 13) || (x == 13 && y == 5) || (x == 13 && y == 9)) {
-			return 3;
-		}
-		return 1;
-		}
-	
-	/**
-	* This is a private helper methods that sets up the initial values of the Tiles' word 
-	* multipliers at given positions in the board. This is called by the constructor.
-	*
-    * @param int x, the "x-coordinate" position of a Tile on the Board
-    * @param int y, the "y-coordinate" position of a Tile on the Board
-	* @return an int, representing the wordMultiplier for a specific Tile on the Board 
-	*/
-	private int getInitialWordMult(int x, int y) {
-		if ((x == 7 && y == 7) || (x == 1 && y == 1) || (x == 2 && y == 2)  ||
-			(x == 3 && y == 3)  || (x == 4 && y == 4) || (x == 10 && y == 4)  ||
-			(x == 11 && y == 3) || (x == 12 && y == 2) || (x == 13 && y == 1)  ||
-			(x == 1 && y == 13) || (x == 2 && y == 12) || (x == 3 && y == 11)  ||
-			(x == 4 && y == 10) || (x == 10 && y == 10) || (x == 11 && y == 11)  ||
-			(x == 12 && y == 12) || (x == 13 && y == 13)) {
-			return 2;
-		} else if((x == 0 && y == 0) || (x == 7 && y == 0) || (x == 14 && y == 0)  ||
-				(x == 0 && y == 7)  || (x == 0 && y == 14) || (x == 7 && y == 14)  ||
-				(x == 14 && y == 7) || (x == 14 && y == 14)) {
-			return 3;
-		}
-		return 1;
-		}
 
 	/**
 	* This method checks to make sure that all the words on the Board are found
-	* within the Scrabble Dictionary, i.e. that all the words are legal in the game.
+	* within the Scrabble Dictionary, i.e. that all the words are legal in the game. Words
+	* finalized in earlier turns were checked then, so only the words formed by the new Tiles
+	* are looked up.
 	*
 	* @return a boolean, representing whether or not all the words on the Board are legal
 	*/
 	public boolean isOnlyWords() {
-		for (int i = 0; i < grid[0].length; i++) {
-			Tile[] tilesColumn = reverseArray(grid[i]);
-			String lettersColumn = "";
-			for (int j = 0; j < tilesColumn.length; j++) {
-				lettersColumn += tilesColumn[j].getLetter();
-				boolean currentIsNotEmpty = (!tilesColumn[j].getLetter().equals(" "));
-				boolean aboveIsEmpty = true;
-				boolean belowIsEmpty = true;
-				if (j - 1 >= 0) {
-					if (!tilesColumn[j - 1].getLetter().equals(" ")) {
-						aboveIsEmpty = false; 
-					}
-				}
-				if (j + 1 < 15) {
-					if (!tilesColumn[j + 1].getLetter().equals(" ")) {
-						belowIsEmpty = false; 
-					}
-				}
-				if (aboveIsEmpty && belowIsEmpty && currentIsNotEmpty) {
-					boolean leftIsEmpty = true;
-					boolean rightIsEmpty = true;
-					if (i - 1 >= 0) {
-						if (!grid[i - 1][grid.length - j - 1].getLetter().equals(" ")) {
-							leftIsEmpty = false; 
-						}
-					}
-					if (i + 1 < 15) {
-						if (!grid[i + 1][grid.length - j - 1].getLetter().equals(" ")) {
-							rightIsEmpty = false; 
-						}
-					}
-					if (rightIsEmpty && leftIsEmpty) {
-						return false;
-					}
-				}
-			}
-			String[] words = lettersColumn.split(" ");
-			for (int k = 0; k < words.length; k++) {
-				if (!rules.isWord(words[k]) && !words[k].equals(" ") && words[k].length() >= 2) {
-					return false;
-				}
-			}
-		}
-		for (int i = 0; i < grid[0].length; i++) {
-			String lettersRow = "";
-			for (int j = 0; j < grid.length; j++) {
-				lettersRow += grid[j][i].getLetter();
-			}
-			String[] words = lettersRow.trim().split(" ");
-			for (int k = 0; k < words.length; k++) {
-				}
-			for (int k = 0; k < words.length; k++) {
-				if (!rules.isWord(words[k]) && !words[k].equals(" ") && words[k].length() >= 2) {
-					return false;
-				}
-			}
-		}
-		return true;
+		return validateMove().isValid();
+	}
+
+	/**
+	* This method looks up every word formed by the Tiles placed during the current turn
+	* and reports which ones are not in the Scrabble Dictionary.
+	*
+	* @return a ValidationReport, listing each new word and whether or not it is legal
+	*/
+	public ValidationReport validateMove() {
+		return MoveValidator.validate(model, rules.getDictionary());
 	}
-	
+
 	/**
-	* This method is called to calculate the points gained by a Player after their turn 
+	* This method is called to calculate the points gained by a Player after their turn
 	* in the game. It simply calculates how many new words were created during their turn,
 	* and then counts up the letter values, the letter Multipliers, the word Multiplers of
-	* the letters in those words.
+	* the letters in those words. Only the words through the new Tiles are looked at, and the
+	* points of each word are kept in getLastScore().
 	*
-	* @return an int, representing the score for the turn that just ended 
+	* @return an int, representing the score for the turn that just ended
 	*/
 	public int calculateScore() {
-		int tempScore = 0;
-		for (int i = 0; i < grid.length; i++) {
-			Tile[] column = grid[i];
-			int startIndex = 0;
-			int endIndex = 0;
-			for (int j = column.length - 1; j >= 0; j--) {
-				if (column[j].getLetter().equals(" ") && j != column.length - 1 && 
-						!column[j + 1].getLetter().equals(" ")) {
-					endIndex = j + 1;
-					boolean hasNewLetters = false;
-					int wordMultiplier = 1;
-					int tempWordScore = 0;
-					if (startIndex - endIndex >= 1) {
-						for (int k = startIndex; k >= endIndex; k--) {
-						tempWordScore += column[k].getValue();
-						wordMultiplier *= column[k].getWordMultiplier(); 
-							if (!column[k].isFinalized()) {
-								hasNewLetters = true;
-							}
-						}
-						if (hasNewLetters) {
-							tempScore += tempWordScore * wordMultiplier;
-						}
-					}
-				} else if (!column[j].getLetter().equals(" ") && j == 0) {
-					endIndex = j;
-					boolean hasNewLetters = false;
-					int wordMultiplier = 1;
-					int tempWordScore = 0;
-					if (startIndex - endIndex >= 1) {
-						for (int k = startIndex; k >= endIndex; k--) {
-							tempWordScore += column[k].getValue();
-							wordMultiplier *= column[k].getWordMultiplier(); 
-								if (!column[k].isFinalized()) {
-									hasNewLetters = true;
-								}
-						}
-						if (hasNewLetters) {
-						tempScore += tempWordScore * wordMultiplier;
-							}
-					}
-					
-				} else if (!column[j].getLetter().equals(" ") && j != column.length - 1 && 
-						column[j + 1].getLetter().equals(" ")) {
-					startIndex = j;
-				} else if (!column[j].getLetter().equals(" ") && j == column.length - 1) {
-					startIndex = j;
-				}
-
-			}
-		}
-		for (int i = 0; i < grid.length; i++) {
-			int startIndex = 0;
-			int endIndex = 0;
-			for (int j = 0; j < grid.length; j++) {
-				if (grid[j][i].getLetter().equals(" ") && j != 0 && 
-					!grid[j - 1][i].getLetter().equals(" ")) { 
-					endIndex = j - 1;
-					if (endIndex - startIndex >= 1) {
-						boolean hasNewLetters = false;
-						int wordMultiplier = 1;
-						int tempWordScore = 0;
-						for (int k = startIndex; k <= endIndex; k++) {
-							tempWordScore += grid[k][i].getValue();
-							wordMultiplier *= grid[k][i].getWordMultiplier(); 
-							if (!grid[k][i].isFinalized()) {
-								hasNewLetters = true;
-							}
-						}
-						if (hasNewLetters) {
-							tempScore += tempWordScore * wordMultiplier;
-						}
-					}
-				} else if (!grid[j][i].getLetter().equals(" ") && j == grid.length - 1) { 
-						endIndex = j - 1;
-						boolean hasNewLetters = false;
-						int wordMultiplier = 1;
-						int tempWordScore = 0;
-						if (endIndex - startIndex >= 1) {
-							for (int k = startIndex; k <= endIndex; k++) {
-								tempWordScore += grid[k][i].getValue();
-								wordMultiplier *= grid[k][i].getWordMultiplier(); 
-								if (!grid[k][i].isFinalized()) {
-									hasNewLetters = true;
-								}
-							}
-							if (hasNewLetters) {
-								tempScore += tempWordScore * wordMultiplier;
-							}
-						}
-				} else if (!grid[j][i].getLetter().equals(" ") && j != 0 && 
-							grid[j - 1][i].getLetter().equals(" ")) {
-						startIndex = j;
-				} else if (!grid[j][i].getLetter().equals(" ") && j == 0) {
-						startIndex = j;
-				}
-			}
-		}
-			return tempScore;
+		return ScoringEngine.score(model, lastScore);
 	}
 
 	/**
-	* This is a private helper methods that reverses an array.
+	* This is a simple getter function which gets the word by word score of the last call to
+	* calculateScore. The same object is reused for every turn.
 	*
-    * @param Til[] oldArry, an array of Tiles that needs to be reversed
-	* @return a Tile[], the final reversed array 
+	* @return the ScoreBreakdown of the last turn scored
 	*/
-	private Tile[] reverseArray(Tile[] oldArray) {
-		Tile[] newArray = new Tile[oldArray.length];
-		for (int i = 0; i < newArray.length; i++) {
-			 newArray[i] = oldArray[oldArray.length - i - 1].makeCopy();
-			}
-		return newArray;
+	public ScoreBreakdown getLastScore() {
+		return lastScore;
 	}
-	
+
 	/**
-	* This method is called during the game to make sure that all new Tiles placed on the 
+	* This method is called during the game to make sure that all new Tiles placed on the
 	* Board during a round follow the invariant of the game that requires the new Tiles
 	* to be somehow touching old Tiles.
 	*
 	* @return a boolean, representing whether or not the new Tiles are adjacent to the old Tiles
 	*/
 	public boolean newTilestouchOld() {
-		for (int i = 0; i < grid.length; i++) {
-			for (int j = 0; j < grid[i].length; j++) {
-				Tile currentTile = grid[i][j];
-				if (!currentTile.isFinalized() && !currentTile.isEmpty()) {
-					if (((i - 1 < 0) || (i - 1 >= 0 && grid[i - 1][j].isEmpty())) &&
-						((i + 1 >= grid.length) || 
-								(i + 1 < grid.length && grid[i + 1][j].isEmpty())) &&
-						((j + 1 < 0) || 
-								(j - 1 >= 0 && grid[i][j - 1].isEmpty())) &&
-						((i + 1 >= grid.length) || 
-								(j + 1 < grid[i].length && grid[i][j + 1].isEmpty()))) {
-						return false;
-					}
-				}
-			}
-		}
-		return true;
+		return model.newTilesTouchOld();
 	}
-	
+
 	/**
-	* This method is called at the end of a turn, after the score has been calculated, to 
+	* This method is called at the end of a turn, after the score has been calculated, to
 	* finalize all the Tiles on the Board. This prevents those tiles from ever being moved or
-	* changed again, an invariant of the game.
+	* changed again, an invariant of the game. The cross-checks around the new Tiles and the
+	* count of unseen tiles are then brought up to date.
 	*
 	* @return none
 	*/
 	public void finalizeBoard() {
+		int count = model.getNumPending();
+		for (int i = 0; i < count; i++) {
+			changedSquares[i] = model.getPending(i);
+			unseenTiles.place(model.getLetter(changedSquares[i]));
+		}
 		for (int i = 0; i < grid.length; i++) {
 			for (int j = 0; j < grid[i].length; j++) {
-				if (!grid[i][j].isEmpty()) {
+				if (model.isPending(BoardModel.index(i, j))) {
 					grid[i][j].finalize();
 				}
 			}
 		}
+		crossChecks.update(changedSquares, count);
+	}
+
+	/**
+	* This method puts a finalized letter on a square, or empties it, when a turn is taken
+	* back or made again, and redraws its Tile. The cross-checks around the square and the
+	* count of unseen tiles are brought up to date.
+	*
+	* @param square, the square's number
+	* @param code, the letter code, or Letters.NONE to empty the square
+	* @return none
+	*/
+	public void setFinalLetter(int square, int code) {
+		Tile tile = grid[square / BoardModel.SIZE][square % BoardModel.SIZE];
+		if (code == Letters.NONE) {
+			unseenTiles.remove(model.getLetter(square));
+			model.clearSquare(square);
+			tile.initialDraw();
+		} else {
+			model.setLetter(square, code);
+			unseenTiles.place(code);
+			tile.setFont(new Font("Times New Roman", Font.PLAIN, 14));
+			tile.setText(Letters.decode(code));
+			tile.finalize();
+		}
+		changedSquares[0] = square;
+		crossChecks.update(changedSquares, 1);
 	}
-	
+
 	/**
 	* This method makes sure that all the tiles placed on the board during a single turn
-	* are all within the same column or all within the same row. This is a mandatory 
+	* are all within the same column or all within the same row. This is a mandatory
 	* invariant of the game.
 	*
 	* @return a boolean representing whether or not this invariant is maintained on the current
 	* Board
 	*/
 	public boolean allMovesInLine() {
-		boolean columnMove = false;
-		boolean rowMove = false;
-		boolean foundMove = false;
-		int lineIndex = -1;
-		for (int i = 0; i < grid.length; i++) {
-			for (int j = 0; j < grid[i].length; j++) {
-				if (!grid[i][j].isFinalized() && !grid[i][j].isEmpty()) {
-					if (!foundMove) {
-						for (int k = 0; k < grid.length; k++) {
-							if (!grid[k][j].isFinalized() && !grid[k][j].isEmpty() && k!= i) {
-								rowMove = true;
-								lineIndex = j;
-								foundMove = true;
-								break;
-							}
-						}
-						if (!foundMove) {
-							columnMove = true;
-							lineIndex = i;
-							foundMove = true;
-						}
-					} else { 
-						if (columnMove && i != lineIndex) {
-							return false;
-						} else if (rowMove && j != lineIndex) {
-							return false;
-						}
-					}
-					
-				}
-			}
-		}
-		return true;
+		return model.allMovesInLine();
 	}
 
 	/**
@@ -394,6 +224,6 @@ public class Board {
 	* @return a boolean, representing whether or not the center Tile was used
 	*/
 	public boolean middleTileUsed() {
-		return !grid[7][7].isEmpty();
+		return model.middleTileUsed();
 	}
 }
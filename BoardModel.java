@@ -0,0 +1,625 @@
+
+
+import java.util.Arrays;
+
+/**
+ * This class is the headless model of a Scrabble board: the letter on each of the 225 squares,
+ * which of them have been finalized, and the premium squares. It holds no Swing objects, so
+ * thousands of boards can be kept in memory for analysis, and every rule check and score that
+ * the game needs can run on it directly. The Tiles of a Board are only views of its model.
+ * <p>
+ * Squares are numbered x * SIZE + y, matching Board.getTile(x, y). The screen draws y = 14 at
+ * the top, so words are read with x increasing (ACROSS) or with y decreasing (DOWN). The
+ * methods that take a line and a position use that reading order: position 0 is the leftmost
+ * square of a row or the top square of a column.
+ */
+public class BoardModel {
+	/** The number of squares along each side of the board. */
+	public static final int SIZE = 15;
+
+	/** The number of squares on the board. */
+	public static final int SQUARES = SIZE * SIZE;
+
+	/** The square that the first move must cover. */
+	public static final int CENTER = index(7, 7);
+
+	/** The direction of words read along a row. */
+	public static final boolean ACROSS = true;
+
+	/** The direction of words read down a column. */
+	public static final boolean DOWN = false;
+
+	private static final byte[] LETTER_PREMIUM = new byte[SQUARES];
+	private static final byte[] WORD_PREMIUM = new byte[SQUARES];
+
+	/** The number of longs in a bitboard, one bit per square. */
+	static final int WORDS = (SQUARES + 63) / 64;
+
+	// bitboards of the squares with a square after them in their column (y < 14) and with
+	// one before them (y > 0), and of each row and column
+	private static final long[] NOT_LAST_Y = new long[WORDS];
+	private static final long[] NOT_FIRST_Y = new long[WORDS];
+	private static final long[][] ROWS = new long[SIZE][WORDS];
+	private static final long[][] COLUMNS = new long[SIZE][WORDS];
+
+	static {
+		for (int x = 0; x < SIZE; x++) {
+			for (int y = 0; y < SIZE; y++) {
+				LETTER_PREMIUM[index(x, y)] = (byte) getInitialLetterMult(x, y);
+				WORD_PREMIUM[index(x, y)] = (byte) getInitialWordMult(x, y);
+				int square = index(x, y);
+				long bit = 1L << square;
+				if (y < SIZE - 1) {
+					NOT_LAST_Y[square >>> 6] |= bit;
+				}
+				if (y > 0) {
+					NOT_FIRST_Y[square >>> 6] |= bit;
+				}
+				ROWS[y][square >>> 6] |= bit;
+				COLUMNS[x][square >>> 6] |= bit;
+			}
+		}
+	}
+
+	private final byte[] letters;
+	private final boolean[] finalized;
+	private final int[] letterValues;
+
+	// the squares holding pending letters, in the order they were placed
+	private final int[] pending;
+	private int numPending;
+
+	// the same squares as bitboards: bit (square & 63) of word (square >>> 6)
+	private final long[] finalizedBits;
+	private final long[] pendingBits;
+
+	// the Zobrist key of the letters on the board (see Zobrist)
+	private long key;
+
+    /**
+     * Constructs an empty BoardModel.
+     *
+     * @param letterValues, the value of each letter code, shared with the caller and never
+     * 			modified (see ScrabbleRules.getLetterValues)
+     */
+	public BoardModel(int[] letterValues) {
+		this.letters = new byte[SQUARES];
+		this.finalized = new boolean[SQUARES];
+		this.letterValues = letterValues;
+		this.pending = new int[SQUARES];
+		this.numPending = 0;
+		this.finalizedBits = new long[WORDS];
+		this.pendingBits = new long[WORDS];
+	}
+
+    /**
+     * Constructs a copy of another BoardModel, sharing only the letter values.
+     *
+     * @param other, the BoardModel to copy
+     */
+	public BoardModel(BoardModel other) {
+		this.letters = Arrays.copyOf(other.letters, SQUARES);
+		this.finalized = Arrays.copyOf(other.finalized, SQUARES);
+		this.letterValues = other.letterValues;
+		this.pending = Arrays.copyOf(other.pending, SQUARES);
+		this.numPending = other.numPending;
+		this.finalizedBits = Arrays.copyOf(other.finalizedBits, WORDS);
+		this.pendingBits = Arrays.copyOf(other.pendingBits, WORDS);
+		this.key = other.key;
+	}
+
+    /**
+     * This method returns the number of a square
+     *
+     * @param x, the "x-coordinate" of the square, as in Board.getTile
+     * @param y, the "y-coordinate" of the square, as in Board.getTile
+     * @return an int, the square's number
+     */
+	public static int index(int x, int y) {
+		return x * SIZE + y;
+	}
+
+    /**
+     * This method returns the number of a square given in reading order
+     *
+     * @param direction, ACROSS for rows or DOWN for columns
+     * @param line, the row (y) read across or the column (x) read down
+     * @param position, how far along the line the square is, in reading order
+     * @return an int, the square's number
+     */
+	public static int square(boolean direction, int line, int position) {
+		if (direction == ACROSS) {
+			return index(position, line);
+		}
+		return index(line, SIZE - 1 - position);
+	}
+
+    /**
+     * This method returns the line a square is on when reading in a direction
+     *
+     * @param square, the square's number
+     * @param direction, ACROSS or DOWN
+     * @return an int, the row for ACROSS or the column for DOWN
+     */
+	public static int lineOf(int square, boolean direction) {
+		return direction == ACROSS ? square % SIZE : square / SIZE;
+	}
+
+    /**
+     * This method returns how far along its line a square is when reading in a direction
+     *
+     * @param square, the square's number
+     * @param direction, ACROSS or DOWN
+     * @return an int, the square's position in reading order
+     */
+	public static int positionOf(int square, boolean direction) {
+		return direction == ACROSS ? square / SIZE : SIZE - 1 - square % SIZE;
+	}
+
+	/**
+	* This is a private helper methods that sets up the initial values of the letter
+	* multipliers at given positions in the board.
+	*
+    * @param int x, the "x-coordinate" position of a Tile on the Board
+    * @param int y, the "y-coordinate" position of a Tile on the Board
+	* @return an int, representing the letterMultilplier for a specific Tile on the Board
+	*/
+	private static int getInitialLetterMult(int x, int y) {
+		if ((x == 0 && y == 11) || (x == 0 && y == 3) || (x == 2 && y == 6)  ||
+			(x == 2 && y == 8)  || (x == 3 && y == 7) || (x == 3 && y == 0)  ||
+			(x == 3 && y == 14) || (x == 6 && y == 2) || (x == 6 && y == 6)  ||
+			(x == 6 && y == 8) || (x == 6 && y == 12) || (x == 7 && y == 3)  ||
+			(x == 7 && y == 11) || (x == 8 && y == 2) || (x == 8 && y == 6)  ||
+			(x == 8 && y == 8) || (x == 8 && y == 12) || (x == 11 && y == 7)  ||
+			(x == 11 && y == 0) || (x == 11 && y == 14) || (x == 12 && y == 6)  ||
+			(x == 12 && y == 8) || (x == 14 && y == 3) || (x == 14 && y == 11)) {
+			return 2;
+		} else if((x == 1 && y == 5) || (x == 1 && y == 9) || (x == 5 && y == 1)  ||
+				(x == 5 && y == 5)  || (x == 5 && y == 9) || (x == 5 && y == 13)  ||
+				(x == 9 && y == 1) || (x == 9 && y == 5) || (x == 9 && y == 9)  ||
+				(x == 9 && y == 13) || (x == 13 && y == 5) || (x == 13 && y == 9)) {
+			return 3;
+		}
+		return 1;
+		}
+
+	/**
+	* This is a private helper methods that sets up the initial values of the word
+	* multipliers at given positions in the board.
+	*
+    * @param int x, the "x-coordinate" position of a Tile on the Board
+    * @param int y, the "y-coordinate" position of a Tile on the Board
+	* @return an int, representing the wordMultiplier for a specific Tile on the Board
+	*/
+	private static int getInitialWordMult(int x, int y) {
+		if ((x == 7 && y == 7) || (x == 1 && y == 1) || (x == 2 && y == 2)  ||
+			(x == 3 && y == 3)  || (x == 4 && y == 4) || (x == 10 && y == 4)  ||
+			(x == 11 && y == 3) || (x == 12 && y == 2) || (x == 13 && y == 1)  ||
+			(x == 1 && y == 13) || (x == 2 && y == 12) || (x == 3 && y == 11)  ||
+			(x == 4 && y == 10) || (x == 10 && y == 10) || (x == 11 && y == 11)  ||
+			(x == 12 && y == 12) || (x == 13 && y == 13)) {
+			return 2;
+		} else if((x == 0 && y == 0) || (x == 7 && y == 0) || (x == 14 && y == 0)  ||
+				(x == 0 && y == 7)  || (x == 0 && y == 14) || (x == 7 && y == 14)  ||
+				(x == 14 && y == 7) || (x == 14 && y == 14)) {
+			return 3;
+		}
+		return 1;
+		}
+
+    /**
+     * This method returns the letter code on a square
+     *
+     * @param square, the square's number
+     * @return an int, the letter code, or Letters.NONE if the square is empty
+     */
+	public int getLetter(int square) {
+		return letters[square];
+	}
+
+    /**
+     * This method returns whether or not a square has no letter
+     *
+     * @param square, the square's number
+     * @return a boolean, whether the square is empty
+     */
+	public boolean isEmpty(int square) {
+		return letters[square] == Letters.NONE;
+	}
+
+    /**
+     * This method returns whether or not a square's letter has been finalized
+     *
+     * @param square, the square's number
+     * @return a boolean, whether the square is finalized
+     */
+	public boolean isFinalized(int square) {
+		return finalized[square];
+	}
+
+    /**
+     * This method returns whether or not a square holds a letter placed during the current
+     * turn, i.e. a letter that has not been finalized yet
+     *
+     * @param square, the square's number
+     * @return a boolean, whether the square holds a pending letter
+     */
+	public boolean isPending(int square) {
+		return letters[square] != Letters.NONE && !finalized[square];
+	}
+
+    /**
+     * This method puts a letter on a square for the current turn, or empties the square if the
+     * code is Letters.NONE. Finalized squares cannot be changed.
+     *
+     * @param square, the square's number
+     * @param code, the letter code to place
+     * @throws IllegalStateException if the square is finalized
+     */
+	public void setLetter(int square, int code) {
+		if (finalized[square]) {
+			throw new IllegalStateException("square " + square + " is finalized");
+		}
+		if (letters[square] == Letters.NONE && code != Letters.NONE) {
+			pending[numPending++] = square;
+			pendingBits[square >>> 6] |= 1L << square;
+		} else if (letters[square] != Letters.NONE && code == Letters.NONE) {
+			removePending(square);
+			pendingBits[square >>> 6] &= ~(1L << square);
+		}
+		key ^= Zobrist.square(square, letters[square]) ^ Zobrist.square(square, code);
+		letters[square] = (byte) code;
+	}
+
+    /**
+     * This is a private helper function that takes a square off the list of pending squares
+     *
+     * @param square, the square's number
+     */
+	private void removePending(int square) {
+		for (int i = 0; i < numPending; i++) {
+			if (pending[i] == square) {
+				pending[i] = pending[--numPending];
+				return;
+			}
+		}
+	}
+
+    /**
+     * This method returns the Zobrist key of the letters on the board, pending or finalized. It
+     * is kept up to date as letters are placed and removed.
+     *
+     * @return a long, the key (see Zobrist)
+     */
+	public long getKey() {
+		return key;
+	}
+
+    /**
+     * This method returns the number of letters placed during the current turn
+     *
+     * @return an int, the number of pending squares
+     */
+	public int getNumPending() {
+		return numPending;
+	}
+
+    /**
+     * This method returns one of the squares holding a letter placed during the current turn.
+     * The squares are in no particular order.
+     *
+     * @param i, which pending square to return, from 0 to getNumPending() - 1
+     * @return an int, the square's number
+     */
+	public int getPending(int i) {
+		return pending[i];
+	}
+
+    /**
+     * This method finalizes a square, so that its letter can never change and its premium is
+     * used up.
+     *
+     * @param square, the square's number
+     */
+	public void finalizeSquare(int square) {
+		if (isPending(square)) {
+			finalized[square] = true;
+			removePending(square);
+			pendingBits[square >>> 6] &= ~(1L << square);
+			finalizedBits[square >>> 6] |= 1L << square;
+		}
+	}
+
+    /**
+     * This method finalizes every letter placed during the current turn
+     */
+	public void finalizeAll() {
+		for (int i = 0; i < numPending; i++) {
+			finalized[pending[i]] = true;
+		}
+		numPending = 0;
+		for (int i = 0; i < WORDS; i++) {
+			finalizedBits[i] |= pendingBits[i];
+			pendingBits[i] = 0;
+		}
+	}
+
+    /**
+     * This method empties a square whether or not its letter was finalized, so that a finished
+     * move can be taken back. The square's premium can be used again.
+     *
+     * @param square, the square's number
+     */
+	public void clearSquare(int square) {
+		if (finalized[square]) {
+			finalized[square] = false;
+			finalizedBits[square >>> 6] &= ~(1L << square);
+			key ^= Zobrist.square(square, letters[square]);
+			letters[square] = Letters.NONE;
+		} else {
+			setLetter(square, Letters.NONE);
+		}
+	}
+
+    /**
+     * This method returns the letter multiplier of a square. A finalized square's premium has
+     * been used, so its multiplier is 1.
+     *
+     * @param square, the square's number
+     * @return an int, the letter multiplier
+     */
+	public int getLetterMultiplier(int square) {
+		return finalized[square] ? 1 : LETTER_PREMIUM[square];
+	}
+
+    /**
+     * This method returns the word multiplier of a square. A finalized square's premium has
+     * been used, so its multiplier is 1.
+     *
+     * @param square, the square's number
+     * @return an int, the word multiplier
+     */
+	public int getWordMultiplier(int square) {
+		return finalized[square] ? 1 : WORD_PREMIUM[square];
+	}
+
+    /**
+     * This method returns the value of the letter on a square times its letter multiplier
+     *
+     * @param square, the square's number
+     * @return an int, the square's value, or 0 if it is empty
+     */
+	public int getValue(int square) {
+		return letterValues[letters[square]] * getLetterMultiplier(square);
+	}
+
+    /**
+     * This method returns the value of a letter code, without any multiplier
+     *
+     * @param code, the letter code
+     * @return an int, the letter's value
+     */
+	public int getLetterValue(int code) {
+		return letterValues[code];
+	}
+
+    /**
+     * This method returns whether or not any letters have been placed during the current turn
+     *
+     * @return a boolean, whether any square holds a pending letter
+     */
+	public boolean movesMade() {
+		return (pendingBits[0] | pendingBits[1] | pendingBits[2] | pendingBits[3]) != 0;
+	}
+
+    /**
+     * This method returns whether or not the center square has a letter
+     *
+     * @return a boolean, whether the center square is covered
+     */
+	public boolean middleTileUsed() {
+		return ((finalizedBits[CENTER >>> 6] | pendingBits[CENTER >>> 6]) & (1L << CENTER)) != 0;
+	}
+
+    /**
+     * This method checks that every letter placed this turn shares one row or one column
+     *
+     * @return a boolean, whether all the pending letters are in one line
+     */
+	public boolean allMovesInLine() {
+		if (numPending == 0) {
+			return true;
+		}
+		int first = pending[0];
+		long[] row = ROWS[first % SIZE];
+		long[] column = COLUMNS[first / SIZE];
+		long outsideRow = 0;
+		long outsideColumn = 0;
+		for (int i = 0; i < WORDS; i++) {
+			outsideRow |= pendingBits[i] & ~row[i];
+			outsideColumn |= pendingBits[i] & ~column[i];
+		}
+		return outsideRow == 0 || outsideColumn == 0;
+	}
+
+    /**
+     * This method checks that the letters placed this turn are joined to the letters already on
+     * the board: every pending letter must be next to some other letter, and at least one of
+     * them must be next to a finalized letter. On an empty board there is nothing to join to,
+     * so only the first condition applies.
+     *
+     * @return a boolean, whether the pending letters touch the old letters
+     */
+	public boolean newTilesTouchOld() {
+		long f0 = finalizedBits[0], f1 = finalizedBits[1], f2 = finalizedBits[2], f3 = finalizedBits[3];
+		long p0 = pendingBits[0], p1 = pendingBits[1], p2 = pendingBits[2], p3 = pendingBits[3];
+		long o0 = f0 | p0, o1 = f1 | p1, o2 = f2 | p2, o3 = f3 | p3;
+		long alone = p0 & ~neighbors(0, o0, o1, 0) | p1 & ~neighbors(o0, o1, o2, 1)
+				| p2 & ~neighbors(o1, o2, o3, 2) | p3 & ~neighbors(o2, o3, 0, 3);
+		if (alone != 0) {
+			return false;
+		}
+		if ((f0 | f1 | f2 | f3) == 0) {
+			return true;
+		}
+		return (p0 & neighbors(0, f0, f1, 0) | p1 & neighbors(f0, f1, f2, 1)
+				| p2 & neighbors(f1, f2, f3, 2) | p3 & neighbors(f2, f3, 0, 3)) != 0;
+	}
+
+    /**
+     * This is a private helper function that returns one word of the bitboard of squares next
+     * to a letter: the letters' bits are shifted one square along the column (1 bit) and one
+     * square along the row (SIZE bits) each way, carrying bits in from the words on either side.
+     * The squares at the ends of the words (63, 64, 127, 128, 191, 192) are never at the top or
+     * bottom of a column, so the 1 bit carries need no mask. Bits past the last square may be
+     * set in the result; the callers only AND it with pending squares.
+     *
+     * @param below, word i - 1 of the bitboard of letters, or 0 if i is 0
+     * @param word, word i of the bitboard of letters
+     * @param above, word i + 1 of the bitboard of letters, or 0 if i is the last word
+     * @param i, which word of the result to return
+     * @return a long, word i of the bitboard of squares next to a letter
+     */
+	private static long neighbors(long below, long word, long above, int i) {
+		long next = (word & NOT_LAST_Y[i]) << 1 | below >>> 63;
+		long previous = (word & NOT_FIRST_Y[i]) >>> 1 | above << 63;
+		long right = word << SIZE | below >>> (64 - SIZE);
+		long left = word >>> SIZE | above << (64 - SIZE);
+		return next | previous | right | left;
+	}
+
+    /**
+     * This method returns whether or not any of the four squares next to a square has a letter
+     *
+     * @param square, the square's number
+     * @return a boolean, whether the square has an occupied neighbor
+     */
+	public boolean hasNeighbor(int square) {
+		int x = square / SIZE;
+		int y = square % SIZE;
+		return (x > 0 && !isEmpty(square - SIZE)) || (x < SIZE - 1 && !isEmpty(square + SIZE))
+				|| (y > 0 && !isEmpty(square - 1)) || (y < SIZE - 1 && !isEmpty(square + 1));
+	}
+
+    /**
+     * This method returns where the run of letters through a square starts, i.e. how far back
+     * along the line the letters go without a gap
+     *
+     * @param square, a square holding a letter
+     * @param direction, ACROSS or DOWN
+     * @return an int, the position of the first letter of the run
+     */
+	public int runStart(int square, boolean direction) {
+		int line = lineOf(square, direction);
+		int position = positionOf(square, direction);
+		while (position > 0 && !isEmpty(square(direction, line, position - 1))) {
+			position--;
+		}
+		return position;
+	}
+
+    /**
+     * This method returns where the run of letters through a square ends
+     *
+     * @param square, a square holding a letter
+     * @param direction, ACROSS or DOWN
+     * @return an int, the position after the last letter of the run
+     */
+	public int runEnd(int square, boolean direction) {
+		int line = lineOf(square, direction);
+		int position = positionOf(square, direction);
+		while (position < SIZE - 1 && !isEmpty(square(direction, line, position + 1))) {
+			position++;
+		}
+		return position + 1;
+	}
+
+    /**
+     * This method checks that no letter on the board stands alone and that every word of two
+     * or more letters, read across or down, is in the Dictionary.
+     *
+     * @param dictionary, the Dictionary of legal words
+     * @return a boolean, whether the board only holds legal words
+     */
+	public boolean isOnlyWords(Dictionary dictionary) {
+		for (int square = 0; square < SQUARES; square++) {
+			if (!isEmpty(square) && !hasNeighbor(square)) {
+				return false;
+			}
+		}
+		char[] word = new char[SIZE];
+		for (int d = 0; d < 2; d++) {
+			boolean direction = d == 0 ? ACROSS : DOWN;
+			for (int line = 0; line < SIZE; line++) {
+				int length = 0;
+				for (int position = 0; position <= SIZE; position++) {
+					int square = position < SIZE ? square(direction, line, position) : -1;
+					if (square >= 0 && !isEmpty(square)) {
+						word[length++] = Letters.toLowerChar(letters[square]);
+					} else {
+						if (length >= 2 && !dictionary.isWord(new String(word, 0, length))) {
+							return false;
+						}
+						length = 0;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+    /**
+     * This method calculates the points for the current turn by scanning every row and column
+     * for words of two or more letters that contain at least one pending letter. Each such word
+     * scores the sum of its squares' values times the product of its word multipliers.
+     *
+     * @return an int, the score for the letters placed this turn
+     */
+	public int calculateScore() {
+		int score = 0;
+		for (int d = 0; d < 2; d++) {
+			boolean direction = d == 0 ? ACROSS : DOWN;
+			for (int line = 0; line < SIZE; line++) {
+				int start = -1;
+				for (int position = 0; position <= SIZE; position++) {
+					int square = position < SIZE ? square(direction, line, position) : -1;
+					if (square >= 0 && !isEmpty(square)) {
+						if (start < 0) {
+							start = position;
+						}
+					} else if (start >= 0) {
+						score += scoreRun(direction, line, start, position);
+						start = -1;
+					}
+				}
+			}
+		}
+		return score;
+	}
+
+    /**
+     * This is a private helper function that scores the run of letters [start, end) on a line
+     * if it is a word with at least one pending letter.
+     *
+     * @param direction, ACROSS or DOWN
+     * @param line, the line of the run
+     * @param start, the position of the first letter
+     * @param end, the position after the last letter
+     * @return an int, the run's score, or 0 if it does not count
+     */
+	private int scoreRun(boolean direction, int line, int start, int end) {
+		if (end - start < 2) {
+			return 0;
+		}
+		boolean hasNewLetters = false;
+		int wordScore = 0;
+		int wordMultiplier = 1;
+		for (int position = start; position < end; position++) {
+			int square = square(direction, line, position);
+			wordScore += getValue(square);
+			wordMultiplier *= getWordMultiplier(square);
+			hasNewLetters |= !finalized[square];
+		}
+		return hasNewLetters ? wordScore * wordMultiplier : 0;
+	}
+}
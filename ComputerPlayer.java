@@ -0,0 +1,306 @@
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class picks the plays of a computer opponent. Every legal play of its rack is found with
+ * a MoveGenerator and rated by its equity: the points it scores plus a static value of the
+ * letters it leaves on the rack, since keeping an S is worth points later while keeping a Q
+ * or three I's costs them. The value of a leave is read from a LeaveTable when one is set, and
+ * worked out by a static formula otherwise. The search has a time budget; when it runs out, the
+ * best play found so far is returned.
+ * <p>
+ * With a Simulator set, the computer keeps the few plays with the best equity instead of only
+ * the best one, and spends the rest of its time budget playing out a few turns after each of
+ * them (see Simulator), choosing the one that does best.
+ * <p>
+ * This class holds no Swing objects. GameScreen runs it on a background thread so the window
+ * keeps repainting while the computer thinks.
+ */
+public class ComputerPlayer implements MoveGenerator.MoveHandler {
+	/** The time budget used unless another is set, in milliseconds. */
+	public static final long DEFAULT_TIME_BUDGET = 1000;
+
+	/** A good number of candidate plays to simulate, for setSimulator. */
+	public static final int DEFAULT_CANDIDATES = 8;
+
+	// the value of keeping one of each letter, in tenths of a point, indexed by letter code
+	private static final int[] LETTER_LEAVE = { 0,
+		10, -20, 5, 5, 15, -20, -25, 5, -5, -30, -25, -5, 0,
+		0, -10, -10, -70, 10, 75, 0, -30, -55, -40, 35, -20, 20 };
+
+	// the cost of each copy of a letter after the first, in tenths of a point
+	private static final int DUPLICATE_LEAVE = -30;
+
+	// the cost of each vowel or consonant too many for a balanced rack, in tenths of a point
+	private static final int IMBALANCE_LEAVE = -15;
+
+	private final MoveGenerator generator;
+	private long timeBudget = DEFAULT_TIME_BUDGET;
+	private LeaveTable leaves;
+	private Simulator simulator;
+
+	// the best plays of the search in progress, best first, and their equities
+	private Move[] kept = { new Move() };
+	private double[] keptEquity = new double[1];
+	private int numKept;
+	// a copy of the rack, as the generator takes tiles off the one it is given while it searches
+	private final int[] rack = new int[Letters.COUNT + 1];
+	private final int[] leave = new int[Letters.COUNT + 1];
+
+    /**
+     * Constructs a ComputerPlayer for a word list.
+     *
+     * @param words, the word graph of the Dictionary (see Dictionary.getWordGraph)
+     */
+	public ComputerPlayer(Dawg words) {
+		this.generator = new MoveGenerator(words);
+	}
+
+    /**
+     * This method sets how long a search may take
+     *
+     * @param millis, the time budget of each search, in milliseconds
+     */
+	public void setTimeBudget(long millis) {
+		timeBudget = millis;
+	}
+
+    /**
+     * This method returns how long a search may take
+     *
+     * @return a long, the time budget of each search, in milliseconds
+     */
+	public long getTimeBudget() {
+		return timeBudget;
+	}
+
+    /**
+     * This method sets the table the values of leaves are read from
+     *
+     * @param leaves, the LeaveTable, or null to use the static formula (see leaveValue)
+     */
+	public void setLeaveTable(LeaveTable leaves) {
+		this.leaves = leaves;
+	}
+
+    /**
+     * This method returns the table the values of leaves are read from
+     *
+     * @return the LeaveTable, or null if the static formula is used
+     */
+	public LeaveTable getLeaveTable() {
+		return leaves;
+	}
+
+    /**
+     * This method sets the Simulator that chooses between the best plays, and how many of them
+     * it is given
+     *
+     * @param simulator, the Simulator, or null to play the play with the best equity
+     * @param numCandidates, the number of plays to simulate
+     */
+	public synchronized void setSimulator(Simulator simulator, int numCandidates) {
+		this.simulator = simulator;
+		int capacity = simulator == null ? 1 : Math.max(1, numCandidates);
+		kept = new Move[capacity];
+		for (int i = 0; i < capacity; i++) {
+			kept[i] = new Move();
+		}
+		keptEquity = new double[capacity];
+	}
+
+    /**
+     * This method returns the Simulator that chooses between the best plays
+     *
+     * @return the Simulator, or null if the play with the best equity is played
+     */
+	public Simulator getSimulator() {
+		return simulator;
+	}
+
+    /**
+     * This method picks the play with the best equity for a rack on a BoardModel, searching for
+     * at most the time budget. It never simulates, so a Simulator can use it for its playouts.
+     *
+     * @param model, the BoardModel
+     * @param crossChecks, the up to date CrossCheckTable of the model
+     * @param rack, how many of each letter code the computer holds
+     * @return a new Move, the best play found, or null if there is no legal play
+     */
+	public synchronized Move chooseMove(BoardModel model, CrossCheckTable crossChecks,
+			int[] rack) {
+		search(model, crossChecks, rack, System.nanoTime() + timeBudget * 1000000L);
+		return numKept > 0 ? new Move(kept[0]) : null;
+	}
+
+    /**
+     * This method picks a play for a rack in a game. Without a Simulator it is the play with
+     * the best equity, as chooseMove(model, crossChecks, rack) finds. With one, the search for
+     * the candidate plays may take half the time budget, and the Simulator then chooses between
+     * them in the time that is left.
+     *
+     * @param model, the BoardModel, with no pending letters
+     * @param crossChecks, the up to date CrossCheckTable of the model
+     * @param rack, how many of each letter code the computer holds
+     * @param unseen, how many of each letter code the computer cannot see
+     * 			(see UnseenTiles.getCounts)
+     * @param spread, the computer's score minus the opponent's
+     * @return a new Move, the play chosen, or null if there is no legal play
+     */
+	public synchronized Move chooseMove(BoardModel model, CrossCheckTable crossChecks,
+			int[] rack, int[] unseen, int spread) {
+		long start = System.nanoTime();
+		search(model, crossChecks, rack, start + timeBudget * 1000000L / 2);
+		if (simulator == null || numKept < 2) {
+			return numKept > 0 ? new Move(kept[0]) : null;
+		}
+		List<Move> candidates = new ArrayList<Move>(numKept);
+		for (int i = 0; i < numKept; i++) {
+			candidates.add(kept[i]);
+		}
+		simulator.setTimeBudget(Math.max(0, timeBudget - (System.nanoTime() - start) / 1000000));
+		List<Simulator.Candidate> results = simulator.simulate(model, crossChecks, rack, unseen,
+				spread, candidates);
+		return new Move(results.get(0).getMove());
+	}
+
+    /**
+     * This is a private helper function that searches every play of a rack and keeps the ones
+     * with the best equity
+     *
+     * @param model, the BoardModel
+     * @param crossChecks, the up to date CrossCheckTable of the model
+     * @param rack, how many of each letter code the computer holds
+     * @param deadline, the System.nanoTime() at which the search stops
+     */
+	private void search(BoardModel model, CrossCheckTable crossChecks, int[] rack,
+			long deadline) {
+		System.arraycopy(rack, 0, this.rack, 0, this.rack.length);
+		numKept = 0;
+		generator.setDeadline(deadline);
+		generator.generate(model, crossChecks, rack, this);
+	}
+
+    /**
+     * This method rates a play found by the search and keeps it if it is one of the best so
+     * far. It is only called by the MoveGenerator.
+     *
+     * @param move, the play
+     */
+	@Override
+	public void move(Move move) {
+		System.arraycopy(rack, 0, leave, 0, leave.length);
+		for (int i = 0; i < move.getLength(); i++) {
+			if (move.isNew(i)) {
+				leave[move.getLetter(i)]--;
+			}
+		}
+		double equity = move.getScore() + rateLeave(leave);
+		if (numKept == kept.length && !isBetter(move, equity, numKept - 1)) {
+			return;
+		}
+		// the worst kept Move is reused, and the better ones move down to make room
+		int i = numKept < kept.length ? numKept++ : numKept - 1;
+		Move slot = kept[i];
+		while (i > 0 && isBetter(move, equity, i - 1)) {
+			kept[i] = kept[i - 1];
+			keptEquity[i] = keptEquity[i - 1];
+			i--;
+		}
+		slot.copyFrom(move);
+		kept[i] = slot;
+		keptEquity[i] = equity;
+	}
+
+    /**
+     * This is a private helper function that returns whether or not a play is better than a
+     * kept one: it has more equity, or the same equity and comes first in Move.BEST_FIRST
+     *
+     * @param move, the play
+     * @param equity, the equity of the play
+     * @param i, the place of the kept play
+     * @return a boolean, whether the play is better
+     */
+	private boolean isBetter(Move move, double equity, int i) {
+		return equity > keptEquity[i]
+				|| (equity == keptEquity[i] && Move.BEST_FIRST.compare(move, kept[i]) < 0);
+	}
+
+    /**
+     * This method returns the value of the letters left on a rack after a play: the value in
+     * the LeaveTable if one is set and has the leave, and the static value otherwise
+     *
+     * @param counts, how many of each letter code are left
+     * @return a double, the value in points, which may be negative
+     */
+	public double rateLeave(int[] counts) {
+		if (leaves != null) {
+			int index = leaves.index(counts);
+			if (index >= 0) {
+				return leaves.value(index);
+			}
+		}
+		return leaveValue(counts);
+	}
+
+    /**
+     * This method returns the static value of the letters left on a rack after a play: the
+     * sum of each letter's value, less a cost for repeated letters and for too many vowels or
+     * consonants.
+     *
+     * @param counts, how many of each letter code are left
+     * @return a double, the value in points, which may be negative
+     */
+	public static double leaveValue(int[] counts) {
+		int value = 0;
+		int vowels = 0;
+		int total = 0;
+		for (int code = 1; code <= Letters.COUNT; code++) {
+			int count = counts[code];
+			if (count == 0) {
+				continue;
+			}
+			value += count * LETTER_LEAVE[code] + (count - 1) * DUPLICATE_LEAVE;
+			total += count;
+			if (isVowel(code)) {
+				vowels += count;
+			}
+		}
+		// about two vowels in five letters is a balanced rack
+		int excess = Math.abs(5 * vowels - 2 * total) / 5;
+		value += excess * IMBALANCE_LEAVE;
+		return value / 10.0;
+	}
+
+    /**
+     * This method picks the tile a Player would most like to be rid of, for when there is no
+     * word to play: the letter with the lowest value to keep
+     *
+     * @param player, the Player
+     * @return an int, the index of the tile in the Player's rack
+     */
+	public static int chooseExchange(Player player) {
+		int worst = 0;
+		int worstValue = Integer.MAX_VALUE;
+		for (int i = 0; i < Player.NUM_TILES; i++) {
+			int code = Letters.encode(player.getLetter(i));
+			if (code != Letters.NONE && LETTER_LEAVE[code] < worstValue) {
+				worst = i;
+				worstValue = LETTER_LEAVE[code];
+			}
+		}
+		return worst;
+	}
+
+    /**
+     * This is a private helper function that returns whether or not a letter is a vowel
+     *
+     * @param code, the letter code
+     * @return a boolean, whether the letter is A, E, I, O or U
+     */
+	private static boolean isVowel(int code) {
+		return code == 1 || code == 5 || code == 9 || code == 15 || code == 21;
+	}
+}
@@ -0,0 +1,264 @@
+
+
+/**
+ * This class keeps, for every square of a BoardModel and each direction a word can be played
+ * in, the cross-check of the square: the set of letters that can go there without making a
+ * bad word in the other direction, and the face value of the letters of that cross word.
+ * A move generator only has to try the letters in the set, and a validator or scorer can read
+ * the cross word's value instead of walking the board.
+ * <p>
+ * The sets are 26-bit masks, bit (code - 1) for the letter code. A square with no letters next
+ * to it across the direction of play allows every letter and has no cross word. Only finalized
+ * letters count, so the table describes the board at the start of a turn; the letters placed
+ * during the turn are ignored until they are finalized and update is called. Finalizing a
+ * letter can only change the squares just past the ends of the runs through it, so an update
+ * looks at no more than four squares per letter.
+ */
+public class CrossCheckTable {
+	/** The mask that allows every letter. */
+	public static final int ALL_LETTERS = (1 << Letters.COUNT) - 1;
+
+	private final BoardModel model;
+	private final Dawg words;
+
+	// indexed [direction][square], where direction 0 is ACROSS and 1 is DOWN
+	private final int[][] masks = new int[2][BoardModel.SQUARES];
+	private final int[][] crossScores = new int[2][BoardModel.SQUARES];
+	private final boolean[][] hasCrossWord = new boolean[2][BoardModel.SQUARES];
+
+	// space for the letters of the cross word being checked
+	private final char[] before = new char[BoardModel.SIZE];
+	private final char[] after = new char[BoardModel.SIZE];
+
+    /**
+     * Constructs the cross-checks of every square of a BoardModel.
+     *
+     * @param model, the BoardModel the table follows
+     * @param words, the word graph of the Dictionary (see Dictionary.getWordGraph)
+     */
+	public CrossCheckTable(BoardModel model, Dawg words) {
+		this.model = model;
+		this.words = words;
+		rebuild();
+	}
+
+    /**
+     * Constructs a copy of another CrossCheckTable that follows a copy of its BoardModel, so a
+     * search can play moves on the copy without working the table out again.
+     *
+     * @param other, the CrossCheckTable to copy
+     * @param model, a copy of the other table's BoardModel (see BoardModel(BoardModel))
+     */
+	public CrossCheckTable(CrossCheckTable other, BoardModel model) {
+		this.model = model;
+		this.words = other.words;
+		for (int d = 0; d < 2; d++) {
+			System.arraycopy(other.masks[d], 0, masks[d], 0, BoardModel.SQUARES);
+			System.arraycopy(other.crossScores[d], 0, crossScores[d], 0, BoardModel.SQUARES);
+			System.arraycopy(other.hasCrossWord[d], 0, hasCrossWord[d], 0, BoardModel.SQUARES);
+		}
+	}
+
+    /**
+     * This method works out the cross-checks of every square again from scratch
+     */
+	public void rebuild() {
+		for (int square = 0; square < BoardModel.SQUARES; square++) {
+			compute(square, BoardModel.ACROSS);
+			compute(square, BoardModel.DOWN);
+		}
+	}
+
+    /**
+     * This method brings the table up to date after some squares were finalized (or emptied,
+     * e.g. when a move is taken back). Only the given squares and the empty squares at the ends
+     * of the runs through them are worked out again.
+     *
+     * @param squares, the squares that changed
+     * @param count, how many of the squares to use
+     */
+	public void update(int[] squares, int count) {
+		for (int i = 0; i < count; i++) {
+			int square = squares[i];
+			compute(square, BoardModel.ACROSS);
+			compute(square, BoardModel.DOWN);
+			for (int d = 0; d < 2; d++) {
+				boolean cross = d == 0 ? BoardModel.ACROSS : BoardModel.DOWN;
+				int line = BoardModel.lineOf(square, cross);
+				int position = BoardModel.positionOf(square, cross);
+				int start = position;
+				while (start > 0 && isLetter(BoardModel.square(cross, line, start - 1))) {
+					start--;
+				}
+				int end = position;
+				while (end < BoardModel.SIZE - 1
+						&& isLetter(BoardModel.square(cross, line, end + 1))) {
+					end++;
+				}
+				if (start > 0) {
+					compute(BoardModel.square(cross, line, start - 1), !cross);
+				}
+				if (end < BoardModel.SIZE - 1) {
+					compute(BoardModel.square(cross, line, end + 1), !cross);
+				}
+			}
+		}
+	}
+
+    /**
+     * This method returns the letters that can be played on a square in a direction
+     *
+     * @param square, the square's number
+     * @param direction, the direction of the word being played, BoardModel.ACROSS or DOWN
+     * @return an int, a mask with bit (code - 1) set for each allowed letter code, or 0 if the
+     * 			square holds a finalized letter
+     */
+	public int getCrossCheck(int square, boolean direction) {
+		return masks[direction ? 0 : 1][square];
+	}
+
+    /**
+     * This method returns whether or not a letter can be played on a square in a direction
+     *
+     * @param square, the square's number
+     * @param direction, the direction of the word being played
+     * @param code, the letter code
+     * @return a boolean, whether the letter is allowed by the cross word
+     */
+	public boolean allows(int square, boolean direction, int code) {
+		return (masks[direction ? 0 : 1][square] & (1 << (code - 1))) != 0;
+	}
+
+    /**
+     * This method returns whether or not a letter played on a square in a direction also makes
+     * a cross word in the other direction
+     *
+     * @param square, the square's number
+     * @param direction, the direction of the word being played
+     * @return a boolean, whether the square has finalized letters next to it across the play
+     */
+	public boolean hasCrossWord(int square, boolean direction) {
+		return hasCrossWord[direction ? 0 : 1][square];
+	}
+
+    /**
+     * This method returns the face value of the letters of the cross word through a square,
+     * not counting the square itself. Premiums are not included, since they depend on the
+     * letter played.
+     *
+     * @param square, the square's number
+     * @param direction, the direction of the word being played
+     * @return an int, the sum of the letter values of the cross word, or 0 if there is none
+     */
+	public int getCrossScore(int square, boolean direction) {
+		return crossScores[direction ? 0 : 1][square];
+	}
+
+    /**
+     * This method checks the table against cross-checks worked out from scratch, for tests and
+     * debugging.
+     *
+     * @return a boolean, whether every square's entry is up to date
+     */
+	public boolean verify() {
+		CrossCheckTable fresh = new CrossCheckTable(model, words);
+		for (int d = 0; d < 2; d++) {
+			for (int square = 0; square < BoardModel.SQUARES; square++) {
+				if (masks[d][square] != fresh.masks[d][square]
+						|| crossScores[d][square] != fresh.crossScores[d][square]
+						|| hasCrossWord[d][square] != fresh.hasCrossWord[d][square]) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+    /**
+     * This is a private helper function that returns whether or not a square holds a letter
+     * that counts for the table, i.e. a finalized one
+     *
+     * @param square, the square's number
+     * @return a boolean, whether the square holds a finalized letter
+     */
+	private boolean isLetter(int square) {
+		return model.isFinalized(square);
+	}
+
+    /**
+     * This is a private helper function that works out one square's entry for one direction
+     * of play: it reads the finalized letters before and after the square across the play and
+     * keeps the letters for which before + letter + after is a word.
+     *
+     * @param square, the square's number
+     * @param direction, the direction of the word being played
+     */
+	private void compute(int square, boolean direction) {
+		int d = direction ? 0 : 1;
+		if (isLetter(square)) {
+			masks[d][square] = 0;
+			crossScores[d][square] = 0;
+			hasCrossWord[d][square] = false;
+			return;
+		}
+		boolean cross = !direction;
+		int line = BoardModel.lineOf(square, cross);
+		int position = BoardModel.positionOf(square, cross);
+		int score = 0;
+		int start = position;
+		while (start > 0 && isLetter(BoardModel.square(cross, line, start - 1))) {
+			start--;
+		}
+		int numBefore = 0;
+		for (int p = start; p < position; p++) {
+			int code = model.getLetter(BoardModel.square(cross, line, p));
+			before[numBefore++] = Letters.toLowerChar(code);
+			score += model.getLetterValue(code);
+		}
+		int numAfter = 0;
+		for (int p = position + 1; p < BoardModel.SIZE
+				&& isLetter(BoardModel.square(cross, line, p)); p++) {
+			int code = model.getLetter(BoardModel.square(cross, line, p));
+			after[numAfter++] = Letters.toLowerChar(code);
+			score += model.getLetterValue(code);
+		}
+		crossScores[d][square] = score;
+		hasCrossWord[d][square] = numBefore + numAfter > 0;
+		masks[d][square] = numBefore + numAfter == 0 ? ALL_LETTERS : allowedLetters(numBefore,
+				numAfter);
+	}
+
+    /**
+     * This is a private helper function that walks the word graph through the letters before a
+     * square, then tries each letter that can follow them and keeps it if the letters after the
+     * square finish a word.
+     *
+     * @param numBefore, the number of letters in before
+     * @param numAfter, the number of letters in after
+     * @return an int, the mask of allowed letters
+     */
+	private int allowedLetters(int numBefore, int numAfter) {
+		int node = Dawg.ROOT;
+		for (int i = 0; i < numBefore && node != Dawg.NONE; i++) {
+			node = words.child(node, before[i]);
+		}
+		if (node == Dawg.NONE) {
+			return 0;
+		}
+		int mask = 0;
+		for (int edge = words.edgeStart(node); edge < words.edgeEnd(node); edge++) {
+			int code = Letters.encode(words.edgeLabel(edge));
+			if (code == Letters.NONE) {
+				continue;
+			}
+			int next = words.edgeTarget(edge);
+			for (int i = 0; i < numAfter && next != Dawg.NONE; i++) {
+				next = words.child(next, after[i]);
+			}
+			if (next != Dawg.NONE && words.isTerminal(next)) {
+				mask |= 1 << (code - 1);
+			}
+		}
+		return mask;
+	}
+}
@@ -0,0 +1,345 @@
+
+
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class models a minimized directed acyclic word graph (DAWG). Every word in the graph is
+ * spelled by a path of edges from the root to a terminal node, and any two words that end the
+ * same way share the nodes for that ending. The graph is immutable once it is built (see
+ * DawgBuilder) and is stored in three flat buffers so that a lookup only walks integers and
+ * never allocates. The buffers either wrap arrays on the heap or are views of a memory-mapped
+ * file written by DawgFile.
+ * <p>
+ * Node n owns the edges in the range [edgeStart(n), edgeStart(n + 1)) of the labels and
+ * targets arrays. The labels of a node's edges are sorted, so walking the graph in edge order
+ * visits the words in the same order as String.compareTo.
+ */
+public class Dawg implements Iterable<String> {
+	/** The index of the root node, the node reached by the empty string. */
+	public static final int ROOT = 0;
+
+	/** The value returned by child() when there is no edge for a letter. */
+	public static final int NONE = -1;
+
+	private static final int TERMINAL = 0x80000000;
+
+	private final IntBuffer nodes;
+	private final CharBuffer labels;
+	private final IntBuffer targets;
+	private final int numWords;
+
+    /**
+     * Constructs a Dawg from its flattened arrays. This is only called by DawgBuilder.
+     *
+     * @param nodes, the first edge of each node plus one sentinel entry, with the sign bit set
+     * 			on terminal nodes
+     * @param labels, the letter on each edge
+     * @param targets, the node each edge leads to
+     * @param numWords, the number of words spelled by the graph
+     */
+	Dawg(int[] nodes, char[] labels, int[] targets, int numWords) {
+		this(IntBuffer.wrap(nodes), CharBuffer.wrap(labels), IntBuffer.wrap(targets), numWords);
+	}
+
+    /**
+     * Constructs a Dawg over buffers holding the same layout as the arrays. This is used by
+     * DawgFile to serve lookups straight out of a mapped file.
+     *
+     * @param nodes, the first edge of each node plus one sentinel entry, with the sign bit set
+     * 			on terminal nodes
+     * @param labels, the letter on each edge
+     * @param targets, the node each edge leads to
+     * @param numWords, the number of words spelled by the graph
+     */
+	Dawg(IntBuffer nodes, CharBuffer labels, IntBuffer targets, int numWords) {
+		this.nodes = nodes;
+		this.labels = labels;
+		this.targets = targets;
+		this.numWords = numWords;
+	}
+
+    /**
+     * This method returns the number of words stored in the graph
+     *
+     * @return an int, the number of words
+     */
+	public int size() {
+		return numWords;
+	}
+
+    /**
+     * This method returns the number of nodes in the graph
+     *
+     * @return an int, the number of nodes
+     */
+	public int getNumNodes() {
+		return nodes.limit() - 1;
+	}
+
+    /**
+     * This method returns the number of edges in the graph
+     *
+     * @return an int, the number of edges
+     */
+	public int getNumEdges() {
+		return labels.limit();
+	}
+
+    /**
+     * This method returns whether or not a path ending at the given node spells a word
+     *
+     * @param node, the index of a node in the graph
+     * @return a boolean, whether or not the node ends a word
+     */
+	public boolean isTerminal(int node) {
+		return (nodes.get(node) & TERMINAL) != 0;
+	}
+
+    /**
+     * This method returns the index of the first edge leaving a node
+     *
+     * @param node, the index of a node in the graph
+     * @return an int, the index of the node's first edge
+     */
+	public int edgeStart(int node) {
+		return nodes.get(node) & ~TERMINAL;
+	}
+
+    /**
+     * This method returns the index one past the last edge leaving a node
+     *
+     * @param node, the index of a node in the graph
+     * @return an int, the index one past the node's last edge
+     */
+	public int edgeEnd(int node) {
+		return nodes.get(node + 1) & ~TERMINAL;
+	}
+
+    /**
+     * This method returns the letter on an edge
+     *
+     * @param edge, the index of an edge in the graph
+     * @return a char, the letter on the edge
+     */
+	public char edgeLabel(int edge) {
+		return labels.get(edge);
+	}
+
+    /**
+     * This method returns the node that an edge leads to
+     *
+     * @param edge, the index of an edge in the graph
+     * @return an int, the index of the node at the end of the edge
+     */
+	public int edgeTarget(int edge) {
+		return targets.get(edge);
+	}
+
+    /**
+     * This method follows the edge for a single letter out of a node
+     *
+     * @param node, the index of the node to step from
+     * @param letter, the letter to follow
+     * @return an int, the node reached or NONE if the node has no edge for the letter
+     */
+	public int child(int node, char letter) {
+		int end = edgeEnd(node);
+		for (int e = edgeStart(node); e < end; e++) {
+			char label = labels.get(e);
+			if (label == letter) {
+				return targets.get(e);
+			} else if (label > letter) {
+				break;
+			}
+		}
+		return NONE;
+	}
+
+    /**
+     * This method walks the graph along all the characters of a word, lower casing each
+     * character as it goes.
+     *
+     * @param word, the characters to walk
+     * @return an int, the node reached or NONE if the path leaves the graph
+     */
+	public int walk(CharSequence word) {
+		int node = ROOT;
+		for (int i = 0; i < word.length() && node != NONE; i++) {
+			node = child(node, Character.toLowerCase(word.charAt(i)));
+		}
+		return node;
+	}
+
+    /**
+     * This method returns whether or not the graph contains a word. The check is case
+     * insensitive as long as the graph was built from lower case words.
+     *
+     * @param word, the word to look for
+     * @return a boolean, whether or not the word is in the graph
+     */
+	public boolean contains(CharSequence word) {
+		int node = walk(word);
+		return node != NONE && isTerminal(node);
+	}
+
+    /**
+     * This method returns the buffer of node entries, for DawgFile to write out
+     *
+     * @return a read-only view of the node entries
+     */
+	IntBuffer nodeBuffer() {
+		return nodes.asReadOnlyBuffer();
+	}
+
+    /**
+     * This method returns the buffer of edge labels, for DawgFile to write out
+     *
+     * @return a read-only view of the edge labels
+     */
+	CharBuffer labelBuffer() {
+		return labels.asReadOnlyBuffer();
+	}
+
+    /**
+     * This method returns the buffer of edge targets, for DawgFile to write out
+     *
+     * @return a read-only view of the edge targets
+     */
+	IntBuffer targetBuffer() {
+		return targets.asReadOnlyBuffer();
+	}
+
+    /**
+     * This method returns an Iterator over every word in the graph in sorted order
+     *
+     * @return an Iterator of the words
+     */
+	@Override
+	public Iterator<String> iterator() {
+		return new WordIterator("", '?', 0, Integer.MAX_VALUE);
+	}
+
+    /**
+     * This method returns an Iterator over the words that fit a pattern, in sorted order. The
+     * character at each position of the pattern is either a letter the word must have there
+     * or the wildcard, which allows any letter. Positions past the end of the pattern allow any
+     * letter. The walk only follows edges the pattern allows and stops at maxLength, so it
+     * never visits the parts of the graph that cannot match, and it only finds the next word
+     * when it is asked for.
+     *
+     * @param pattern, the letters and wildcards the words must match
+     * @param wildcard, the character that stands for any letter in the pattern
+     * @param minLength, the length of the shortest word to return
+     * @param maxLength, the length of the longest word to return
+     * @return an Iterator of the matching words
+     */
+	public Iterator<String> matching(CharSequence pattern, char wildcard, int minLength,
+			int maxLength) {
+		return new WordIterator(pattern, wildcard, minLength, maxLength);
+	}
+
+	/**
+	 * A depth first walk over the graph that produces the words one at a time. The path from
+	 * the root is kept in a few arrays instead of a stack of objects. At each depth the walk
+	 * only tries the edges in [pathEdges, pathEnds), which is a single edge where the pattern
+	 * has a letter.
+	 */
+	private class WordIterator implements Iterator<String> {
+		private final char[] pattern;
+		private final char wildcard;
+		private final int minLength;
+		private final int maxLength;
+		private int[] pathNodes = new int[16];
+		private int[] pathEdges = new int[16];
+		private int[] pathEnds = new int[16];
+		private char[] letters = new char[16];
+		private int depth;
+		private String nextWord;
+
+		WordIterator(CharSequence pattern, char wildcard, int minLength, int maxLength) {
+			this.pattern = new char[pattern.length()];
+			for (int i = 0; i < this.pattern.length; i++) {
+				char c = pattern.charAt(i);
+				this.pattern[i] = c == wildcard ? c : Character.toLowerCase(c);
+			}
+			this.wildcard = wildcard;
+			this.minLength = minLength;
+			this.maxLength = maxLength;
+			depth = 0;
+			pathNodes[0] = ROOT;
+			enter();
+			nextWord = (isTerminal(ROOT) && minLength <= 0) ? "" : advance();
+		}
+
+		/**
+		 * Sets the range of edges to try out of the node at the current depth.
+		 */
+		private void enter() {
+			int node = pathNodes[depth];
+			if (depth >= maxLength) {
+				pathEdges[depth] = 0;
+				pathEnds[depth] = 0;
+			} else if (depth < pattern.length && pattern[depth] != wildcard) {
+				int end = edgeEnd(node);
+				int e = edgeStart(node);
+				while (e < end && labels.get(e) != pattern[depth]) {
+					e++;
+				}
+				pathEdges[depth] = e;
+				pathEnds[depth] = e < end ? e + 1 : e;
+			} else {
+				pathEdges[depth] = edgeStart(node);
+				pathEnds[depth] = edgeEnd(node);
+			}
+		}
+
+		/**
+		 * Moves to the next terminal node in depth first order that is long enough, and
+		 * returns its word, or null once the walk is finished.
+		 */
+		private String advance() {
+			while (depth >= 0) {
+				int edge = pathEdges[depth];
+				if (edge >= pathEnds[depth]) {
+					depth--;
+					continue;
+				}
+				pathEdges[depth] = edge + 1;
+				if (depth + 1 == pathNodes.length) {
+					pathNodes = Arrays.copyOf(pathNodes, depth * 2 + 2);
+					pathEdges = Arrays.copyOf(pathEdges, depth * 2 + 2);
+					pathEnds = Arrays.copyOf(pathEnds, depth * 2 + 2);
+					letters = Arrays.copyOf(letters, depth * 2 + 2);
+				}
+				int target = targets.get(edge);
+				letters[depth] = labels.get(edge);
+				depth++;
+				pathNodes[depth] = target;
+				enter();
+				if (isTerminal(target) && depth >= minLength) {
+					return new String(letters, 0, depth);
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return nextWord != null;
+		}
+
+		@Override
+		public String next() {
+			if (nextWord == null) {
+				throw new NoSuchElementException();
+			}
+			String word = nextWord;
+			nextWord = advance();
+			return word;
+		}
+	}
+}
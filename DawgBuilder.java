@@ -0,0 +1,288 @@
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class builds a minimized Dawg one word at a time. Words that arrive in sorted order are
+ * added with the incremental algorithm of Daciuk et al.: as soon as a new word leaves the path
+ * of the previous one, the old branch can never change again, so its nodes are merged with any
+ * equivalent nodes already built. This keeps the builder's memory close to the size of the
+ * final graph instead of the size of a full trie.
+ * <p>
+ * Words that arrive out of order are held to the side and merged in when build() is called, so
+ * the builder accepts any input but is fastest on a sorted word list such as the Scrabble
+ * dictionary.
+ */
+public class DawgBuilder {
+	private final Node root = new Node();
+	private final Map<Node, Node> register = new HashMap<Node, Node>();
+	private final List<String> outOfOrder = new ArrayList<String>();
+
+	// the path of the previous word that has not been merged into the register yet
+	private Node[] uncheckedParents = new Node[16];
+	private Node[] uncheckedChildren = new Node[16];
+	private int uncheckedSize = 0;
+
+	private char[] previous = new char[16];
+	private char[] scratch = new char[16];
+	private int previousLength = -1;
+	private int numWords = 0;
+	private boolean built = false;
+
+    /**
+     * This method adds a word to the graph being built. Duplicate words are ignored.
+     *
+     * @param word, the word to add
+     * @throws IllegalStateException if build() has already been called
+     */
+	public void add(CharSequence word) {
+		add(word, 0, word.length());
+	}
+
+    /**
+     * This method adds the characters word[start, start + length) to the graph being built.
+     * Duplicate words are ignored.
+     *
+     * @param word, the characters holding the word
+     * @param start, the index of the first character of the word
+     * @param length, the number of characters in the word
+     * @throws IllegalStateException if build() has already been called
+     */
+	public void add(CharSequence word, int start, int length) {
+		if (scratch.length < length) {
+			scratch = new char[Math.max(length, scratch.length * 2)];
+		}
+		for (int i = 0; i < length; i++) {
+			scratch[i] = word.charAt(start + i);
+		}
+		add(scratch, 0, length);
+	}
+
+    /**
+     * This method adds the characters word[start, start + length) to the graph being built
+     * without copying them into a String. Duplicate words are ignored.
+     *
+     * @param word, the characters holding the word
+     * @param start, the index of the first character of the word
+     * @param length, the number of characters in the word
+     * @throws IllegalStateException if build() has already been called
+     */
+	public void add(char[] word, int start, int length) {
+		if (built) {
+			throw new IllegalStateException("DawgBuilder has already been built");
+		}
+		int common = 0;
+		int limit = Math.min(length, Math.max(previousLength, 0));
+		while (common < limit && word[start + common] == previous[common]) {
+			common++;
+		}
+		if (previousLength >= 0) {
+			if (common == length && common == previousLength) {
+				return;
+			} else if (common == length
+					|| (common < previousLength && word[start + common] < previous[common])) {
+				outOfOrder.add(new String(word, start, length));
+				return;
+			}
+		}
+
+		minimize(common);
+		Node node = uncheckedSize == 0 ? root : uncheckedChildren[uncheckedSize - 1];
+		for (int i = common; i < length; i++) {
+			Node next = new Node();
+			node.addEdge(word[start + i], next);
+			pushUnchecked(node, next);
+			node = next;
+		}
+		node.terminal = true;
+		numWords++;
+
+		if (previous.length < length) {
+			previous = Arrays.copyOf(previous, Math.max(length, previous.length * 2));
+		}
+		for (int i = common; i < length; i++) {
+			previous[i] = word[start + i];
+		}
+		previousLength = length;
+	}
+
+    /**
+     * This method finishes the graph and returns it in its flattened, immutable form. The
+     * builder cannot be used after this is called.
+     *
+     * @return the minimized Dawg of every word that was added
+     */
+	public Dawg build() {
+		if (built) {
+			throw new IllegalStateException("DawgBuilder has already been built");
+		}
+		minimize(0);
+		built = true;
+		Dawg sorted = freeze();
+		if (outOfOrder.isEmpty()) {
+			return sorted;
+		}
+
+		// merge the words that arrived out of order with the words of the sorted graph
+		Collections.sort(outOfOrder);
+		DawgBuilder merged = new DawgBuilder();
+		Iterator<String> left = sorted.iterator();
+		Iterator<String> right = outOfOrder.iterator();
+		String l = left.hasNext() ? left.next() : null;
+		String r = right.hasNext() ? right.next() : null;
+		while (l != null || r != null) {
+			if (r == null || (l != null && l.compareTo(r) <= 0)) {
+				merged.add(l);
+				l = left.hasNext() ? left.next() : null;
+			} else {
+				merged.add(r);
+				r = right.hasNext() ? right.next() : null;
+			}
+		}
+		outOfOrder.clear();
+		return merged.build();
+	}
+
+    /**
+     * This is a private helper function that merges the unchecked part of the previous word's
+     * path, deepest node first, into the register until only downTo nodes remain unchecked.
+     *
+     * @param downTo, the number of unchecked nodes to keep
+     */
+	private void minimize(int downTo) {
+		for (int i = uncheckedSize - 1; i >= downTo; i--) {
+			Node parent = uncheckedParents[i];
+			Node child = uncheckedChildren[i];
+			Node existing = register.get(child);
+			if (existing != null) {
+				parent.children[parent.size - 1] = existing;
+			} else {
+				child.sealed = true;
+				register.put(child, child);
+			}
+			uncheckedParents[i] = null;
+			uncheckedChildren[i] = null;
+		}
+		uncheckedSize = Math.min(uncheckedSize, downTo);
+	}
+
+    /**
+     * This is a private helper function that records a new edge on the path of the current word
+     *
+     * @param parent, the node the edge leaves
+     * @param child, the node the edge leads to
+     */
+	private void pushUnchecked(Node parent, Node child) {
+		if (uncheckedSize == uncheckedParents.length) {
+			uncheckedParents = Arrays.copyOf(uncheckedParents, uncheckedSize * 2);
+			uncheckedChildren = Arrays.copyOf(uncheckedChildren, uncheckedSize * 2);
+		}
+		uncheckedParents[uncheckedSize] = parent;
+		uncheckedChildren[uncheckedSize] = child;
+		uncheckedSize++;
+	}
+
+    /**
+     * This is a private helper function that numbers the nodes in breadth first order and
+     * copies them into the flat arrays used by Dawg.
+     *
+     * @return the flattened Dawg
+     */
+	private Dawg freeze() {
+		List<Node> order = new ArrayList<Node>(register.size() + 1);
+		root.id = 0;
+		order.add(root);
+		int numEdges = 0;
+		for (int n = 0; n < order.size(); n++) {
+			Node node = order.get(n);
+			numEdges += node.size;
+			for (int e = 0; e < node.size; e++) {
+				Node child = node.children[e];
+				if (child.id < 0) {
+					child.id = order.size();
+					order.add(child);
+				}
+			}
+		}
+
+		int[] nodes = new int[order.size() + 1];
+		char[] labels = new char[numEdges];
+		int[] targets = new int[numEdges];
+		int edge = 0;
+		for (int n = 0; n < order.size(); n++) {
+			Node node = order.get(n);
+			nodes[n] = node.terminal ? (edge | 0x80000000) : edge;
+			for (int e = 0; e < node.size; e++) {
+				labels[edge] = node.labels[e];
+				targets[edge] = node.children[e].id;
+				edge++;
+			}
+		}
+		nodes[order.size()] = edge;
+		register.clear();
+		return new Dawg(nodes, labels, targets, numWords);
+	}
+
+	/**
+	 * A node of the graph while it is being built. Once a node is sealed into the register its
+	 * edges never change again, so its hash code can be cached.
+	 */
+	private static class Node {
+		private char[] labels = new char[2];
+		private Node[] children = new Node[2];
+		private int size = 0;
+		private boolean terminal = false;
+		private boolean sealed = false;
+		private int hash = 0;
+		private int id = -1;
+
+		void addEdge(char label, Node child) {
+			if (size == labels.length) {
+				labels = Arrays.copyOf(labels, size * 2);
+				children = Arrays.copyOf(children, size * 2);
+			}
+			labels[size] = label;
+			children[size] = child;
+			size++;
+		}
+
+		@Override
+		public int hashCode() {
+			if (sealed && hash != 0) {
+				return hash;
+			}
+			int h = terminal ? 1 : 0;
+			for (int e = 0; e < size; e++) {
+				h = 31 * h + labels[e];
+				h = 31 * h + System.identityHashCode(children[e]);
+			}
+			if (sealed) {
+				hash = h;
+			}
+			return h;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Node)) {
+				return false;
+			}
+			Node other = (Node) o;
+			if (terminal != other.terminal || size != other.size) {
+				return false;
+			}
+			for (int e = 0; e < size; e++) {
+				if (labels[e] != other.labels[e] || children[e] != other.children[e]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
@@ -0,0 +1,181 @@
+
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+/**
+ * This class reads and writes the precompiled binary form of a Dawg. The file is a fixed
+ * header followed by the node, target and label arrays exactly as Dawg stores them, so a
+ * loaded file is memory-mapped and the Dawg reads straight out of the mapping without
+ * building a copy on the heap.
+ * <p>
+ * The header records the format version, the size and modification time of the text file the
+ * graph was compiled from, and a CRC32 of everything after the header. A file that fails any
+ * of these checks is treated as missing so that the caller falls back to the text file.
+ */
+public class DawgFile {
+	private static final int MAGIC = 0x44415747; // "DAWG"
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 44;
+
+    /**
+     * This method returns where the compiled form of a text word list is kept: next to the
+     * text file, with the extension replaced by ".dawg".
+     *
+     * @param textFile, the path of the text word list
+     * @return a String, the path of the binary file
+     */
+	public static String binaryPathFor(String textFile) {
+		int dot = textFile.lastIndexOf('.');
+		int slash = textFile.lastIndexOf(File.separatorChar);
+		if (dot > slash + 1) {
+			return textFile.substring(0, dot) + ".dawg";
+		}
+		return textFile + ".dawg";
+	}
+
+    /**
+     * This method writes a Dawg to a binary file, recording the text file it was built from.
+     *
+     * @param graph, the Dawg to write
+     * @param source, the text file the graph was compiled from
+     * @param binaryFile, the path of the file to write
+     * @throws IOException if the file cannot be written
+     */
+	public static void write(Dawg graph, File source, String binaryFile) throws IOException {
+		IntBuffer nodes = graph.nodeBuffer();
+		IntBuffer targets = graph.targetBuffer();
+		CharBuffer labels = graph.labelBuffer();
+		int payloadBytes = 4 * nodes.limit() + 4 * targets.limit() + 2 * labels.limit();
+
+		ByteBuffer payload = ByteBuffer.allocate(payloadBytes);
+		payload.asIntBuffer().put(nodes);
+		payload.position(4 * nodes.limit());
+		payload.asIntBuffer().put(targets);
+		payload.position(4 * nodes.limit() + 4 * targets.limit());
+		payload.asCharBuffer().put(labels);
+		payload.position(0);
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		payload.position(0);
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+		header.putInt(MAGIC);
+		header.putInt(VERSION);
+		header.putLong(source.length());
+		header.putLong(source.lastModified());
+		header.putInt(graph.size());
+		header.putInt(nodes.limit());
+		header.putInt(targets.limit());
+		header.putLong(crc.getValue());
+		header.flip();
+		replace(binaryFile, header, payload);
+	}
+
+    /**
+     * This method writes a header and a payload as the new contents of a file. They are written
+     * to a temporary file in the same directory, which is then renamed over the file in one
+     * step. A program that has the old file memory-mapped keeps reading the old contents, and
+     * never sees the file cut short or half written.
+     *
+     * @param binaryFile, the path of the file to write
+     * @param header, the bytes to write first
+     * @param payload, the bytes to write after them
+     * @throws IOException if the file cannot be written
+     */
+	static void replace(String binaryFile, ByteBuffer header, ByteBuffer payload)
+			throws IOException {
+		File target = new File(binaryFile).getAbsoluteFile();
+		File temp = File.createTempFile(target.getName(), ".tmp", target.getParentFile());
+		try {
+			RandomAccessFile out = new RandomAccessFile(temp, "rw");
+			try {
+				FileChannel channel = out.getChannel();
+				while (header.hasRemaining()) {
+					channel.write(header);
+				}
+				while (payload.hasRemaining()) {
+					channel.write(payload);
+				}
+				channel.force(true);
+			} finally {
+				out.close();
+			}
+			Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(temp.toPath());
+		}
+	}
+
+    /**
+     * This method maps a binary file and returns the Dawg stored in it, as long as the file is
+     * complete, has the current version, matches its checksum and is not older than its text
+     * source.
+     *
+     * @param binaryFile, the path of the compiled file
+     * @param source, the text file the graph should have been compiled from
+     * @return the mapped Dawg, or null if the file is missing, corrupt or stale
+     */
+	public static Dawg load(String binaryFile, File source) {
+		File file = new File(binaryFile);
+		if (!file.isFile() || file.length() < HEADER_BYTES) {
+			return null;
+		}
+		try {
+			RandomAccessFile in = new RandomAccessFile(file, "r");
+			MappedByteBuffer mapped;
+			try {
+				mapped = in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+			} finally {
+				// the mapping stays valid after the channel is closed
+				in.close();
+			}
+
+			if (mapped.getInt() != MAGIC || mapped.getInt() != VERSION) {
+				return null;
+			}
+			long sourceLength = mapped.getLong();
+			long sourceModified = mapped.getLong();
+			if (source.isFile()
+					&& (source.length() != sourceLength || source.lastModified() != sourceModified)) {
+				return null;
+			}
+			int numWords = mapped.getInt();
+			int numNodeEntries = mapped.getInt();
+			int numEdges = mapped.getInt();
+			long checksum = mapped.getLong();
+			long payloadBytes = 4L * numNodeEntries + 4L * numEdges + 2L * numEdges;
+			if (numNodeEntries < 1 || numEdges < 0 || HEADER_BYTES + payloadBytes != file.length()) {
+				return null;
+			}
+
+			mapped.position(HEADER_BYTES);
+			ByteBuffer payload = mapped.slice();
+			CRC32 crc = new CRC32();
+			crc.update(payload.duplicate());
+			if (crc.getValue() != checksum) {
+				return null;
+			}
+
+			payload.position(0).limit(4 * numNodeEntries);
+			IntBuffer nodes = payload.slice().asIntBuffer();
+			payload.limit(4 * numNodeEntries + 4 * numEdges).position(4 * numNodeEntries);
+			IntBuffer targets = payload.slice().asIntBuffer();
+			payload.limit(payload.capacity()).position(4 * numNodeEntries + 4 * numEdges);
+			CharBuffer labels = payload.slice().asCharBuffer();
+			return new Dawg(nodes, labels, targets, numWords);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+}
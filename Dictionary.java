@@ -9,12 +9,27 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+/**
+ * This class models the list of legal words. The words are stored in a minimized word graph
+ * (see Dawg), which shares the common prefixes and suffixes of the words so that the whole
+ * Scrabble dictionary takes a small fraction of the memory of a set of Strings, and so that a
+ * lookup walks the letters of the word without allocating anything. A Dictionary never changes
+ * after it is made, so one instance can be shared by every game and thread (see LexiconCache).
+ */
 public class Dictionary {
 		
-		Set <String> words;
+		/** The character that stands for any single letter in a pattern given to wordsMatching. */
+		public static final char WILDCARD = '?';
+
+		private final Dawg words;
+		private final PackedWordSet packed;
+		private Gaddag gaddag;
+		private AnagramIndex anagrams;
 	    
 
 	    /**
@@ -33,18 +48,76 @@ public class Dictionary {
 	    		throw new IllegalArgumentException("TokenScanner is null");
 	    	}
 	    	else {
-	    		words = new TreeSet<String>();
-	    		while (ts.hasNext()) {
-	    			String current = ts.next();
-	    			if (TokenScanner.isWord(current)) {
-	        			words.add(current.toLowerCase());
+	    		final DawgBuilder builder = new DawgBuilder();
+	    		ts.forEachWord(lowerCasing(new TokenScanner.WordHandler() {
+	    			@Override
+	    			public void word(char[] chars, int start, int length) {
+	    				builder.add(chars, start, length);
 	    			}
-	    		}
+	    		}));
+	    		words = builder.build();
+	    		packed = null;
 	    	}
 	    }
 
+	    /**
+	     * Constructs a Dictionary around a word graph that has already been built or loaded.
+	     *
+	     * @param words The Dawg of lower case words
+	     */
+	    Dictionary(Dawg words) {
+	        this(words, null);
+	    }
+
+	    /**
+	     * Constructs a Dictionary around a word graph and an optional packed lookup table.
+	     *
+	     * @param words The Dawg of lower case words
+	     * @param packed The PackedWordSet of the same words, or null to check words on the graph
+	     */
+	    private Dictionary(Dawg words, PackedWordSet packed) {
+	        this.words = words;
+	        this.packed = packed;
+	    }
+
+	    /**
+	     * Returns a handler that lower cases each word before passing it on, the same way the
+	     * words of every Dictionary are normalized. ASCII words are lower cased into a buffer
+	     * that is reused between words; anything else goes through String.toLowerCase.
+	     *
+	     * @param next The handler that receives the lower case words
+	     * @return A handler that lower cases words for next
+	     */
+	    static TokenScanner.WordHandler lowerCasing(final TokenScanner.WordHandler next) {
+	        return new TokenScanner.WordHandler() {
+	            private char[] lower = new char[32];
+
+	            @Override
+	            public void word(char[] chars, int start, int length) {
+	                if (lower.length < length) {
+	                    lower = new char[Math.max(length, lower.length * 2)];
+	                }
+	                for (int i = 0; i < length; i++) {
+	                    char c = chars[start + i];
+	                    if (c >= 0x80) {
+	                        char[] converted = new String(chars, start, length).toLowerCase()
+	                                .toCharArray();
+	                        next.word(converted, 0, converted.length);
+	                        return;
+	                    }
+	                    lower[i] = (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+	                }
+	                next.word(lower, 0, length);
+	            }
+	        };
+	    }
+
 	    /**
 	     * Returns an instance of a Dictionary constructed from words from a file.
+	     * <p>
+	     * If DictionaryCompiler has written a binary copy of the file (see DawgFile) that is
+	     * current, the words are served from a memory-mapped view of that copy. Otherwise the
+	     * text file is read as usual.
 	     *
 	     * @param filename Location of file from which to read words
 	     * @return A Dictionary instance with words from the argued file
@@ -52,6 +125,23 @@ public class Dictionary {
 	     * @throws IOException If error while reading
 	     */
 	    public static Dictionary make(String filename) throws IOException {
+	        Dawg compiled = DawgFile.load(DawgFile.binaryPathFor(filename), new File(filename));
+	        if (compiled != null) {
+	            return new Dictionary(compiled);
+	        }
+	        return makeFromText(filename);
+	     }
+
+	    /**
+	     * Returns an instance of a Dictionary constructed from words from a text file, without
+	     * looking for a compiled copy.
+	     *
+	     * @param filename Location of file from which to read words
+	     * @return A Dictionary instance with words from the argued file
+	     * @throws FileNotFoundException If the file does not exist
+	     * @throws IOException If error while reading
+	     */
+	    public static Dictionary makeFromText(String filename) throws IOException {
 	        Reader r = new FileReader(filename);
 	        Dictionary d = new Dictionary(new TokenScanner(r));
 	        r.close();
@@ -70,6 +160,113 @@ public class Dictionary {
 	        return words.size();
 	    }
 
+	    /**
+	     * Returns the word graph holding the words of this Dictionary, for callers that need to
+	     * walk the words letter by letter.
+	     *
+	     * @return The Dawg of all the words, in lower case
+	     */
+	    public Dawg getWordGraph() {
+	        return words;
+	    }
+
+	    /**
+	     * Tests whether any word in this Dictionary starts with the argued letters. Every word is
+	     * a prefix of itself, and the empty string is a prefix of every word. This check is case
+	     * insensitive, like isWord, and stops at the first letter no word continues with.
+	     *
+	     * @param prefix The letters to check
+	     * @return Whether some word starts with the prefix
+	     */
+	    public boolean isPrefix(String prefix) {
+	        if (prefix == null) {
+	            return false;
+	        }
+	        return words.walk(prefix) != Dawg.NONE;
+	    }
+
+	    /**
+	     * Returns the words that match a pattern of letters and wildcards, such as "?A??E", in
+	     * sorted order. Only words exactly as long as the pattern match. The search follows the
+	     * word graph and never scans the whole word list, and the stream finds each word only as
+	     * it is consumed, so stopping the stream early stops the search.
+	     *
+	     * @param pattern Letters the words must have at each position, or WILDCARD for any letter
+	     * @return A lazy Stream of the matching words, in lower case
+	     * @throws IllegalArgumentException If the pattern is null
+	     */
+	    public Stream<String> wordsMatching(String pattern) {
+	        if (pattern == null) {
+	            throw new IllegalArgumentException("invalid pattern");
+	        }
+	        return wordsMatching(pattern, pattern.length(), pattern.length());
+	    }
+
+	    /**
+	     * Returns the words whose length is between minLength and maxLength and whose first
+	     * letters match a pattern of letters and wildcards, in sorted order. Any letter is
+	     * allowed at positions past the end of the pattern, so "QU" with lengths 2 to 4 finds
+	     * every word of up to four letters that starts with QU.
+	     *
+	     * @param pattern Letters the words must have at each position, or WILDCARD for any letter
+	     * @param minLength The length of the shortest word to return
+	     * @param maxLength The length of the longest word to return
+	     * @return A lazy Stream of the matching words, in lower case
+	     * @throws IllegalArgumentException If the pattern is null or minLength > maxLength
+	     */
+	    public Stream<String> wordsMatching(String pattern, int minLength, int maxLength) {
+	        if (pattern == null || minLength > maxLength) {
+	            throw new IllegalArgumentException("invalid pattern");
+	        }
+	        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+	                words.matching(pattern, WILDCARD, minLength, maxLength),
+	                Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT
+	                | Spliterator.NONNULL), false);
+	    }
+
+	    /**
+	     * Returns a Dictionary with the same words whose isWord checks go through a
+	     * PackedWordSet, a hash table of words packed into longs, instead of walking the word
+	     * graph. This costs a few more megabytes but is the fastest way to check a word, so it
+	     * is meant for code that checks words in a tight loop. The word graph is shared with
+	     * this Dictionary.
+	     *
+	     * @return A Dictionary that checks words with a PackedWordSet
+	     */
+	    public Dictionary withPackedLookup() {
+	        if (packed != null) {
+	            return this;
+	        }
+	        return new Dictionary(words, new PackedWordSet(words));
+	    }
+
+	    /**
+	     * Returns a GADDAG of the words of this Dictionary, building it the first time it is
+	     * asked for. The GADDAG is only needed to generate moves around letters already on the
+	     * Board, so a Dictionary that is only used to check words never pays for it.
+	     *
+	     * @return The Gaddag of all the words, in lower case
+	     */
+	    public synchronized Gaddag getGaddag() {
+	        if (gaddag == null) {
+	            gaddag = new Gaddag(words);
+	        }
+	        return gaddag;
+	    }
+
+	    /**
+	     * Returns an index of the words of this Dictionary by their letters, building it the
+	     * first time it is asked for, to find the words that can be made from a rack.
+	     *
+	     * @return The AnagramIndex of all the words
+	     */
+	    public synchronized AnagramIndex getAnagramIndex() {
+	        if (anagrams == null) {
+	            anagrams = new AnagramIndex(words);
+	        }
+	        return anagrams;
+	    }
+
 	    /**
 	     * Tests whether the argued word is present in this Dictionary. Note that strings containing
 	     * nonword characters (such as spaces) will not be in the Dictionary. If the word is not 
@@ -92,7 +289,10 @@ public class Dictionary {
 	    	if (word == null || !TokenScanner.isWord(word)) {
 	    		return false;
 	    	}
-	        return words.contains(word.toLowerCase());
+	        if (packed != null) {
+	            return packed.contains(word);
+	        }
+	        return words.contains(word);
 	    }
 	}
 
@@ -0,0 +1,24 @@
+
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * This class is the offline step that compiles a text word list into the binary format read
+ * by DawgFile. Run it again whenever the text file changes; until then Dictionary.make sees
+ * that the binary file is stale and falls back to reading the text file.
+ * <p>
+ * Usage: java DictionaryCompiler [textFile] [binaryFile]
+ */
+public class DictionaryCompiler {
+	private static final String DEFAULT_SOURCE = "files/Scrabble_Dictionary.txt";
+
+	public static void main(String[] args) throws IOException {
+		String source = args.length > 0 ? args[0] : DEFAULT_SOURCE;
+		String target = args.length > 1 ? args[1] : DawgFile.binaryPathFor(source);
+
+		Dictionary dictionary = Dictionary.makeFromText(source);
+		DawgFile.write(dictionary.getWordGraph(), new File(source), target);
+		System.out.println("Wrote " + dictionary.getNumWords() + " words to " + target);
+	}
+}
@@ -0,0 +1,76 @@
+
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class checks ParallelDictionaryLoader against the sequential Dictionary.makeFromText.
+ * The word list is loaded both ways, and the two word graphs are walked side by side so that
+ * every word is compared, in order. The parallel load is repeated on pools of 1, 2, 4 and 8
+ * threads, and each load is timed.
+ * <p>
+ * Usage: java DictionaryLoadCheck [dictionaryFile]
+ */
+public class DictionaryLoadCheck {
+	private static final String DEFAULT_DICTIONARY = "files/Scrabble_Dictionary.txt";
+	private static final int[] THREADS = { 1, 2, 4, 8 };
+
+	public static void main(String[] args) throws IOException {
+		String file = args.length > 0 ? args[0] : DEFAULT_DICTIONARY;
+
+		long start = System.nanoTime();
+		Dictionary sequential = Dictionary.makeFromText(file);
+		long nanos = System.nanoTime() - start;
+		System.out.printf("sequential: %d words in %d ms%n", sequential.getNumWords(),
+				nanos / 1000000);
+
+		int failures = 0;
+		for (int threads : THREADS) {
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			try {
+				start = System.nanoTime();
+				Dictionary parallel = ParallelDictionaryLoader.load(file, pool);
+				nanos = System.nanoTime() - start;
+				String mismatch = compare(sequential, parallel);
+				if (mismatch != null) {
+					failures++;
+				}
+				System.out.printf("%d threads: %d words in %d ms, %s%n", threads,
+						parallel.getNumWords(), nanos / 1000000,
+						mismatch == null ? "every word matches" : mismatch);
+			} finally {
+				pool.shutdown();
+			}
+		}
+		System.out.println(failures == 0 ? "OK" : failures + " loads differ");
+	}
+
+    /**
+     * This is a private helper function that compares the words of two Dictionaries one by one
+     *
+     * @param expected, the Dictionary loaded sequentially
+     * @param actual, the Dictionary loaded in parallel
+     * @return a String describing the first difference, or null if the words are the same
+     */
+	private static String compare(Dictionary expected, Dictionary actual) {
+		Iterator<String> want = expected.getWordGraph().iterator();
+		Iterator<String> got = actual.getWordGraph().iterator();
+		int index = 0;
+		while (want.hasNext() && got.hasNext()) {
+			String a = want.next();
+			String b = got.next();
+			if (!a.equals(b)) {
+				return "word " + index + " is \"" + b + "\", expected \"" + a + "\"";
+			}
+			index++;
+		}
+		if (want.hasNext()) {
+			return "missing words from \"" + want.next() + "\" on";
+		}
+		if (got.hasNext()) {
+			return "extra words from \"" + got.next() + "\" on";
+		}
+		return expected.getNumWords() == actual.getNumWords() ? null : "word counts differ";
+	}
+}
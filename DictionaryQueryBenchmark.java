@@ -0,0 +1,131 @@
+
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+/**
+ * This class times the prefix and pattern queries of Dictionary on the full word list. Each
+ * pattern of PATTERNS is counted with wordsMatching, and the count is checked against a
+ * brute-force filter of every word. It also times findFirst on a pattern with thousands of
+ * matches, to show that a stream stopped early stops the search, and isPrefix on the first
+ * letters of random words. Each query is repeated for at least TIMED_NANOS after a warm-up, and
+ * the mean time is printed.
+ * <p>
+ * Usage: java DictionaryQueryBenchmark [dictionaryFile]
+ */
+public class DictionaryQueryBenchmark {
+	private static final String DEFAULT_DICTIONARY = "files/Scrabble_Dictionary.txt";
+	private static final String[] PATTERNS = { "?A??E", "??", "Q????", "S??????", "?????????Z" };
+
+	// how long each query is repeated for
+	private static final long TIMED_NANOS = 500000000L;
+
+	// the number of prefixes checked with isPrefix, and how long each one is
+	private static final int PREFIXES = 100000;
+	private static final int PREFIX_LENGTH = 4;
+
+	public static void main(String[] args) throws IOException {
+		String file = args.length > 0 ? args[0] : DEFAULT_DICTIONARY;
+		final Dictionary dictionary = Dictionary.make(file);
+
+		int mismatches = 0;
+		for (final String pattern : PATTERNS) {
+			long count = dictionary.wordsMatching(pattern).count();
+			long expected = bruteForce(dictionary, pattern);
+			if (count != expected) {
+				mismatches++;
+			}
+			double nanos = time(new Runnable() {
+				@Override
+				public void run() {
+					dictionary.wordsMatching(pattern).count();
+				}
+			});
+			System.out.printf("%-12s %8.1f us, %d words%s%n", pattern, nanos / 1000, count,
+					count == expected ? "" : " (a full scan finds " + expected + ")");
+		}
+
+		final String many = "S??????";
+		double nanos = time(new Runnable() {
+			@Override
+			public void run() {
+				dictionary.wordsMatching(many).findFirst();
+			}
+		});
+		System.out.printf("findFirst on %s: %.1f us%n", many, nanos / 1000);
+
+		String[] words = new String[dictionary.getNumWords()];
+		int n = 0;
+		for (String word : dictionary.getWordGraph()) {
+			words[n++] = word;
+		}
+		SplittableRandom random = new SplittableRandom(3);
+		final String[] prefixes = new String[PREFIXES];
+		for (int i = 0; i < PREFIXES; i++) {
+			String word;
+			do {
+				word = words[random.nextInt(words.length)];
+			} while (word.length() < PREFIX_LENGTH);
+			prefixes[i] = word.substring(0, PREFIX_LENGTH).toUpperCase();
+		}
+		nanos = time(new Runnable() {
+			@Override
+			public void run() {
+				for (String prefix : prefixes) {
+					if (!dictionary.isPrefix(prefix)) {
+						throw new IllegalStateException(prefix + " is not a prefix");
+					}
+				}
+			}
+		});
+		System.out.printf("isPrefix (%d-letter prefixes): %.2f us%n", PREFIX_LENGTH,
+				nanos / 1000 / PREFIXES);
+		System.out.println(mismatches == 0 ? "OK" : mismatches + " patterns miscounted");
+	}
+
+    /**
+     * This is a private helper function that runs a query once to warm up and then as many
+     * times as fit in TIMED_NANOS
+     *
+     * @param query, the query to time
+     * @return a double, the mean nanoseconds per run
+     */
+	private static double time(Runnable query) {
+		query.run();
+		int runs = 0;
+		long start = System.nanoTime();
+		long elapsed;
+		do {
+			query.run();
+			runs++;
+			elapsed = System.nanoTime() - start;
+		} while (elapsed < TIMED_NANOS);
+		return (double) elapsed / runs;
+	}
+
+    /**
+     * This is a private helper function that counts the words matching a pattern by testing
+     * every word of the Dictionary
+     *
+     * @param dictionary, the Dictionary
+     * @param pattern, the pattern, with Dictionary.WILDCARD for any letter
+     * @return a long, the number of words exactly as long as the pattern that match it
+     */
+	private static long bruteForce(Dictionary dictionary, String pattern) {
+		long count = 0;
+		for (String word : dictionary.getWordGraph()) {
+			if (word.length() != pattern.length()) {
+				continue;
+			}
+			boolean matches = true;
+			for (int i = 0; i < word.length() && matches; i++) {
+				char c = pattern.charAt(i);
+				matches = c == Dictionary.WILDCARD || Character.toLowerCase(c) == word.charAt(i);
+			}
+			if (matches) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,206 @@
+
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class times the EndgameSolver on a fixed set of endgame positions, read from a text
+ * file. Each position is a line "position name rackToMove otherRack" followed by the 15 rows
+ * of the board, with '.' for an empty square; lines starting with '#' are comments. For each
+ * position it prints the time, the number of positions searched and the result, and checks
+ * that the board and cross-checks were restored. Positions where both racks have at most
+ * MINIMAX_TILES tiles are also searched by a plain minimax, without pruning or a table, and
+ * the two values compared.
+ * <p>
+ * Usage: java EndgameBenchmark [timeBudgetMillis] [positionsFile]
+ */
+public class EndgameBenchmark {
+	private static final String DEFAULT_POSITIONS = "files/Scrabble_Endgames.txt";
+
+	// the most tiles on either rack for a position to be checked by minimax
+	private static final int MINIMAX_TILES = 2;
+
+	public static void main(String[] args) throws IOException {
+		long budget = args.length > 0 ? Long.parseLong(args[0])
+				: EndgameSolver.DEFAULT_TIME_BUDGET;
+		String file = args.length > 1 ? args[1] : DEFAULT_POSITIONS;
+
+		ScrabbleRules rules = new ScrabbleRules();
+		if (rules.getDictionary() == null) {
+			throw new IOException("the word list could not be read");
+		}
+		Dawg words = rules.getDictionary().getWordGraph();
+		EndgameSolver solver = new EndgameSolver(words);
+		solver.setTimeBudget(budget);
+		MoveGenerator generator = new MoveGenerator(words);
+
+		int positions = 0;
+		int solved = 0;
+		int checked = 0;
+		int agreed = 0;
+		int broken = 0;
+		long totalNanos = 0;
+		BufferedReader in = new BufferedReader(new FileReader(file));
+		try {
+			String line = in.readLine();
+			while (line != null) {
+				if (!line.startsWith("position")) {
+					line = in.readLine();
+					continue;
+				}
+				String[] fields = line.trim().split("\\s+");
+				BoardModel model = new BoardModel(rules.getLetterValues());
+				for (int x = 0; x < BoardModel.SIZE; x++) {
+					String row = in.readLine();
+					for (int y = 0; y < BoardModel.SIZE; y++) {
+						int code = Letters.encode(row.charAt(y));
+						if (code != Letters.NONE) {
+							model.setLetter(BoardModel.index(x, y), code);
+						}
+					}
+				}
+				model.finalizeAll();
+				CrossCheckTable crossChecks = new CrossCheckTable(model, words);
+				int[] rack = counts(fields[2]);
+				int[] other = counts(fields[3]);
+				long key = model.getKey();
+
+				long start = System.nanoTime();
+				EndgameSolver.Result result = solver.solve(model, crossChecks, rack, other);
+				long nanos = System.nanoTime() - start;
+				totalNanos += nanos;
+				positions++;
+				if (result.isExact()) {
+					solved++;
+				}
+				boolean restored = model.getKey() == key && model.getNumPending() == 0
+						&& crossChecks.verify();
+				if (!restored) {
+					broken++;
+				}
+				System.out.printf("%s %s/%s: %d ms, %d nodes, %s%s%n", fields[1], fields[2],
+						fields[3], nanos / 1000000, result.getNodes(), result,
+						restored ? "" : " (board not restored)");
+
+				if (fields[2].length() <= MINIMAX_TILES && fields[3].length() <= MINIMAX_TILES) {
+					int value = minimax(generator, model, crossChecks, rack, other, false);
+					checked++;
+					if (value == result.getValue()) {
+						agreed++;
+					} else {
+						System.out.println("  minimax gives " + value);
+					}
+				}
+				line = in.readLine();
+			}
+		} finally {
+			in.close();
+		}
+		System.out.printf("Solved %d of %d in %d ms; minimax agreed on %d of %d; "
+				+ "%d not restored%n", solved, positions, totalNanos / 1000000, agreed, checked,
+				broken);
+	}
+
+    /**
+     * This is a private helper function that returns how many of each letter code a String
+     * of letters holds
+     *
+     * @param letters, the letters of a rack
+     * @return a new int[], indexed by letter code
+     */
+	private static int[] counts(String letters) {
+		int[] counts = new int[Letters.COUNT + 1];
+		for (int i = 0; i < letters.length(); i++) {
+			counts[Letters.encode(letters.charAt(i))]++;
+		}
+		return counts;
+	}
+
+    /**
+     * This is a private helper function that returns the value of an endgame by trying every
+     * line of play, with the same rules as the EndgameSolver: going out scores the play and
+     * twice the other rack, and two passes in a row end the game with each side losing the
+     * value of its own rack.
+     *
+     * @param generator, the MoveGenerator
+     * @param model, the BoardModel, restored before returning
+     * @param crossChecks, the CrossCheckTable of the model, restored before returning
+     * @param rack, the tiles of the player to move, restored before returning
+     * @param other, the tiles of the other player
+     * @param passed, whether the other player passed on the turn before
+     * @return an int, the spread the player to move gains by the end of the game
+     */
+	private static int minimax(MoveGenerator generator, BoardModel model,
+			CrossCheckTable crossChecks, int[] rack, int[] other, boolean passed) {
+		final List<Move> moves = new ArrayList<Move>();
+		generator.generate(model, crossChecks, rack, new MoveGenerator.MoveHandler() {
+			@Override
+			public void move(Move move) {
+				moves.add(new Move(move));
+			}
+		});
+		int best = passed ? value(model, other) - value(model, rack)
+				: -minimax(generator, model, crossChecks, other, rack, true);
+		for (Move move : moves) {
+			int[] squares = new int[move.getNumTiles()];
+			int n = 0;
+			for (int i = 0; i < move.getLength(); i++) {
+				if (move.isNew(i)) {
+					squares[n++] = move.getSquare(i);
+					rack[move.getLetter(i)]--;
+				}
+			}
+			move.placeOn(model);
+			model.finalizeAll();
+			crossChecks.update(squares, n);
+			int value = isEmpty(rack)
+					? move.getScore() + 2 * value(model, other)
+					: move.getScore()
+							- minimax(generator, model, crossChecks, other, rack, false);
+			for (int square : squares) {
+				model.clearSquare(square);
+			}
+			crossChecks.update(squares, n);
+			for (int i = 0; i < move.getLength(); i++) {
+				if (move.isNew(i)) {
+					rack[move.getLetter(i)]++;
+				}
+			}
+			best = Math.max(best, value);
+		}
+		return best;
+	}
+
+    /**
+     * This is a private helper function that returns the face value of the tiles on a rack
+     *
+     * @param model, the BoardModel, which knows the letter values
+     * @param rack, how many of each letter code the rack holds
+     * @return an int, the sum of the tiles' values
+     */
+	private static int value(BoardModel model, int[] rack) {
+		int value = 0;
+		for (int code = 1; code <= Letters.COUNT; code++) {
+			value += rack[code] * model.getLetterValue(code);
+		}
+		return value;
+	}
+
+    /**
+     * This is a private helper function that returns whether or not a rack has no tiles
+     *
+     * @param rack, how many of each letter code the rack holds
+     * @return a boolean, whether every count is 0
+     */
+	private static boolean isEmpty(int[] rack) {
+		for (int code = 1; code <= Letters.COUNT; code++) {
+			if (rack[code] != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,517 @@
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class finds the best play once the Bag is empty. Both racks are then known (each player's
+ * unseen tiles are exactly the other's rack), so the rest of the game can be searched exactly,
+ * like a game of chess. The value of a position is how much the player to move will gain on
+ * the opponent by the end of the game, counting the tiles left on the racks as GameScreen does:
+ * a player who goes out gets the value of the opponent's tiles and the opponent loses them, and
+ * when both players pass in a row each loses the value of their own tiles.
+ * <p>
+ * The search is a negamax alpha-beta search, deepened one turn at a time until it sees the end
+ * of every line or the time budget runs out. Plays that go out are tried first, then plays in
+ * order of score, and the best play of the last search of a position (kept in a transposition
+ * table) goes before all of them. Positions cut off by the depth are given a rough value, the
+ * difference of the values of the two racks.
+ */
+public class EndgameSolver {
+	/** The time budget used unless another is set, in milliseconds. */
+	public static final long DEFAULT_TIME_BUDGET = 5000;
+
+	private static final int MAX_DEPTH = 2 * Player.NUM_TILES * 2 + 2;
+	private static final int INFINITY = 100000;
+
+	// the transposition table, indexed by the low bits of the position's key
+	private static final int TABLE_BITS = 18;
+	private static final int TABLE_MASK = (1 << TABLE_BITS) - 1;
+	private static final byte EXACT = 0;
+	private static final byte LOWER = 1;
+	private static final byte UPPER = 2;
+	private static final byte COMPLETE = Byte.MAX_VALUE;
+	private final long[] keys = new long[1 << TABLE_BITS];
+	private final int[] values = new int[1 << TABLE_BITS];
+	// the depth searched, 0 for an empty slot, or COMPLETE if the search saw the end of the game
+	private final byte[] depths = new byte[1 << TABLE_BITS];
+	private final byte[] bounds = new byte[1 << TABLE_BITS];
+	// the best play, or null for a pass
+	private final Move[] bestMoves = new Move[1 << TABLE_BITS];
+
+	private final MoveGenerator generator;
+	private final MoveList[] moveLists = new MoveList[MAX_DEPTH + 1];
+	private final int[][] placed = new int[MAX_DEPTH + 1][Player.NUM_TILES];
+	private long timeBudget = DEFAULT_TIME_BUDGET;
+
+	// the search in progress
+	private BoardModel board;
+	private CrossCheckTable checks;
+	private final int[][] racks = new int[2][];
+	private final long[] rackKeys = new long[2];
+	private long deadline;
+	private boolean stopped;
+	private boolean horizon;
+	private long nodes;
+	private Move rootMove;
+
+	/**
+	 * The answer of a search.
+	 */
+	public static class Result {
+		private final Move move;
+		private final int value;
+		private final int depth;
+		private final boolean exact;
+		private final List<Move> line;
+		private final long nodes;
+
+		Result(Move move, int value, int depth, boolean exact, List<Move> line, long nodes) {
+			this.move = move;
+			this.value = value;
+			this.depth = depth;
+			this.exact = exact;
+			this.line = line;
+			this.nodes = nodes;
+		}
+
+	    /**
+	     * This method returns the play to make
+	     *
+	     * @return a Move, or null if the best choice is to pass
+	     */
+		public Move getMove() {
+			return move;
+		}
+
+	    /**
+	     * This method returns how much the player to move gains on the opponent by the end of
+	     * the game, rack values included
+	     *
+	     * @return an int, the change in the score difference; only an estimate if not exact
+	     */
+		public int getValue() {
+			return value;
+		}
+
+	    /**
+	     * This method returns the number of turns of the deepest finished search
+	     *
+	     * @return an int, the depth in turns, counting passes
+	     */
+		public int getDepth() {
+			return depth;
+		}
+
+	    /**
+	     * This method returns whether or not the search saw the end of every line of play, so
+	     * that the value is exact and the play is the best one
+	     *
+	     * @return a boolean, whether the endgame was solved
+	     */
+		public boolean isExact() {
+			return exact;
+		}
+
+	    /**
+	     * This method returns the expected plays of both players, starting with the play to
+	     * make, as far as the search saw them
+	     *
+	     * @return an unmodifiable List of Moves, with null for a pass
+	     */
+		public List<Move> getLine() {
+			return line;
+		}
+
+	    /**
+	     * This method returns the number of positions searched
+	     *
+	     * @return a long, the number of positions
+	     */
+		public long getNodes() {
+			return nodes;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder text = new StringBuilder();
+			for (Move move : line) {
+				text.append(text.length() == 0 ? "" : ", ").append(move == null ? "pass" : move);
+			}
+			return (exact ? "solved " : "depth " + depth + " estimate ") + value + ": " + text;
+		}
+	}
+
+	/**
+	 * Collects the plays of one position, reusing its Moves from one position to the next.
+	 */
+	private static class MoveList implements MoveGenerator.MoveHandler {
+		private Move[] moves = new Move[64];
+		private int count;
+
+		@Override
+		public void move(Move move) {
+			if (count == moves.length) {
+				moves = Arrays.copyOf(moves, 2 * count);
+			}
+			if (moves[count] == null) {
+				moves[count] = new Move(move);
+			} else {
+				moves[count].copyFrom(move);
+			}
+			count++;
+		}
+
+		void swap(int i, int j) {
+			Move move = moves[i];
+			moves[i] = moves[j];
+			moves[j] = move;
+		}
+	}
+
+    /**
+     * Constructs an EndgameSolver for a word list.
+     *
+     * @param words, the word graph of the Dictionary (see Dictionary.getWordGraph)
+     */
+	public EndgameSolver(Dawg words) {
+		this.generator = new MoveGenerator(words);
+		for (int i = 0; i < moveLists.length; i++) {
+			moveLists[i] = new MoveList();
+		}
+	}
+
+    /**
+     * This method sets how long a search may take
+     *
+     * @param millis, the time budget of each search, in milliseconds
+     */
+	public void setTimeBudget(long millis) {
+		timeBudget = millis;
+	}
+
+    /**
+     * This method returns how long a search may take
+     *
+     * @return a long, the time budget of each search, in milliseconds
+     */
+	public long getTimeBudget() {
+		return timeBudget;
+	}
+
+    /**
+     * This method finds the best play for the player to move when the Bag is empty. The
+     * BoardModel and CrossCheckTable are changed during the search but restored before this
+     * method returns.
+     *
+     * @param model, the BoardModel, with no pending letters
+     * @param crossChecks, the up to date CrossCheckTable of the model
+     * @param rack, how many of each letter code the player to move holds
+     * @param opponentRack, how many of each letter code the opponent holds
+     * @return the Result of the deepest search finished within the time budget
+     */
+	public synchronized Result solve(BoardModel model, CrossCheckTable crossChecks, int[] rack,
+			int[] opponentRack) {
+		board = model;
+		checks = crossChecks;
+		racks[0] = rack.clone();
+		racks[1] = opponentRack.clone();
+		rackKeys[0] = Zobrist.rackKey(0, racks[0]);
+		rackKeys[1] = Zobrist.rackKey(1, racks[1]);
+		Arrays.fill(depths, (byte) 0);
+		Arrays.fill(bestMoves, null);
+		deadline = System.nanoTime() + timeBudget * 1000000L;
+		stopped = false;
+		nodes = 0;
+		Result result = null;
+		for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+			horizon = false;
+			rootMove = null;
+			int value = search(0, depth, -INFINITY, INFINITY, false);
+			if (stopped) {
+				break;
+			}
+			result = new Result(rootMove == null ? null : new Move(rootMove), value, depth,
+					!horizon, principalVariation(depth), nodes);
+			if (!horizon) {
+				break;
+			}
+		}
+		if (result == null) {
+			// not even one turn was searched: make the play that was ordered first
+			MoveList first = moveLists[0];
+			Move move = first.count == 0 ? null : new Move(first.moves[0]);
+			List<Move> line = Collections.singletonList(move);
+			result = new Result(move, 0, 0, false, line, nodes);
+		}
+		board = null;
+		checks = null;
+		racks[0] = null;
+		racks[1] = null;
+		return result;
+	}
+
+    /**
+     * This is a private helper function that searches a position with alpha-beta pruning
+     *
+     * @param ply, the number of turns since the root; the root's player moves on even turns
+     * @param depth, the number of turns left to search
+     * @param alpha, the value the side to move is already sure of
+     * @param beta, the value above which the opponent will avoid this position
+     * @param passed, whether the last turn was a pass
+     * @return an int, the value of the position for the side to move
+     */
+	private int search(int ply, int depth, int alpha, int beta, boolean passed) {
+		nodes++;
+		if (System.nanoTime() > deadline) {
+			stopped = true;
+		}
+		if (stopped) {
+			return 0;
+		}
+		int[] mover = racks[ply & 1];
+		int[] other = racks[(ply & 1) ^ 1];
+		long key = key(ply & 1, passed);
+		int slot = (int) key & TABLE_MASK;
+		Move tableMove = null;
+		if (depths[slot] != 0 && keys[slot] == key) {
+			if (depths[slot] >= depth) {
+				int value = values[slot];
+				if (bounds[slot] == EXACT
+						|| (bounds[slot] == LOWER && value >= beta)
+						|| (bounds[slot] == UPPER && value <= alpha)) {
+					horizon |= depths[slot] != COMPLETE;
+					if (ply == 0) {
+						rootMove = bestMoves[slot];
+					}
+					return value;
+				}
+			}
+			tableMove = bestMoves[slot];
+		}
+		if (depth == 0) {
+			horizon = true;
+			return value(other) - value(mover);
+		}
+		MoveList list = moveLists[ply];
+		list.count = 0;
+		generator.generate(board, checks, mover, list);
+		order(list, size(mover), tableMove);
+
+		boolean outerHorizon = horizon;
+		horizon = false;
+		int alphaStart = alpha;
+		int best = -INFINITY;
+		Move bestMove = null;
+		for (int i = 0; i < list.count && alpha < beta; i++) {
+			Move move = list.moves[i];
+			int score = move.getScore();
+			int value;
+			make(ply, move);
+			if (size(mover) == 0) {
+				value = score + 2 * value(other);
+			} else {
+				value = score - search(ply + 1, depth - 1, score - beta, score - alpha, false);
+			}
+			unmake(ply, move);
+			if (stopped) {
+				return 0;
+			}
+			if (value > best) {
+				best = value;
+				bestMove = move;
+				alpha = Math.max(alpha, value);
+			}
+		}
+		if (alpha < beta) {
+			int value = passed ? value(other) - value(mover)
+					: -search(ply + 1, depth - 1, -beta, -alpha, true);
+			if (stopped) {
+				return 0;
+			}
+			if (value > best) {
+				best = value;
+				bestMove = null;
+			}
+		}
+		keys[slot] = key;
+		values[slot] = best;
+		depths[slot] = horizon ? (byte) depth : COMPLETE;
+		bounds[slot] = best <= alphaStart ? UPPER : best >= beta ? LOWER : EXACT;
+		if (bestMove == null) {
+			bestMoves[slot] = null;
+		} else if (bestMoves[slot] == null) {
+			bestMoves[slot] = new Move(bestMove);
+		} else {
+			bestMoves[slot].copyFrom(bestMove);
+		}
+		if (ply == 0) {
+			rootMove = bestMoves[slot];
+		}
+		horizon |= outerHorizon;
+		return best;
+	}
+
+    /**
+     * This is a private helper function that puts the plays of a position in the order they
+     * are searched: the play from the transposition table, then the plays that go out, then
+     * the rest, each by Move.BEST_FIRST
+     *
+     * @param list, the plays
+     * @param rackSize, the number of tiles of the side to move
+     * @param tableMove, the best play of an earlier search of the position, or null
+     */
+	private static void order(MoveList list, int rackSize, Move tableMove) {
+		int out = 0;
+		for (int i = 0; i < list.count; i++) {
+			if (list.moves[i].getNumTiles() == rackSize) {
+				list.swap(i, out++);
+			}
+		}
+		Arrays.sort(list.moves, 0, out, Move.BEST_FIRST);
+		Arrays.sort(list.moves, out, list.count, Move.BEST_FIRST);
+		if (tableMove != null) {
+			for (int i = 0; i < list.count; i++) {
+				if (Move.BEST_FIRST.compare(list.moves[i], tableMove) == 0) {
+					for (int j = i; j > 0; j--) {
+						list.swap(j, j - 1);
+					}
+					break;
+				}
+			}
+		}
+	}
+
+    /**
+     * This is a private helper function that makes a play during the search
+     *
+     * @param ply, the turn's number, which picks the side to move and where the play's squares
+     * 			are kept
+     * @param move, the play
+     */
+	private void make(int ply, Move move) {
+		int side = ply & 1;
+		int[] rack = racks[side];
+		int n = 0;
+		for (int i = 0; i < move.getLength(); i++) {
+			if (move.isNew(i)) {
+				int code = move.getLetter(i);
+				placed[ply][n++] = move.getSquare(i);
+				rackKeys[side] ^= Zobrist.rack(side, code, rack[code])
+						^ Zobrist.rack(side, code, rack[code] - 1);
+				rack[code]--;
+			}
+		}
+		move.placeOn(board);
+		board.finalizeAll();
+		checks.update(placed[ply], n);
+	}
+
+    /**
+     * This is a private helper function that takes back a play made by make
+     *
+     * @param ply, the turn's number
+     * @param move, the play
+     */
+	private void unmake(int ply, Move move) {
+		int side = ply & 1;
+		int[] rack = racks[side];
+		for (int i = 0; i < move.getLength(); i++) {
+			if (move.isNew(i)) {
+				int code = move.getLetter(i);
+				board.clearSquare(move.getSquare(i));
+				rackKeys[side] ^= Zobrist.rack(side, code, rack[code])
+						^ Zobrist.rack(side, code, rack[code] + 1);
+				rack[code]++;
+			}
+		}
+		checks.update(placed[ply], move.getNumTiles());
+	}
+
+    /**
+     * This is a private helper function that follows the best plays stored in the
+     * transposition table from the root
+     *
+     * @param depth, the most turns to follow
+     * @return an unmodifiable List of Moves, with null for a pass
+     */
+	private List<Move> principalVariation(int depth) {
+		List<Move> line = new ArrayList<Move>();
+		Move[] made = new Move[depth];
+		int[] madePly = new int[depth];
+		int numMade = 0;
+		boolean passed = false;
+		for (int ply = 0; ply < depth; ply++) {
+			long key = key(ply & 1, passed);
+			int slot = (int) key & TABLE_MASK;
+			if (depths[slot] == 0 || keys[slot] != key) {
+				break;
+			}
+			Move move = bestMoves[slot] == null ? null : new Move(bestMoves[slot]);
+			line.add(move);
+			if (move == null) {
+				if (passed) {
+					break;
+				}
+				passed = true;
+				continue;
+			}
+			make(ply, move);
+			made[numMade] = move;
+			madePly[numMade++] = ply;
+			passed = false;
+			if (size(racks[ply & 1]) == 0) {
+				break;
+			}
+		}
+		while (numMade > 0) {
+			numMade--;
+			unmake(madePly[numMade], made[numMade]);
+		}
+		return Collections.unmodifiableList(line);
+	}
+
+    /**
+     * This is a private helper function that returns the Zobrist key of the position being
+     * searched: the board's letters, both racks, the side to move and whether the last turn
+     * was a pass. Every part is kept up to date as plays are made, so this takes no time.
+     *
+     * @param side, 0 if the root's player is to move, otherwise 1
+     * @param passed, whether the last turn was a pass
+     * @return a long, the key
+     */
+	private long key(int side, boolean passed) {
+		return board.getKey() ^ rackKeys[0] ^ rackKeys[1] ^ (side == 0 ? 0 : Zobrist.SIDE)
+				^ (passed ? Zobrist.PASSED : 0);
+	}
+
+    /**
+     * This is a private helper function that returns the number of tiles on a rack
+     *
+     * @param rack, how many of each letter code the rack holds
+     * @return an int, the number of tiles
+     */
+	private static int size(int[] rack) {
+		int size = 0;
+		for (int code = 1; code <= Letters.COUNT; code++) {
+			size += rack[code];
+		}
+		return size;
+	}
+
+    /**
+     * This is a private helper function that returns the face value of the tiles on a rack
+     *
+     * @param rack, how many of each letter code the rack holds
+     * @return an int, the sum of the tiles' values
+     */
+	private int value(int[] rack) {
+		int value = 0;
+		for (int code = 1; code <= Letters.COUNT; code++) {
+			value += rack[code] * board.getLetterValue(code);
+		}
+		return value;
+	}
+}
@@ -0,0 +1,168 @@
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * This class models a GADDAG, the word graph used to generate moves around letters that are
+ * already on the Board. For every way of splitting a word into a prefix and a suffix, the graph
+ * stores the reversed prefix, a SEPARATOR, and then the suffix. For CARE that is ERAC, RAC>E,
+ * AC>RE and C>ARE. A traversal can therefore start on any letter of a word, step left one
+ * letter at a time, turn around at the SEPARATOR and then step right.
+ * <p>
+ * The paths are stored in a minimized Dawg, so every traversal step is a single child() lookup
+ * that does not allocate.
+ */
+public class Gaddag {
+	/** The letter that marks the point where a traversal turns from going left to going right. */
+	public static final char SEPARATOR = '>';
+
+	private final Dawg graph;
+	private final int numWords;
+
+    /**
+     * Constructs a Gaddag of all the words in a Dawg. The paths are generated and added one
+     * starting letter at a time, which keeps them in sorted order for the DawgBuilder without
+     * ever holding the paths for the whole dictionary in memory at once.
+     *
+     * @param words, the Dawg holding the words to index
+     */
+	public Gaddag(Dawg words) {
+		List<String> all = new ArrayList<String>(words.size());
+		TreeSet<Character> firstLetters = new TreeSet<Character>();
+		for (String word : words) {
+			all.add(word);
+			for (int i = 0; i < word.length(); i++) {
+				firstLetters.add(word.charAt(i));
+			}
+		}
+
+		DawgBuilder builder = new DawgBuilder();
+		List<String> paths = new ArrayList<String>();
+		char[] path = new char[16];
+		for (char first : firstLetters) {
+			paths.clear();
+			for (String word : all) {
+				int length = word.length();
+				if (path.length < length + 1) {
+					path = Arrays.copyOf(path, length + 1);
+				}
+				for (int split = 1; split <= length; split++) {
+					if (word.charAt(split - 1) != first) {
+						continue;
+					}
+					int p = 0;
+					for (int i = split - 1; i >= 0; i--) {
+						path[p++] = word.charAt(i);
+					}
+					if (split < length) {
+						path[p++] = SEPARATOR;
+						for (int i = split; i < length; i++) {
+							path[p++] = word.charAt(i);
+						}
+					}
+					paths.add(new String(path, 0, p));
+				}
+			}
+			paths.sort(null);
+			for (String p : paths) {
+				builder.add(p);
+			}
+		}
+		graph = builder.build();
+		numWords = words.size();
+	}
+
+    /**
+     * This method returns the node every traversal starts from
+     *
+     * @return an int, the root node
+     */
+	public int root() {
+		return Dawg.ROOT;
+	}
+
+    /**
+     * This method steps one letter to the left, i.e. towards the start of the word. It is only
+     * meaningful before the traversal has turned with turnRight().
+     *
+     * @param node, the node to step from
+     * @param letter, the lower case letter to the left of the letters walked so far
+     * @return an int, the node reached or Dawg.NONE if no word continues that way
+     */
+	public int stepLeft(int node, char letter) {
+		return graph.child(node, letter);
+	}
+
+    /**
+     * This method turns a traversal around so that it continues to the right of the letter it
+     * started on.
+     *
+     * @param node, the node to turn at
+     * @return an int, the node reached or Dawg.NONE if no word continues to the right
+     */
+	public int turnRight(int node) {
+		return graph.child(node, SEPARATOR);
+	}
+
+    /**
+     * This method steps one letter to the right, i.e. towards the end of the word. It is only
+     * meaningful after the traversal has turned with turnRight().
+     *
+     * @param node, the node to step from
+     * @param letter, the lower case letter to the right of the letters walked so far
+     * @return an int, the node reached or Dawg.NONE if no word continues that way
+     */
+	public int stepRight(int node, char letter) {
+		return graph.child(node, letter);
+	}
+
+    /**
+     * This method returns whether or not the letters walked so far make a complete word
+     *
+     * @param node, the node reached by the traversal
+     * @return a boolean, whether or not a word ends here
+     */
+	public boolean isWord(int node) {
+		return graph.isTerminal(node);
+	}
+
+    /**
+     * This method returns the underlying graph, for callers that want to iterate over the
+     * edges of a node directly.
+     *
+     * @return the Dawg holding the GADDAG paths
+     */
+	public Dawg getGraph() {
+		return graph;
+	}
+
+    /**
+     * This method returns the number of words indexed by this Gaddag
+     *
+     * @return an int, the number of words
+     */
+	public int getNumWords() {
+		return numWords;
+	}
+
+    /**
+     * This method checks a word by walking it from its last letter to its first, the way a
+     * traversal anchored on the last letter would.
+     *
+     * @param word, the word to look for
+     * @return a boolean, whether or not the word is indexed
+     */
+	public boolean contains(CharSequence word) {
+		if (word.length() == 0) {
+			return false;
+		}
+		int node = root();
+		for (int i = word.length() - 1; i >= 0 && node != Dawg.NONE; i--) {
+			node = stepLeft(node, Character.toLowerCase(word.charAt(i)));
+		}
+		return node != Dawg.NONE && isWord(node);
+	}
+}
@@ -0,0 +1,80 @@
+
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+/**
+ * This class times the Gaddag of the full word list. It first times building the GADDAG, then
+ * makes anchored traversals the way a move generator does: a random word is split at a random
+ * letter, and the traversal starts on that letter, steps left to the start of the word, turns
+ * and steps right to its end. Every traversal must end on a word, and the number that do not is
+ * printed as a check. The words and splits come from a fixed seed, so a run can be repeated
+ * exactly.
+ * <p>
+ * Usage: java GaddagBenchmark [traversals] [dictionaryFile]
+ */
+public class GaddagBenchmark {
+	private static final int DEFAULT_TRAVERSALS = 5000000;
+	private static final String DEFAULT_DICTIONARY = "files/Scrabble_Dictionary.txt";
+
+	// the number of traversals made before timing starts, so the JIT has compiled the walk
+	private static final int WARM_UP = 1000000;
+
+	public static void main(String[] args) throws IOException {
+		int traversals = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TRAVERSALS;
+		String file = args.length > 1 ? args[1] : DEFAULT_DICTIONARY;
+
+		Dictionary dictionary = Dictionary.make(file);
+		long start = System.nanoTime();
+		Gaddag gaddag = dictionary.getGaddag();
+		long buildNanos = System.nanoTime() - start;
+		System.out.printf("built in %d ms: %d words, %d nodes, %d edges%n", buildNanos / 1000000,
+				gaddag.getNumWords(), gaddag.getGraph().getNumNodes(),
+				gaddag.getGraph().getNumEdges());
+
+		String[] words = new String[dictionary.getNumWords()];
+		int n = 0;
+		for (String word : dictionary.getWordGraph()) {
+			words[n++] = word;
+		}
+
+		traverse(gaddag, words, WARM_UP, new SplittableRandom(1));
+		start = System.nanoTime();
+		int missed = traverse(gaddag, words, traversals, new SplittableRandom(2));
+		long nanos = System.nanoTime() - start;
+		System.out.printf("%d traversals in %d ms: %.2f million per second, %d not found%n",
+				traversals, nanos / 1000000, traversals * 1000.0 / nanos, missed);
+	}
+
+    /**
+     * This is a private helper function that makes anchored traversals of random words
+     *
+     * @param gaddag, the Gaddag
+     * @param words, the words to pick from
+     * @param traversals, the number of traversals to make
+     * @param random, where the words and splits come from
+     * @return an int, the number of traversals that did not end on a word
+     */
+	private static int traverse(Gaddag gaddag, String[] words, int traversals,
+			SplittableRandom random) {
+		int missed = 0;
+		for (int t = 0; t < traversals; t++) {
+			String word = words[random.nextInt(words.length)];
+			int anchor = random.nextInt(word.length());
+			int node = gaddag.root();
+			for (int i = anchor; i >= 0 && node != Dawg.NONE; i--) {
+				node = gaddag.stepLeft(node, word.charAt(i));
+			}
+			if (node != Dawg.NONE && anchor + 1 < word.length()) {
+				node = gaddag.turnRight(node);
+				for (int i = anchor + 1; i < word.length() && node != Dawg.NONE; i++) {
+					node = gaddag.stepRight(node, word.charAt(i));
+				}
+			}
+			if (node == Dawg.NONE || !gaddag.isWord(node)) {
+				missed++;
+			}
+		}
+		return missed;
+	}
+}
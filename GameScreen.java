@@ -14,16 +14,19 @@ import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.AbstractAction;
 import javax.swing.BorderFactory;
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
 import javax.swing.JFrame;
+import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.KeyStroke;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 /**
  * This Class creates all the JComponents, JButtons on the screen, handles their interactions
  * and maintains the state of the game. It brings all the pieces together. Because of this,
@@ -44,8 +47,50 @@ public class GameScreen {
 	private JButton finishButton;
 	private boolean myTilesEnabled = true;
 	private int scorelessTurns;
+	// the number of turns in a row in which a tile was exchanged or no word was played
+	private int passes;
 	private JButton resetButton;
 	private ScrabbleRules myRules;
+	private ComputerPlayer computer;
+	private EndgameSolver endgame;
+	private Player computerPlayer;
+	private JFrame gameFrame;
+	private Component gamePane;
+	private JButton tileTakeButton;
+	private MoveJournal journal;
+	// scorelessTurns and passes as they stood when each turn of the journal began, by turn
+	private int[] turnScoreless = new int[64];
+	private int[] turnPasses = new int[64];
+	private Player[] players;
+	private JLabel unseenDisplay;
+
+	// takes back the turns recorded in the journal on the Board, the Players and the Bag
+	private final MoveJournal.Target screenTarget = new MoveJournal.Target() {
+		@Override
+		public void setSquare(int square, int code) {
+			myBoard.setFinalLetter(square, code);
+		}
+
+		@Override
+		public void setRackSlot(int player, int slot, int code) {
+			players[player].setLetter(slot, code == Letters.NONE ? "" : Letters.decode(code));
+		}
+
+		@Override
+		public void takeFromBag(int code) {
+			tileBag.remove(Letters.decode(code));
+		}
+
+		@Override
+		public void returnToBag(int code) {
+			tileBag.putBack(Letters.decode(code));
+		}
+
+		@Override
+		public void addPoints(int player, int points) {
+			players[player].addPoints(points);
+		}
+	};
 	 
     /**
      * Constructs a GameScreen by calling the start helper function.
@@ -84,6 +129,8 @@ public class GameScreen {
     	firstRound = true;
 		tileBag = new Bag();
 		scorelessTurns = 0;
+		passes = 0;
+		journal = new MoveJournal();
 		
 		// set up basic format of the window of the game
         frame.setSize(new Dimension(100, 100));
@@ -98,6 +145,10 @@ public class GameScreen {
         JButton takeTilesButton = makeTileTakeButton(endTurnButton);
         JButton checkTurnButton = makeCompleteButton(frame, listPane, takeTilesButton);
         checkTurnButton.setEnabled(false);
+        JButton undoButton = makeUndoButton(frame, exchangeButton, takeTilesButton);
+        gameFrame = frame;
+        gamePane = listPane;
+        tileTakeButton = takeTilesButton;
 
          // adds the "end" and "reset" buttons to the frame
          JPanel controlPanel = makeControlPanel(frame);
@@ -110,12 +161,29 @@ public class GameScreen {
          // creates the two players, adds the current player display to the screen
          Player player1 = new Player(tileBag, myRules);
          Player player2 = new Player(tileBag, myRules);
+         int opponent = JOptionPane.showConfirmDialog(frame, "Would you like to play against "
+         		+ "the computer?", "Choose Opponent", JOptionPane.YES_NO_OPTION);
+         boolean againstComputer = opponent == JOptionPane.YES_OPTION;
          String player1Name = JOptionPane.showInputDialog("Player 1, Please Enter Your Name");
-         String player2Name = JOptionPane.showInputDialog("Player 2, Please Enter Your Name");
+         String player2Name = againstComputer ? "Computer"
+         		: JOptionPane.showInputDialog("Player 2, Please Enter Your Name");
          player1.setName(player1Name);
          player2.setName(player2Name);
+         computerPlayer = againstComputer ? player2 : null;
+         computer = againstComputer ? new ComputerPlayer(rules.getDictionary().getWordGraph())
+         		: null;
+         if (computer != null) {
+         	computer.setLeaveTable(rules.getLeaveTable());
+         	Simulator simulator = new Simulator(rules.getDictionary().getWordGraph());
+         	simulator.setLeaveTable(rules.getLeaveTable());
+         	computer.setSimulator(simulator, ComputerPlayer.DEFAULT_CANDIDATES);
+         }
+         endgame = againstComputer ? new EndgameSolver(rules.getDictionary().getWordGraph())
+         		: null;
          this.currentPlayer = player1;
          this.waitingPlayer = player2;
+         players = new Player[] { player1, player2 };
+         beginTurn(0);
          player1.setFirstTurn();
          playersTiles = makeMyTiles();
          JPanel playerSign = new JPanel();
@@ -125,7 +193,8 @@ public class GameScreen {
          frame.add(playerSign);
          
          // adds the options bar to the screen
-         frame.add(makeOptionBar(exchangeButton, checkTurnButton, takeTilesButton, endTurnButton));
+         frame.add(makeOptionBar(exchangeButton, checkTurnButton, takeTilesButton, endTurnButton,
+         		undoButton));
         
          // adds the players' tiles to the frame
          frame.add(playersTiles); 
@@ -137,12 +206,24 @@ public class GameScreen {
          currentScores.add((player2.getPointDisplay()));
     	 currentScores.setBackground(new Color(100, 0, 13));
          frame.add(currentScores);
+
+         // adds the tiles the current player cannot see to the screen
+         JPanel unseenPanel = new JPanel();
+         unseenPanel.setLayout(new FlowLayout());
+         unseenDisplay = new JLabel();
+         unseenDisplay.setFont(new Font("Helectiva", Font.PLAIN, 14));
+         unseenDisplay.setForeground(Color.WHITE);
+         unseenPanel.add(unseenDisplay);
+         unseenPanel.setBackground(new Color(100, 0, 13));
+         frame.add(unseenPanel);
+         showUnseenTiles();
 		
 	}
     
     /**
      * Constructs the "Exchange" Button to be used during the game, allowing players
-     * to exchange a single tile if they have no moves. This method also adds its listeners
+     * to exchange a single tile if they have no moves, or to pass once the Bag is empty. This
+     * method also adds its listeners
      *
      * @param none
      * @return the newly constructed exchange Button
@@ -152,12 +233,18 @@ public class GameScreen {
     	exchangeButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-            	if (currentPlayer.allowedToExchange()) {
-            	currentPlayer.exchangeTile(currentTile);
+            	if (tileBag.noMoreTiles() && myBoard.getModel().getNumPending() == 0) {
+            		// there is nothing to exchange with, so the turn is passed
+            		myTilesEnabled = false;
+            		exchangeButton.setEnabled(false);
+            		checkTurn.setEnabled(false);
+            		finishButton.setEnabled(!passTurn());
+            	} else if (currentPlayer.allowedToExchange()) {
+            	exchangeTile(currentTile);
             	myTilesEnabled = false;
             	exchangeButton.setEnabled(false);
             	checkTurn.setEnabled(false);
-            	finishButton.setEnabled(true);
+            	finishButton.setEnabled(!passTurn());
             }
             }
     	});
@@ -181,37 +268,47 @@ public class GameScreen {
     	newButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-            if (!myBoard.movesMade()) {
-            	JOptionPane.showInternalMessageDialog(listPane, "No Moves Made. Please try again.",
-            			"Turn Incomplete!", JOptionPane.INFORMATION_MESSAGE);
-            } else if (!firstRound && !myBoard.newTilestouchOld()) {
-				JOptionPane.showInternalMessageDialog(listPane, "All the Tiles on the Board Must "
-						+ "be Connected. Please Try Again.",
-            			"Tiles Not Connected", JOptionPane.INFORMATION_MESSAGE);
-			} else if (firstRound && !myBoard.middleTileUsed()) {
-				JOptionPane.showInternalMessageDialog(listPane, "Center Tile must be used in the "
-						+ "first move. Please Try Again.",
-            			"Center Tile Not Used", JOptionPane.INFORMATION_MESSAGE);
-			} else if (!myBoard.allMovesInLine()) {
-				JOptionPane.showInternalMessageDialog(listPane, "All Tiles Placed in one turn Must"
-						+ " share a row or column. Please Try Again.",
-            			"New Tiles Illegally Places", JOptionPane.INFORMATION_MESSAGE);
-			} else if (!myBoard.isOnlyWords()) {
-					JOptionPane.showInternalMessageDialog(listPane, "Board Contains Words not In "
-							+ "Dictionary. Please Try Again.",
-	            			"Words Not Allowed", JOptionPane.INFORMATION_MESSAGE);
+            	checkTurn(frame, listPane, takeTilesButton);
+            }
+        });
+    	return newButton;
+    }
+    
+    /**
+     * This method checks the Tiles placed during the current turn against all the rules of the
+     * game. If they pass, the turn is scored and the Board finalized; if not, the player is
+     * told what is wrong. The game is ended if the player went out with an empty Bag. It is
+     * called by the "Check Turn" Button, and by the computer player after it places its tiles.
+     *
+     * @param frame, the frame of the window, used when the game ends
+     * @param listPane, the parent component for the JOptionPanes
+     * @param takeTilesButton, the JButton on the screen which players click to take more buttons.
+     * @return a boolean, whether the turn was accepted and scored
+     */
+    private boolean checkTurn(JFrame frame, Component listPane, JButton takeTilesButton) {
+            String[] problem = findTurnProblem();
+            if (problem != null) {
+            	JOptionPane.showInternalMessageDialog(listPane, problem[0], problem[1],
+            			JOptionPane.INFORMATION_MESSAGE);
 			} else if (currentPlayer.usedAllLetters() && tileBag.noMoreTiles()) {
+				// the last word still scores, and going out earns the opponent's tiles
+				currentPlayer.addPoints(myBoard.calculateScore());
+				if (myBoard.getModel().getNumPending() == Player.NUM_TILES) {
+					currentPlayer.addPoints(Move.BINGO_BONUS);
+				}
+				myBoard.finalizeBoard();
+				currentPlayer.addPoints(waitingPlayer.getUnplayedLetterPoints());
 				Player initWinner = null;
 	        	if (currentPlayer.getPoints() > waitingPlayer.getPoints()) {
 	        		initWinner = currentPlayer;
 	        	} else {
 	        		initWinner = waitingPlayer;
 	        	}
-	        	endGame(frame, initWinner);
-				currentPlayer.addPoints(waitingPlayer.getUnplayedLetterPoints());
 				endGame(frame, initWinner);
+				return false;
 			} else {
 				int newPoints = myBoard.calculateScore();
+				passes = 0;
 				if (newPoints == 0) {
 					scorelessTurns++;
 				} else {
@@ -219,6 +316,7 @@ public class GameScreen {
 				}
 				if (currentPlayer.usedAllLetters()) {
 					currentPlayer.addPoints(50);
+					journal.recordScore(playerIndex(currentPlayer), 50);
 				}
 				if (scorelessTurns >= 6) {
 		        	Player initWinner = null;
@@ -230,17 +328,46 @@ public class GameScreen {
 		        	endGame(frame, initWinner);
 					}
 				currentPlayer.addPoints(newPoints);
+				journal.recordScore(playerIndex(currentPlayer), newPoints);
+				recordPlacedTiles();
 				myBoard.finalizeBoard();
 				firstRound = false;
 				takeTilesButton.setEnabled(true);
 				takeTilesButton.setEnabled(true);
-				newButton.setEnabled(false);
+				checkTurn.setEnabled(false);
 	            myTilesEnabled = false;
+	            return true;
             }
-            }
-        });
-    	return newButton;
+            return false;
     }
+
+    /**
+     * This method checks the Tiles placed during the current turn against the rules of the
+     * game without telling anyone, so that the computer's turn can be checked quietly.
+     *
+     * @return a String[] of the message and the title to show the player, or null if the turn
+     * 			follows the rules
+     */
+    private String[] findTurnProblem() {
+    	if (!myBoard.movesMade()) {
+    		return new String[] { "No Moves Made. Please try again.", "Turn Incomplete!" };
+    	} else if (!firstRound && !myBoard.newTilestouchOld()) {
+    		return new String[] { "All the Tiles on the Board Must be Connected. Please Try "
+    				+ "Again.", "Tiles Not Connected" };
+    	} else if (firstRound && !myBoard.middleTileUsed()) {
+    		return new String[] { "Center Tile must be used in the first move. Please Try "
+    				+ "Again.", "Center Tile Not Used" };
+    	} else if (!myBoard.allMovesInLine()) {
+    		return new String[] { "All Tiles Placed in one turn Must share a row or column. "
+    				+ "Please Try Again.", "New Tiles Illegally Places" };
+    	} else if (!myBoard.isOnlyWords()) {
+    		return new String[] { "Board Contains Words not In Dictionary"
+    				+ rejectedWords(myBoard.validateMove()) + ". Please Try Again.",
+    				"Words Not Allowed" };
+    	}
+    	return null;
+    }
+
     
     /**
      * Constructs the "Take Tile" Button, which players click on after their turns have been checked
@@ -256,7 +383,7 @@ public class GameScreen {
     	newButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-				currentPlayer.fillLetters();
+				fillLetters();
 				currentPlayer.drawMyTiles();
 				endTurnButton.setEnabled(true);
 				newButton.setEnabled(false);
@@ -276,10 +403,11 @@ public class GameScreen {
      * @param checkTurnButton, the "Check Turn" that players click after their turns
      * @param takeTilesButton, the "Take Tiles" Button that is used to get more tiles at the end
      * 			of turns
+     * @param undoButton, the "Undo Turn" Button that takes back the last turn
      * @return the newly constructed Options Panel
      */
     private JPanel makeOptionBar(JButton exchangeButton, JButton checkTurnButton, 
-    	JButton takeTilesButton, JButton endTurnButton) {
+    	JButton takeTilesButton, JButton endTurnButton, JButton undoButton) {
         JPanel options = new JPanel();
         options.setLayout(new FlowLayout());
         options.setBackground(new Color(100, 0, 13));
@@ -287,6 +415,7 @@ public class GameScreen {
         options.add(takeTilesButton);
         options.add(checkTurnButton);
         options.add(endTurnButton);
+        options.add(undoButton);
         return options;
     }
     
@@ -305,21 +434,320 @@ public class GameScreen {
     	newButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-					Player temp = currentPlayer;
-					currentPlayer = waitingPlayer;
-					waitingPlayer = temp;
-					currentPlayer.makeCurrentPlayer();
-					// checkTurn.setEnabled(true);
-					newButton.setEnabled(false);
-	            	myTilesEnabled = true;
-	            	exchangeButton.setEnabled(true);
-					// currentPlayer.enableTiles();
+            	endTurn(exchangeButton);
             }
             
             });
     	return newButton;
     }
     
+    /**
+     * This method passes the turn to the waiting Player. If that is the computer, it starts
+     * thinking about its move.
+     *
+     * @param exchangeButton, the "Exchange Tile" Button, enabled again for the next Player
+     * @return none
+     */
+    private void endTurn(JButton exchangeButton) {
+		Player temp = currentPlayer;
+		currentPlayer = waitingPlayer;
+		waitingPlayer = temp;
+		beginTurn(playerIndex(currentPlayer));
+		currentPlayer.makeCurrentPlayer();
+		showUnseenTiles();
+		// checkTurn.setEnabled(true);
+		finishButton.setEnabled(false);
+		tileTakeButton.setEnabled(false);
+    	myTilesEnabled = true;
+    	exchangeButton.setEnabled(true);
+		// currentPlayer.enableTiles();
+		if (currentPlayer == computerPlayer) {
+			playComputerTurn(exchangeButton);
+		}
+    }
+    
+    /**
+     * This method lets the computer take its turn. The search runs in a SwingWorker so the
+     * window keeps repainting, on a copy of the Board so the player's clicks cannot change it;
+     * the chosen Tiles are then placed and checked on the Swing thread like a player's turn.
+     *
+     * @param exchangeButton, the "Exchange Tile" Button, disabled while the computer plays
+     * @return none
+     */
+    private void playComputerTurn(JButton exchangeButton) {
+    	myTilesEnabled = false;
+    	exchangeButton.setEnabled(false);
+    	final Board board = myBoard;
+    	final BoardModel snapshot = new BoardModel(board.getModel());
+    	final int[] rack = MoveGenerator.rackOf(currentPlayer);
+    	final int[] opponentRack = MoveGenerator.rackOf(waitingPlayer);
+    	final int[] unseen = board.getUnseenTiles().getCounts(currentPlayer.getRack());
+    	final int spread = currentPlayer.getPoints() - waitingPlayer.getPoints();
+    	final boolean bagEmpty = tileBag.noMoreTiles();
+    	final Dawg words = myRules.getDictionary().getWordGraph();
+    	new SwingWorker<Move, Void>() {
+    		@Override
+    		protected Move doInBackground() {
+    			CrossCheckTable crossChecks = new CrossCheckTable(snapshot, words);
+    			if (bagEmpty) {
+    				// both racks are known, so the rest of the game can be searched exactly
+    				return endgame.solve(snapshot, crossChecks, rack, opponentRack).getMove();
+    			}
+    			return computer.chooseMove(snapshot, crossChecks, rack, unseen, spread);
+    		}
+
+    		@Override
+    		protected void done() {
+    			if (board != myBoard) {
+    				// the game was reset while the computer was thinking
+    				return;
+    			}
+    			Move move = null;
+    			try {
+    				move = get();
+    			} catch (InterruptedException | ExecutionException e) {
+    				// play no word, as if none was found
+    			}
+    			finishComputerTurn(move, exchangeButton);
+    		}
+    	}.execute();
+    }
+    
+    /**
+     * This method places the computer's chosen Tiles on the Board and completes its turn. If
+     * it found no word to play, or its play breaks the rules of the Board, it exchanges its
+     * least useful tile instead.
+     *
+     * @param move, the computer's play, or null if it has none
+     * @param exchangeButton, the "Exchange Tile" Button
+     * @return none
+     */
+    private void finishComputerTurn(Move move, JButton exchangeButton) {
+    	if (move == null) {
+    		if (!tileBag.noMoreTiles()) {
+    			exchangeTile(Player.getButton(ComputerPlayer.chooseExchange(currentPlayer)));
+    		}
+    		if (!passTurn()) {
+    			endTurn(exchangeButton);
+    		}
+    		return;
+    	}
+    	for (int i = 0; i < move.getLength(); i++) {
+    		if (move.isNew(i)) {
+    			String letter = Letters.decode(move.getLetter(i));
+    			int index = 0;
+    			while (!currentPlayer.getLetter(index).equals(letter)) {
+    				index++;
+    			}
+    			int square = move.getSquare(i);
+    			myBoard.getTile(square / BoardModel.SIZE, square % BoardModel.SIZE)
+    					.putLetterOnTile(index, currentPlayer);
+    		}
+    	}
+    	if (findTurnProblem() != null) {
+    		// the play does not fit the Board after all, so take the Tiles back and play no word
+    		BoardModel model = myBoard.getModel();
+    		while (model.getNumPending() > 0) {
+    			int square = model.getPending(0);
+    			Tile tile = myBoard.getTile(square / BoardModel.SIZE, square % BoardModel.SIZE);
+    			tile.removeLetterFromTile(tile.getButtonIndex(), currentPlayer);
+    		}
+    		currentPlayer.drawMyTiles();
+    		finishComputerTurn(null, exchangeButton);
+    		return;
+    	}
+    	if (checkTurn(gameFrame, gamePane, tileTakeButton)) {
+    		fillLetters();
+    		currentPlayer.drawMyTiles();
+    		endTurn(exchangeButton);
+    	}
+    }
+    
+    /**
+     * This method counts a turn in which the current Player exchanged a tile or played no word
+     * as a scoreless turn, and ends the game after six scoreless turns in a row. Once the Bag
+     * is empty an exchange gives back the same tile, so it is a pass, and two passes in a row
+     * end the game with each Player losing the value of their own tiles, as EndgameSolver
+     * expects.
+     *
+     * @return a boolean, whether the game was ended
+     */
+    private boolean passTurn() {
+    	scorelessTurns++;
+    	passes++;
+    	if (scorelessTurns < 6 && (passes < 2 || !tileBag.noMoreTiles())) {
+    		return false;
+    	}
+    	Player initWinner = null;
+    	if (currentPlayer.getPoints() > waitingPlayer.getPoints()) {
+    		initWinner = currentPlayer;
+    	} else {
+    		initWinner = waitingPlayer;
+    	}
+    	endGame(gameFrame, initWinner);
+    	return true;
+    }
+
+    /**
+     * Constructs the "Undo Turn" Button, which takes back the last turn at the start of a
+     * player's turn. Against the computer, the computer's turn is taken back together with the
+     * player's turn before it, so the player can try again.
+     *
+     * @param frame, the JFrame of the entire game window
+     * @param exchangeButton, the "Exchange Tile" Button
+     * @param takeTilesButton, the "Take Tiles" Button
+     * @return the newly constructed "Undo Turn" Button
+     */
+    private JButton makeUndoButton(JFrame frame, JButton exchangeButton,
+    		JButton takeTilesButton) {
+    	JButton newButton = new JButton("Undo Turn");
+    	newButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+            	if (!myTilesEnabled || !journal.isTurnEmpty()
+            			|| myBoard.getModel().getNumPending() > 0 || journal.getNumTurns() < 2) {
+            		JOptionPane.showMessageDialog(frame, "A turn can only be taken back at the "
+            				+ "start of the next turn, before any Tiles are placed.",
+            				"Cannot Undo", JOptionPane.INFORMATION_MESSAGE);
+            		return;
+            	}
+            	// the turn just started has no changes, so taking it back only ends it
+            	journal.undo(screenTarget);
+            	int player = journal.undo(screenTarget);
+            	if (players[player] == computerPlayer && journal.canUndo()) {
+            		player = journal.undo(screenTarget);
+            	}
+            	// the counters go back to where they stood when the turn taken back began
+            	scorelessTurns = turnScoreless[journal.getNumTurns()];
+            	passes = turnPasses[journal.getNumTurns()];
+            	beginTurn(player);
+            	currentPlayer = players[player];
+            	waitingPlayer = players[1 - player];
+            	currentPlayer.makeCurrentPlayer();
+            	showUnseenTiles();
+            	firstRound = !myBoard.getModel().isFinalized(BoardModel.CENTER);
+            	finishButton.setEnabled(false);
+            	takeTilesButton.setEnabled(false);
+            	checkTurn.setEnabled(false);
+            	exchangeButton.setEnabled(true);
+            	myTilesEnabled = true;
+            }
+        });
+    	return newButton;
+    }
+
+    /**
+     * This method begins a turn of the MoveJournal, saving scorelessTurns and passes as they
+     * stand so that taking the turn back can restore them.
+     *
+     * @param player, the number of the Player whose turn it is
+     * @return none
+     */
+    private void beginTurn(int player) {
+    	int turn = journal.getNumTurns();
+    	if (turn == turnScoreless.length) {
+    		turnScoreless = Arrays.copyOf(turnScoreless, 2 * turn);
+    		turnPasses = Arrays.copyOf(turnPasses, 2 * turn);
+    	}
+    	turnScoreless[turn] = scorelessTurns;
+    	turnPasses[turn] = passes;
+    	journal.beginTurn(player);
+    }
+
+    /**
+     * This method returns the number the MoveJournal uses for a Player
+     *
+     * @param player, the Player
+     * @return an int, 0 for the first Player and 1 for the second
+     */
+    private int playerIndex(Player player) {
+    	return player == players[0] ? 0 : 1;
+    }
+
+    /**
+     * This method records the Tiles placed during the current turn in the MoveJournal: which
+     * slot of the Player's rack each letter came from and where it was put. It is called just
+     * before the Board is finalized.
+     *
+     * @return none
+     */
+    private void recordPlacedTiles() {
+    	BoardModel model = myBoard.getModel();
+    	int player = playerIndex(currentPlayer);
+    	for (int i = 0; i < model.getNumPending(); i++) {
+    		int square = model.getPending(i);
+    		int code = model.getLetter(square);
+    		int slot = myBoard.getTile(square / BoardModel.SIZE, square % BoardModel.SIZE)
+    				.getButtonIndex();
+    		journal.recordRack(player, slot, code, Letters.NONE);
+    		journal.recordPlace(square, code);
+    	}
+    }
+
+    /**
+     * This method fills the current Player's empty slots from the Bag and records the draws in
+     * the MoveJournal.
+     *
+     * @return none
+     */
+    private void fillLetters() {
+    	String[] before = new String[Player.NUM_TILES];
+    	for (int i = 0; i < Player.NUM_TILES; i++) {
+    		before[i] = currentPlayer.getLetter(i);
+    	}
+    	currentPlayer.fillLetters();
+    	int player = playerIndex(currentPlayer);
+    	for (int i = 0; i < Player.NUM_TILES; i++) {
+    		int code = Letters.encode(currentPlayer.getLetter(i));
+    		if (Letters.encode(before[i]) == Letters.NONE && code != Letters.NONE) {
+    			journal.recordDraw(code);
+    			journal.recordRack(player, i, Letters.NONE, code);
+    		}
+    	}
+    	showUnseenTiles();
+    }
+
+    /**
+     * This method exchanges one of the current Player's letters for a new one from the Bag and
+     * records the exchange in the MoveJournal.
+     *
+     * @param button, the Player's Tile Button holding the letter to exchange
+     * @return none
+     */
+    private void exchangeTile(JButton button) {
+    	int index = Player.getButtonIndex(button);
+    	int oldCode = Letters.encode(currentPlayer.getLetter(index));
+    	currentPlayer.exchangeTile(button);
+    	int newCode = Letters.encode(currentPlayer.getLetter(index));
+    	journal.recordReturn(oldCode);
+    	journal.recordDraw(newCode);
+    	journal.recordRack(playerIndex(currentPlayer), index, oldCode, newCode);
+    	showUnseenTiles();
+    }
+
+    /**
+     * This method shows the tiles the current Player cannot see, the ones in the Bag and on
+     * the other Player's rack. Hovering over them shows the chance of drawing at least one of
+     * each letter in a full rack's worth of draws.
+     *
+     * @return none
+     */
+    private void showUnseenTiles() {
+    	UnseenTiles unseen = myBoard.getUnseenTiles();
+    	Rack rack = currentPlayer.getRack();
+    	unseenDisplay.setText("Unseen (" + unseen.size(rack) + "): " + unseen.describe(rack));
+    	int draws = Math.min(Player.NUM_TILES, tileBag.size());
+    	StringBuilder chances = new StringBuilder("Chance of drawing at least one in " + draws
+    			+ ":");
+    	for (int code = 1; code <= Letters.COUNT; code++) {
+    		if (unseen.getCount(code, rack) > 0) {
+    			chances.append(String.format(" %s %.0f%%", Letters.decode(code),
+    					100 * unseen.chanceOfDrawing(rack, code, 1, draws)));
+    		}
+    	}
+    	unseenDisplay.setToolTipText(chances.toString());
+    }
+
     /**
      * Constructs the 7 Buttons represents the current Player's personal Tiles
      *
@@ -446,6 +874,9 @@ public class GameScreen {
      * @return none
      */
 	private void endGame(JFrame frame, Player initWinner) {
+		// the final rack penalties are not recorded, so no turn can be taken back any more
+		journal = new MoveJournal();
+		beginTurn(playerIndex(currentPlayer));
 		currentPlayer.addPoints(- currentPlayer.getUnplayedLetterPoints());
 		waitingPlayer.addPoints(- waitingPlayer.getUnplayedLetterPoints());
 		
@@ -471,4 +902,19 @@ public class GameScreen {
     			"High Scores", JOptionPane.INFORMATION_MESSAGE);
 		resetButton.setEnabled(true);
     }
+
+    /**
+     * This is a private helper function that lists the rejected words of a turn for the
+     * "Words Not Allowed" message
+     *
+     * @param report, the ValidationReport of the turn
+     * @return a String, such as " (QZX, ZZA)", or "" if no single word was rejected
+     */
+	private String rejectedWords(ValidationReport report) {
+		StringBuilder names = new StringBuilder();
+		for (ValidationReport.CheckedWord word : report.getInvalidWords()) {
+			names.append(names.length() == 0 ? " (" : ", ").append(word.getWord());
+		}
+		return names.length() == 0 ? "" : names.append(")").toString();
+	}
 }
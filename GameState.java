@@ -0,0 +1,225 @@
+
+
+/**
+ * This class is a headless two player game: a BoardModel with its CrossCheckTable, both racks
+ * slot by slot, the letters left in the bag and both scores. A search makes turns on it with
+ * play, recording them in a MoveJournal, and takes them back with MoveJournal.undo, which only
+ * touches the squares, slots and counts the turn changed.
+ */
+public class GameState implements MoveJournal.Target {
+	private final BoardModel model;
+	private final CrossCheckTable crossChecks;
+	private final int[][] racks = new int[2][Player.NUM_TILES];
+
+	// how many of each letter code each rack holds, and the Zobrist keys of those counts, both
+	// kept up to date by setSlot
+	private final int[][] counts = new int[2][Letters.COUNT + 1];
+	private final long[] rackKeys = new long[2];
+	private final Bag bag;
+	private final int[] scores = new int[2];
+	private final int[] changed = new int[Player.NUM_TILES];
+
+    /**
+     * Constructs a GameState with empty racks and no points.
+     *
+     * @param model, the BoardModel, with no pending letters
+     * @param crossChecks, the up to date CrossCheckTable of the model, or null to keep none
+     * @param bag, the Bag, which the game draws from and changes
+     */
+	public GameState(BoardModel model, CrossCheckTable crossChecks, Bag bag) {
+		this.model = model;
+		this.crossChecks = crossChecks;
+		this.bag = bag;
+	}
+
+    /**
+     * This method returns the BoardModel of the game
+     *
+     * @return the BoardModel
+     */
+	public BoardModel getModel() {
+		return model;
+	}
+
+    /**
+     * This method returns the CrossCheckTable of the game
+     *
+     * @return the CrossCheckTable, or null if the game keeps none
+     */
+	public CrossCheckTable getCrossChecks() {
+		return crossChecks;
+	}
+
+    /**
+     * This method returns the letter in one slot of a player's rack
+     *
+     * @param player, 0 for the first player, 1 for the second
+     * @param slot, the slot, from 0 to Player.NUM_TILES - 1
+     * @return an int, the letter code, or Letters.NONE for an empty slot
+     */
+	public int getRackSlot(int player, int slot) {
+		return racks[player][slot];
+	}
+
+    /**
+     * This method returns how many of each letter a player holds
+     *
+     * @param player, 0 for the first player, 1 for the second
+     * @return an int[], indexed by letter code, as MoveGenerator takes
+     */
+	public int[] getRack(int player) {
+		return counts[player].clone();
+	}
+
+    /**
+     * This method returns the Bag of the game
+     *
+     * @return the Bag
+     */
+	public Bag getBag() {
+		return bag;
+	}
+
+    /**
+     * This method returns a player's score
+     *
+     * @param player, 0 for the first player, 1 for the second
+     * @return an int, the points
+     */
+	public int getScore(int player) {
+		return scores[player];
+	}
+
+    /**
+     * This method returns the Zobrist key of the game: the letters on the board, both racks and
+     * the side to move
+     *
+     * @param player, the player to move
+     * @return a long, the key (see Zobrist)
+     */
+	public long getKey(int player) {
+		return model.getKey() ^ rackKeys[0] ^ rackKeys[1] ^ (player == 0 ? 0 : Zobrist.SIDE);
+	}
+
+    /**
+     * This method fills a player's empty rack slots from the bag as a turn of its own, for the
+     * start of a game
+     *
+     * @param player, 0 for the first player, 1 for the second
+     * @param journal, which records the draws
+     */
+	public void deal(int player, MoveJournal journal) {
+		journal.beginTurn(player);
+		fill(player, journal);
+	}
+
+    /**
+     * This method makes one turn: a player's play is put on the board and scored, and the
+     * player's rack is filled from the bag. Every change is recorded as one turn of the journal.
+     *
+     * @param player, 0 for the first player, 1 for the second
+     * @param move, a legal play of the player's rack
+     * @param journal, which records the turn
+     */
+	public void play(int player, Move move, MoveJournal journal) {
+		journal.beginTurn(player);
+		int n = 0;
+		for (int i = 0; i < move.getLength(); i++) {
+			if (move.isNew(i)) {
+				int code = move.getLetter(i);
+				int slot = 0;
+				while (racks[player][slot] != code) {
+					slot++;
+				}
+				setSlot(player, slot, Letters.NONE);
+				journal.recordRack(player, slot, code, Letters.NONE);
+				changed[n++] = move.getSquare(i);
+				model.setLetter(move.getSquare(i), code);
+				journal.recordPlace(move.getSquare(i), code);
+			}
+		}
+		model.finalizeAll();
+		if (crossChecks != null) {
+			crossChecks.update(changed, n);
+		}
+		scores[player] += move.getScore();
+		journal.recordScore(player, move.getScore());
+		fill(player, journal);
+	}
+
+    /**
+     * This is a private helper function that draws random tiles into a player's empty slots
+     *
+     * @param player, 0 for the first player, 1 for the second
+     * @param journal, which records the draws
+     */
+	private void fill(int player, MoveJournal journal) {
+		for (int slot = 0; slot < Player.NUM_TILES && !bag.noMoreTiles(); slot++) {
+			if (racks[player][slot] != Letters.NONE) {
+				continue;
+			}
+			int code = bag.takeCode();
+			journal.recordDraw(code);
+			setSlot(player, slot, code);
+			journal.recordRack(player, slot, Letters.NONE, code);
+		}
+	}
+
+    /**
+     * This is a private helper function that puts a letter in a rack slot and updates the
+     * rack's counts and key by the letters that left and came
+     *
+     * @param player, 0 for the first player, 1 for the second
+     * @param slot, the slot
+     * @param code, the new letter code, or Letters.NONE to empty the slot
+     */
+	private void setSlot(int player, int slot, int code) {
+		int old = racks[player][slot];
+		int[] count = counts[player];
+		if (old != Letters.NONE) {
+			rackKeys[player] ^= Zobrist.rack(player, old, count[old])
+					^ Zobrist.rack(player, old, count[old] - 1);
+			count[old]--;
+		}
+		if (code != Letters.NONE) {
+			rackKeys[player] ^= Zobrist.rack(player, code, count[code])
+					^ Zobrist.rack(player, code, count[code] + 1);
+			count[code]++;
+		}
+		racks[player][slot] = code;
+	}
+
+	@Override
+	public void setSquare(int square, int code) {
+		if (code == Letters.NONE) {
+			model.clearSquare(square);
+		} else {
+			model.setLetter(square, code);
+			model.finalizeSquare(square);
+		}
+		if (crossChecks != null) {
+			changed[0] = square;
+			crossChecks.update(changed, 1);
+		}
+	}
+
+	@Override
+	public void setRackSlot(int player, int slot, int code) {
+		setSlot(player, slot, code);
+	}
+
+	@Override
+	public void takeFromBag(int code) {
+		bag.remove(code);
+	}
+
+	@Override
+	public void returnToBag(int code) {
+		bag.putBack(code);
+	}
+
+	@Override
+	public void addPoints(int player, int points) {
+		scores[player] += points;
+	}
+}
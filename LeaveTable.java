@@ -0,0 +1,293 @@
+
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * This class is a table of the value of every leave: every multiset of 0 to MAX_LEAVE letters
+ * that the tiles of a game can make. Each leave has its own slot, found by ranking the leave
+ * among all of them in alphabetical order, so a lookup is a pass over the letter counts and
+ * one read, and the table has no holes and no collisions. The values are kept in tenths of a
+ * point as shorts, about 2 bytes a leave.
+ * <p>
+ * The values are fitted by LeaveTrainer and written to a binary file in the same way as
+ * DawgFile: a header recording the format version, the tile distribution the table was made
+ * for and a CRC32 of the values, followed by the values. A loaded file is memory-mapped and
+ * read in place. A file that fails any check is treated as missing, and ComputerPlayer then
+ * falls back to its static leave formula.
+ */
+public class LeaveTable {
+	/** The most letters a leave can have: a play uses at least one tile. */
+	public static final int MAX_LEAVE = Player.NUM_TILES - 1;
+
+	/** Where the table of the standard tiles is kept. */
+	public static final String DEFAULT_FILE = "files/Scrabble_Leaves.bin";
+
+	private static final int MAGIC = 0x4C454156; // "LEAV"
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 32;
+	private static final int WIDTH = MAX_LEAVE + 1;
+
+	private final int[] limits = new int[Letters.COUNT + 1];
+	private final int[] offsets = new int[(Letters.COUNT + 1) * WIDTH * WIDTH];
+	private final int size;
+	private final long distributionKey;
+	private final ShortBuffer values;
+
+    /**
+     * Constructs a LeaveTable for a tile distribution with every value 0.
+     *
+     * @param distribution, how many tiles of each letter code a game has
+     * 			(see ScrabbleRules.getTileDistribution)
+     */
+	public LeaveTable(int[] distribution) {
+		this(distribution, null);
+	}
+
+    /**
+     * This is a private constructor that sets up the ranking of the leaves of a distribution
+     * and reads the values from a buffer, or from a new one if none is given.
+     *
+     * @param distribution, how many tiles of each letter code a game has
+     * @param values, the values in tenths of a point, in the order of the ranking, or null
+     */
+	private LeaveTable(int[] distribution, ShortBuffer values) {
+		// below[code * WIDTH + r] is the number of leaves of at most r letters from code on
+		int[] below = new int[(Letters.COUNT + 2) * WIDTH];
+		for (int r = 0; r < WIDTH; r++) {
+			below[(Letters.COUNT + 1) * WIDTH + r] = 1;
+		}
+		for (int code = Letters.COUNT; code >= 1; code--) {
+			limits[code] = Math.min(distribution[code], MAX_LEAVE);
+			for (int r = 0; r < WIDTH; r++) {
+				int total = 0;
+				for (int count = 0; count <= Math.min(limits[code], r); count++) {
+					offsets[(code * WIDTH + r) * WIDTH + count] = total;
+					total += below[(code + 1) * WIDTH + r - count];
+				}
+				below[code * WIDTH + r] = total;
+			}
+		}
+		this.size = below[WIDTH + MAX_LEAVE];
+		this.distributionKey = keyOf(limits);
+		this.values = values != null ? values : ShortBuffer.allocate(size);
+	}
+
+    /**
+     * This method returns the number of leaves in the table
+     *
+     * @return an int, the number of slots
+     */
+	public int size() {
+		return size;
+	}
+
+    /**
+     * This method returns the slot of a leave
+     *
+     * @param counts, how many of each letter code the leave has
+     * @return an int, from 0 to size() - 1, or -1 if the leave has more than MAX_LEAVE letters
+     * 			or more of a letter than a game has
+     */
+	public int index(int[] counts) {
+		int index = 0;
+		int remaining = MAX_LEAVE;
+		for (int code = 1; code <= Letters.COUNT; code++) {
+			int count = counts[code];
+			if (count == 0) {
+				continue;
+			}
+			if (count > remaining || count > limits[code]) {
+				return -1;
+			}
+			index += offsets[(code * WIDTH + remaining) * WIDTH + count];
+			remaining -= count;
+		}
+		return index;
+	}
+
+    /**
+     * This method returns the slot of the letters on a Rack
+     *
+     * @param rack, the Rack
+     * @return an int, from 0 to size() - 1, or -1 if the Rack is not a leave of the table
+     */
+	public int index(Rack rack) {
+		if (rack.size() > MAX_LEAVE) {
+			return -1;
+		}
+		int index = 0;
+		int remaining = MAX_LEAVE;
+		int end = MAX_LEAVE - rack.size();
+		for (int code = 1; remaining > end; code++) {
+			int count = rack.count(code);
+			if (count == 0) {
+				continue;
+			}
+			if (count > limits[code]) {
+				return -1;
+			}
+			index += offsets[(code * WIDTH + remaining) * WIDTH + count];
+			remaining -= count;
+		}
+		return index;
+	}
+
+    /**
+     * This method returns the leave in a slot, the opposite of index
+     *
+     * @param index, the slot, from 0 to size() - 1
+     * @return a new int[], how many of each letter code the leave has
+     */
+	public int[] counts(int index) {
+		int[] counts = new int[Letters.COUNT + 1];
+		int remaining = MAX_LEAVE;
+		for (int code = 1; code <= Letters.COUNT; code++) {
+			int base = (code * WIDTH + remaining) * WIDTH;
+			int count = Math.min(limits[code], remaining);
+			while (offsets[base + count] > index) {
+				count--;
+			}
+			index -= offsets[base + count];
+			counts[code] = count;
+			remaining -= count;
+		}
+		return counts;
+	}
+
+    /**
+     * This method returns the value of the leave in a slot
+     *
+     * @param index, the slot, from 0 to size() - 1
+     * @return a double, the value in points, to a tenth of a point
+     */
+	public double value(int index) {
+		return values.get(index) / 10.0;
+	}
+
+    /**
+     * This method returns the value of a leave
+     *
+     * @param counts, how many of each letter code the leave has
+     * @return a double, the value in points
+     * @throws IllegalArgumentException if the leave is not in the table (see index)
+     */
+	public double value(int[] counts) {
+		int index = index(counts);
+		if (index < 0) {
+			throw new IllegalArgumentException("not a leave of the table");
+		}
+		return value(index);
+	}
+
+    /**
+     * This method sets the value of the leave in a slot. Only a table made by the constructor
+     * can be changed; a loaded table is read only.
+     *
+     * @param index, the slot, from 0 to size() - 1
+     * @param points, the value in points, which is rounded to a tenth of a point
+     */
+	public void setValue(int index, double points) {
+		long tenths = Math.round(points * 10);
+		values.put(index, (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, tenths)));
+	}
+
+    /**
+     * This method writes the table to a binary file.
+     *
+     * @param binaryFile, the path of the file to write
+     * @throws IOException if the file cannot be written
+     */
+	public void write(String binaryFile) throws IOException {
+		ByteBuffer payload = ByteBuffer.allocate(2 * size);
+		payload.asShortBuffer().put(values.duplicate().clear());
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		payload.position(0);
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+		header.putInt(MAGIC);
+		header.putInt(VERSION);
+		header.putInt(MAX_LEAVE);
+		header.putInt(size);
+		header.putLong(distributionKey);
+		header.putLong(crc.getValue());
+		header.flip();
+		// a running game may have the old file mapped, so it is replaced rather than rewritten
+		DawgFile.replace(binaryFile, header, payload);
+	}
+
+    /**
+     * This method maps a binary file and returns the table stored in it, as long as the file
+     * is complete, has the current version, was made for the given tile distribution and
+     * matches its checksum.
+     *
+     * @param binaryFile, the path of the file
+     * @param distribution, how many tiles of each letter code a game has
+     * @return the mapped LeaveTable, or null if the file is missing, corrupt or for other tiles
+     */
+	public static LeaveTable load(String binaryFile, int[] distribution) {
+		File file = new File(binaryFile);
+		if (!file.isFile() || file.length() < HEADER_BYTES) {
+			return null;
+		}
+		try {
+			RandomAccessFile in = new RandomAccessFile(file, "r");
+			MappedByteBuffer mapped;
+			try {
+				mapped = in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+			} finally {
+				// the mapping stays valid after the channel is closed
+				in.close();
+			}
+
+			if (mapped.getInt() != MAGIC || mapped.getInt() != VERSION
+					|| mapped.getInt() != MAX_LEAVE) {
+				return null;
+			}
+			int numLeaves = mapped.getInt();
+			long key = mapped.getLong();
+			long checksum = mapped.getLong();
+			int[] limits = new int[Letters.COUNT + 1];
+			for (int code = 1; code <= Letters.COUNT; code++) {
+				limits[code] = Math.min(distribution[code], MAX_LEAVE);
+			}
+			if (key != keyOf(limits) || HEADER_BYTES + 2L * numLeaves != file.length()) {
+				return null;
+			}
+
+			mapped.position(HEADER_BYTES);
+			ByteBuffer payload = mapped.slice();
+			CRC32 crc = new CRC32();
+			crc.update(payload.duplicate());
+			if (crc.getValue() != checksum) {
+				return null;
+			}
+			LeaveTable table = new LeaveTable(distribution, payload.asShortBuffer());
+			return table.size == numLeaves ? table : null;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+    /**
+     * This is a private helper function that returns a checksum of how many of each letter a
+     * leave can have, which is all of the distribution the ranking depends on
+     *
+     * @param limits, the most copies of each letter code a leave can have
+     * @return a long, the checksum
+     */
+	private static long keyOf(int[] limits) {
+		CRC32 crc = new CRC32();
+		for (int code = 1; code <= Letters.COUNT; code++) {
+			crc.update(limits[code]);
+		}
+		return crc.getValue();
+	}
+}
@@ -0,0 +1,254 @@
+
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class is the offline step that fits a LeaveTable by self-play. In each generation the
+ * ComputerPlayer plays games against itself, rating leaves with the table of the generation
+ * before. Every time a player keeps a leave and refills its rack from the bag, the points it
+ * scores on its next turn are credited to that leave. The new value of a leave is how much
+ * more than the average next turn it scored, pulled towards its old value by PRIOR_WEIGHT
+ * turns' worth, so that leaves seen only a few times keep most of the value they had. The first
+ * generation starts from the static formula of ComputerPlayer.leaveValue.
+ * <p>
+ * The games of a generation are split between the threads of a ForkJoinPool. Each thread adds
+ * up its own points and counts, which are merged when the games are over. Game i of a
+ * generation always draws the same tiles, and the sums are whole numbers, so the table that
+ * comes out does not depend on the number of threads.
+ * <p>
+ * Usage: java LeaveTrainer [games] [generations] [binaryFile]
+ */
+public class LeaveTrainer {
+	/** The number of games of each generation unless another is given. */
+	public static final int DEFAULT_GAMES = 2000;
+
+	/** The number of generations unless another is given. */
+	public static final int DEFAULT_GENERATIONS = 4;
+
+	// the number of turns' worth of weight given to the old value of a leave
+	private static final int PRIOR_WEIGHT = 16;
+
+	// the number of games each task plays before it stops splitting
+	private static final int GAMES_PER_TASK = 4;
+
+	private final Dawg words;
+	private final int[] distribution;
+	private final int[] letterValues;
+	private final ForkJoinPool pool;
+	private long seed = 0;
+
+	// the generation being played
+	private LeaveTable current;
+	private ConcurrentMap<Thread, Worker> workers;
+
+	/**
+	 * The ComputerPlayer of one thread and the points it has credited to each leave.
+	 */
+	private class Worker {
+		private final ComputerPlayer player = new ComputerPlayer(words);
+		private final long[] points = new long[current.size()];
+		private final int[] turns = new int[current.size()];
+
+		Worker() {
+			player.setTimeBudget(Integer.MAX_VALUE);
+			player.setLeaveTable(current);
+		}
+	}
+
+    /**
+     * Constructs a LeaveTrainer that runs on the common ForkJoinPool.
+     *
+     * @param words, the word graph of the Dictionary (see Dictionary.getWordGraph)
+     * @param distribution, how many tiles of each letter code a game has
+     * @param letterValues, the value of each letter code
+     */
+	public LeaveTrainer(Dawg words, int[] distribution, int[] letterValues) {
+		this(words, distribution, letterValues, ForkJoinPool.commonPool());
+	}
+
+    /**
+     * Constructs a LeaveTrainer that runs on a given ForkJoinPool.
+     *
+     * @param words, the word graph of the Dictionary
+     * @param distribution, how many tiles of each letter code a game has
+     * @param letterValues, the value of each letter code
+     * @param pool, the ForkJoinPool to play the games on
+     */
+	public LeaveTrainer(Dawg words, int[] distribution, int[] letterValues, ForkJoinPool pool) {
+		this.words = words;
+		this.distribution = distribution;
+		this.letterValues = letterValues;
+		this.pool = pool;
+	}
+
+    /**
+     * This method sets the seed of the tiles drawn, so a training run can be repeated
+     *
+     * @param seed, the seed
+     */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+    /**
+     * This method returns a table holding the static value of every leave, which the first
+     * generation starts from
+     *
+     * @return a new LeaveTable
+     */
+	public LeaveTable startingTable() {
+		LeaveTable table = new LeaveTable(distribution);
+		for (int index = 0; index < table.size(); index++) {
+			table.setValue(index, ComputerPlayer.leaveValue(table.counts(index)));
+		}
+		return table;
+	}
+
+    /**
+     * This method plays one generation of games, rating leaves with a table, and returns the
+     * table fitted to them
+     *
+     * @param table, the LeaveTable the games are played with
+     * @param games, the number of games
+     * @return a new LeaveTable
+     */
+	public synchronized LeaveTable train(LeaveTable table, int games) {
+		current = table;
+		workers = new ConcurrentHashMap<Thread, Worker>();
+		pool.invoke(new GamesTask(0, games));
+
+		long[] points = new long[table.size()];
+		int[] turns = new int[table.size()];
+		long totalPoints = 0;
+		long totalTurns = 0;
+		for (Worker worker : workers.values()) {
+			for (int index = 0; index < points.length; index++) {
+				points[index] += worker.points[index];
+				turns[index] += worker.turns[index];
+				totalPoints += worker.points[index];
+				totalTurns += worker.turns[index];
+			}
+		}
+		workers = null;
+		current = null;
+
+		double mean = totalTurns == 0 ? 0 : (double) totalPoints / totalTurns;
+		LeaveTable fitted = new LeaveTable(distribution);
+		for (int index = 0; index < points.length; index++) {
+			double gained = points[index] - turns[index] * mean;
+			fitted.setValue(index, (gained + PRIOR_WEIGHT * table.value(index))
+					/ (turns[index] + PRIOR_WEIGHT));
+		}
+		return fitted;
+	}
+
+	/**
+	 * Plays a range of games, splitting it between threads.
+	 */
+	@SuppressWarnings("serial")
+	private class GamesTask extends RecursiveAction {
+		private final int from;
+		private final int to;
+
+		GamesTask(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > GAMES_PER_TASK) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new GamesTask(from, middle), new GamesTask(middle, to));
+				return;
+			}
+			Worker worker = workers.computeIfAbsent(Thread.currentThread(),
+					thread -> new Worker());
+			for (int game = from; game < to; game++) {
+				play(game, worker);
+			}
+		}
+	}
+
+    /**
+     * This is a private helper function that plays one game of self-play and credits the
+     * points of each turn to the leave kept on the turn before
+     *
+     * @param game, the number of the game, which picks its tiles
+     * @param worker, the Worker of the thread
+     */
+	private void play(int game, Worker worker) {
+		SplittableRandom random = new SplittableRandom(seed ^ (game * 0x9E3779B97F4A7C15L));
+		BoardModel model = new BoardModel(letterValues);
+		CrossCheckTable crossChecks = new CrossCheckTable(model, words);
+		Bag bag = new Bag(distribution, random);
+		GameState state = new GameState(model, crossChecks, bag);
+		MoveJournal journal = new MoveJournal();
+		state.deal(0, journal);
+		state.deal(1, journal);
+
+		// the slot of the leave each player kept last turn, or -1 if it is not credited
+		int[] kept = { -1, -1 };
+		int passes = 0;
+		int player = 0;
+		while (passes < 2) {
+			int[] rack = state.getRack(player);
+			Move move = worker.player.chooseMove(model, crossChecks, rack);
+			if (kept[player] >= 0) {
+				worker.points[kept[player]] += move == null ? 0 : move.getScore();
+				worker.turns[kept[player]]++;
+				kept[player] = -1;
+			}
+			if (move == null) {
+				passes++;
+			} else {
+				passes = 0;
+				int left = 0;
+				for (int i = 0; i < move.getLength(); i++) {
+					if (move.isNew(i)) {
+						rack[move.getLetter(i)]--;
+					}
+				}
+				for (int code = 1; code <= Letters.COUNT; code++) {
+					left += rack[code];
+				}
+				// a leave is only credited when the rack is filled back up
+				boolean refilled = bag.size() >= Player.NUM_TILES - left;
+				state.play(player, move, journal);
+				if (refilled) {
+					kept[player] = current.index(rack);
+				} else if (bag.noMoreTiles() && left == 0) {
+					return;
+				}
+			}
+			player = 1 - player;
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+		int generations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_GENERATIONS;
+		String target = args.length > 2 ? args[2] : LeaveTable.DEFAULT_FILE;
+
+		ScrabbleRules rules = new ScrabbleRules();
+		if (rules.getDictionary() == null) {
+			throw new IOException("the word list could not be read");
+		}
+		LeaveTrainer trainer = new LeaveTrainer(rules.getDictionary().getWordGraph(),
+				rules.getTileDistribution(), rules.getLetterValues());
+		LeaveTable table = trainer.startingTable();
+		for (int generation = 1; generation <= generations; generation++) {
+			long start = System.nanoTime();
+			table = trainer.train(table, games);
+			System.out.printf("Generation %d: %d games in %.1f s%n", generation, games,
+					(System.nanoTime() - start) / 1e9);
+		}
+		table.write(target);
+		System.out.println("Wrote " + table.size() + " leaves to " + target);
+	}
+}
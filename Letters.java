@@ -0,0 +1,71 @@
+
+
+/**
+ * This class converts between the one letter Strings the game shows on its buttons and the
+ * small integer codes used by the headless models. Code 0 means no letter, and the letters A to
+ * Z are the codes 1 to 26, which is also their position in the alphabet.
+ */
+public class Letters {
+	/** The code of an empty square or rack slot. */
+	public static final int NONE = 0;
+
+	/** The number of different letters. */
+	public static final int COUNT = 26;
+
+	private static final String[] NAMES = new String[COUNT + 1];
+
+	static {
+		NAMES[NONE] = " ";
+		for (int code = 1; code <= COUNT; code++) {
+			NAMES[code] = String.valueOf((char) ('A' + code - 1));
+		}
+	}
+
+    /**
+     * This method returns the code of a letter given as a String, in either case
+     *
+     * @param letter, a String holding a single letter, or " " or "" for no letter
+     * @return an int, the letter's code, or NONE if the String is not a single letter A to Z
+     */
+	public static int encode(String letter) {
+		if (letter == null || letter.length() != 1) {
+			return NONE;
+		}
+		return encode(letter.charAt(0));
+	}
+
+    /**
+     * This method returns the code of a letter given as a char, in either case
+     *
+     * @param letter, the letter
+     * @return an int, the letter's code, or NONE if the char is not a letter A to Z
+     */
+	public static int encode(char letter) {
+		int lower = letter | 0x20;
+		if (lower < 'a' || lower > 'z') {
+			return NONE;
+		}
+		return letter & 0x1F;
+	}
+
+    /**
+     * This method returns the upper case String the game uses for a letter code. The Strings
+     * are shared, so this never allocates.
+     *
+     * @param code, the letter's code
+     * @return a String, the letter, or " " for NONE
+     */
+	public static String decode(int code) {
+		return NAMES[code];
+	}
+
+    /**
+     * This method returns the lower case char the Dictionary uses for a letter code
+     *
+     * @param code, the letter's code, which must not be NONE
+     * @return a char, the lower case letter
+     */
+	public static char toLowerChar(int code) {
+		return (char) ('a' + code - 1);
+	}
+}
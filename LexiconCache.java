@@ -0,0 +1,131 @@
+
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class keeps one copy of each word list and rules file for the whole program, so that
+ * starting a new game does not read and parse them from disk again. Entries are keyed by file
+ * path and remember the modification time and size of the file they were loaded from; a file
+ * is only loaded again once it has actually changed on disk.
+ * <p>
+ * Everything handed out by the cache is shared by every ScrabbleRules in the program, so it
+ * must never be modified. Dictionary is immutable, and other values should be wrapped in an
+ * unmodifiable view by their loader.
+ */
+public class LexiconCache {
+	private static final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+	private static final AtomicLong hits = new AtomicLong();
+	private static final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Reads a value from a file. Used by the cache the first time a file is asked for and
+	 * every time it changes.
+	 */
+	public interface Loader<T> {
+		T load(String filename) throws IOException;
+	}
+
+    /**
+     * This method returns the shared Dictionary of the words in a file
+     *
+     * @param filename, the path of the word list
+     * @return the shared Dictionary for that file
+     * @throws IOException if the file has to be read and cannot be
+     */
+	public static Dictionary getDictionary(String filename) throws IOException {
+		return get(filename, "dictionary", new Loader<Dictionary>() {
+			@Override
+			public Dictionary load(String name) throws IOException {
+				return Dictionary.make(name);
+			}
+		});
+	}
+
+    /**
+     * This method returns the shared value loaded from a file, loading it if the file has not
+     * been seen before or has changed since it was loaded.
+     *
+     * @param filename, the path of the file
+     * @param kind, a name for what the loader makes of the file, which keeps different
+     * 			readings of one file apart
+     * @param loader, how to read the value from the file
+     * @return the shared value for that file
+     * @throws IOException if the file has to be read and cannot be
+     */
+	@SuppressWarnings("unchecked")
+	public static <T> T get(String filename, String kind, Loader<T> loader) throws IOException {
+		File file = new File(filename);
+		long modified = file.lastModified();
+		long length = file.length();
+		String key = kind + ":" + file.getAbsolutePath();
+
+		Entry current = entries.get(key);
+		if (current != null && current.modified == modified && current.length == length) {
+			hits.incrementAndGet();
+			return (T) current.value;
+		}
+		try {
+			Entry loaded = entries.compute(key, (k, existing) -> {
+				if (existing != null && existing.modified == modified && existing.length == length) {
+					hits.incrementAndGet();
+					return existing;
+				}
+				misses.incrementAndGet();
+				try {
+					return new Entry(modified, length, loader.load(filename));
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			return (T) loaded.value;
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+    /**
+     * This method returns how many requests were answered from the cache
+     *
+     * @return a long, the number of cache hits
+     */
+	public static long getHits() {
+		return hits.get();
+	}
+
+    /**
+     * This method returns how many requests had to load a file
+     *
+     * @return a long, the number of cache misses
+     */
+	public static long getMisses() {
+		return misses.get();
+	}
+
+    /**
+     * This method empties the cache, so that every file is loaded again the next time it is
+     * asked for. The hit and miss counts are kept.
+     */
+	public static void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * A loaded value and the state of the file it was loaded from.
+	 */
+	private static class Entry {
+		private final long modified;
+		private final long length;
+		private final Object value;
+
+		Entry(long modified, long length, Object value) {
+			this.modified = modified;
+			this.length = length;
+			this.value = value;
+		}
+	}
+}
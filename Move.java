@@ -0,0 +1,244 @@
+
+
+import java.util.Comparator;
+
+/**
+ * This class describes one play: the word it makes along a row or column, which of the word's
+ * letters are new tiles and which were already on the board, and what it scores. The
+ * MoveGenerator fills the same Move object for every play it finds, so a caller that wants to
+ * keep a Move must copy it.
+ */
+public class Move {
+	/** The bonus for using every tile of a full rack in one play. */
+	public static final int BINGO_BONUS = 50;
+
+	/**
+	 * Orders plays from best to worst: by score, then ACROSS before DOWN, then by line, start
+	 * and length, then by the letters of the word. Two different plays never compare equal, so
+	 * sorting with this order always gives the same list.
+	 */
+	public static final Comparator<Move> BEST_FIRST = new Comparator<Move>() {
+		@Override
+		public int compare(Move a, Move b) {
+			if (a.score != b.score) {
+				return a.score > b.score ? -1 : 1;
+			}
+			if (a.direction != b.direction) {
+				return a.direction ? -1 : 1;
+			}
+			if (a.line != b.line) {
+				return a.line - b.line;
+			}
+			if (a.start != b.start) {
+				return a.start - b.start;
+			}
+			if (a.length != b.length) {
+				return a.length - b.length;
+			}
+			for (int i = 0; i < a.length; i++) {
+				if (a.letters[i] != b.letters[i]) {
+					return a.letters[i] - b.letters[i];
+				}
+			}
+			return 0;
+		}
+	};
+
+	private boolean direction;
+	private int line;
+	private int start;
+	private int length;
+	private final byte[] letters = new byte[BoardModel.SIZE];
+	private int newTiles;
+	private int numTiles;
+	private int score;
+
+    /**
+     * Constructs an empty Move.
+     */
+	public Move() {
+	}
+
+    /**
+     * Constructs a copy of another Move.
+     *
+     * @param other, the Move to copy
+     */
+	public Move(Move other) {
+		copyFrom(other);
+	}
+
+    /**
+     * This method makes this Move the same as another one
+     *
+     * @param other, the Move to copy
+     */
+	public void copyFrom(Move other) {
+		direction = other.direction;
+		line = other.line;
+		start = other.start;
+		length = other.length;
+		System.arraycopy(other.letters, 0, letters, 0, BoardModel.SIZE);
+		newTiles = other.newTiles;
+		numTiles = other.numTiles;
+		score = other.score;
+	}
+
+    /**
+     * This method starts describing a new play, forgetting the old one
+     *
+     * @param direction, BoardModel.ACROSS or BoardModel.DOWN
+     * @param line, the row or column of the word
+     * @param start, the position of the word's first letter on the line
+     */
+	void reset(boolean direction, int line, int start) {
+		this.direction = direction;
+		this.line = line;
+		this.start = start;
+		this.length = 0;
+		this.newTiles = 0;
+		this.numTiles = 0;
+		this.score = 0;
+	}
+
+    /**
+     * This method adds the next letter of the word
+     *
+     * @param code, the letter's code
+     * @param isNew, whether the letter is a tile from the rack
+     */
+	void addLetter(int code, boolean isNew) {
+		letters[length] = (byte) code;
+		if (isNew) {
+			newTiles |= 1 << length;
+			numTiles++;
+		}
+		length++;
+	}
+
+    /**
+     * This method records the score of the play
+     *
+     * @param score, the points the play is worth
+     */
+	void setScore(int score) {
+		this.score = score;
+	}
+
+    /**
+     * This method returns the direction the word is read in
+     *
+     * @return a boolean, BoardModel.ACROSS or BoardModel.DOWN
+     */
+	public boolean getDirection() {
+		return direction;
+	}
+
+    /**
+     * This method returns the row or column the word is on
+     *
+     * @return an int, the line (see BoardModel.square)
+     */
+	public int getLine() {
+		return line;
+	}
+
+    /**
+     * This method returns the position of the word's first letter on its line
+     *
+     * @return an int, the position (see BoardModel.square)
+     */
+	public int getStart() {
+		return start;
+	}
+
+    /**
+     * This method returns the number of letters in the word, old and new
+     *
+     * @return an int, the word's length
+     */
+	public int getLength() {
+		return length;
+	}
+
+    /**
+     * This method returns the square of one of the word's letters
+     *
+     * @param i, the letter's position in the word, starting at 0
+     * @return an int, the square's number
+     */
+	public int getSquare(int i) {
+		return BoardModel.square(direction, line, start + i);
+	}
+
+    /**
+     * This method returns one of the word's letters
+     *
+     * @param i, the letter's position in the word, starting at 0
+     * @return an int, the letter's code
+     */
+	public int getLetter(int i) {
+		return letters[i];
+	}
+
+    /**
+     * This method returns whether or not one of the word's letters is a new tile
+     *
+     * @param i, the letter's position in the word, starting at 0
+     * @return a boolean, whether the letter comes from the rack
+     */
+	public boolean isNew(int i) {
+		return (newTiles & (1 << i)) != 0;
+	}
+
+    /**
+     * This method returns how many tiles from the rack the play uses
+     *
+     * @return an int, the number of new tiles
+     */
+	public int getNumTiles() {
+		return numTiles;
+	}
+
+    /**
+     * This method returns the points the play is worth, including the bingo bonus
+     *
+     * @return an int, the play's score
+     */
+	public int getScore() {
+		return score;
+	}
+
+    /**
+     * This method returns the letters of the word, in upper case
+     *
+     * @return a String, the word
+     */
+	public String getWord() {
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			chars[i] = Letters.decode(letters[i]).charAt(0);
+		}
+		return new String(chars);
+	}
+
+    /**
+     * This method puts the play's new tiles on a BoardModel as pending letters
+     *
+     * @param model, the BoardModel, which must have the play's squares empty
+     */
+	public void placeOn(BoardModel model) {
+		for (int i = 0; i < length; i++) {
+			if (isNew(i)) {
+				model.setLetter(getSquare(i), letters[i]);
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		int square = getSquare(0);
+		return getWord() + " at (" + (square / BoardModel.SIZE) + ", " + (square % BoardModel.SIZE)
+				+ ") " + (direction ? "across" : "down") + " for " + score;
+	}
+}
@@ -0,0 +1,422 @@
+
+
+/**
+ * This class lists every legal play of a rack on a board, using the anchor square method of
+ * Appel and Jacobson. An anchor is an empty square next to a letter already on the board (or
+ * the center square on an empty board); every play covers at least one anchor. For each anchor
+ * the generator builds the part of the word before it from the rack (or reads it off the
+ * board), then extends the word through the anchor to the right, following only paths in the
+ * Dictionary's word graph and only trying letters the CrossCheckTable allows on each square.
+ * <p>
+ * Only finalized letters count as being on the board, like in the CrossCheckTable, so the
+ * letters a player has placed but not yet played are ignored. Plays are given to a MoveHandler
+ * one at a time in a Move object that is reused, so generating creates no objects.
+ * A MoveGenerator is not thread safe; use one per thread.
+ */
+public class MoveGenerator {
+	/** The deadline of a search that may take as long as it needs. */
+	public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+	// the number of steps of the search between looks at the clock
+	private static final int CLOCK_INTERVAL = 1024;
+
+	/**
+	 * This interface is told about each play found. The Move is reused for the next play, so
+	 * it must be copied to be kept.
+	 */
+	public interface MoveHandler {
+		void move(Move move);
+	}
+
+	private final Dawg words;
+	private final Move move = new Move();
+
+	// the position being searched
+	private BoardModel model;
+	private CrossCheckTable crossChecks;
+	private MoveHandler handler;
+	private int[] rack;
+	private int rackSize;
+	private boolean direction;
+	private int line;
+	private int anchor;
+	private boolean stopped;
+	private long deadline = NO_DEADLINE;
+	private int sinceClockCheck;
+	private final boolean[] anchors = new boolean[BoardModel.SQUARES];
+
+	// the letters of the word being built, by position on the line, and which are new tiles
+	private final int[] placed = new int[BoardModel.SIZE];
+
+    /**
+     * Constructs a MoveGenerator for a word list.
+     *
+     * @param words, the word graph of the Dictionary (see Dictionary.getWordGraph)
+     */
+	public MoveGenerator(Dawg words) {
+		this.words = words;
+	}
+
+    /**
+     * This method returns the rack of a Player as a count of each letter code
+     *
+     * @param player, the Player
+     * @return an int[], indexed by letter code, of how many of each letter the Player holds
+     */
+	public static int[] rackOf(Player player) {
+		return player.getRack().getCounts();
+	}
+
+    /**
+     * This method finds every legal play of a Player's rack on a Board
+     *
+     * @param board, the Board
+     * @param player, the Player whose letters are used
+     * @param handler, which is given each play found
+     */
+	public void generate(Board board, Player player, MoveHandler handler) {
+		generate(board.getModel(), board.getCrossChecks(), rackOf(player), handler);
+	}
+
+    /**
+     * This method finds every legal play of a rack on a BoardModel.
+     * <p>
+     * A play of a single tile that makes a word both across and down is given once, as an
+     * ACROSS play.
+     *
+     * @param model, the BoardModel
+     * @param crossChecks, the up to date CrossCheckTable of the model
+     * @param rack, how many of each letter code the player holds; it is changed during the
+     * 			search but restored before this method returns
+     * @param handler, which is given each play found
+     */
+	public void generate(BoardModel model, CrossCheckTable crossChecks, int[] rack,
+			MoveHandler handler) {
+		this.model = model;
+		this.crossChecks = crossChecks;
+		this.rack = rack;
+		this.handler = handler;
+		rackSize = 0;
+		for (int code = 1; code <= Letters.COUNT; code++) {
+			rackSize += rack[code];
+		}
+		stopped = false;
+		findAnchors();
+		generate(BoardModel.ACROSS);
+		generate(BoardModel.DOWN);
+		this.model = null;
+		this.crossChecks = null;
+		this.rack = null;
+		this.handler = null;
+	}
+
+    /**
+     * This method finds every legal play of a rack along one line in one direction. Searches of
+     * different lines are independent, so they can be shared out between threads, each with
+     * its own MoveGenerator and rack.
+     *
+     * @param model, the BoardModel
+     * @param crossChecks, the up to date CrossCheckTable of the model
+     * @param rack, how many of each letter code the player holds; it is restored before this
+     * 			method returns
+     * @param direction, BoardModel.ACROSS or BoardModel.DOWN
+     * @param line, the row or column to search
+     * @param handler, which is given each play found
+     */
+	public void generate(BoardModel model, CrossCheckTable crossChecks, int[] rack,
+			boolean direction, int line, MoveHandler handler) {
+		this.model = model;
+		this.crossChecks = crossChecks;
+		this.rack = rack;
+		this.handler = handler;
+		rackSize = 0;
+		for (int code = 1; code <= Letters.COUNT; code++) {
+			rackSize += rack[code];
+		}
+		stopped = false;
+		findAnchors();
+		generateLine(direction, line);
+		this.model = null;
+		this.crossChecks = null;
+		this.rack = null;
+		this.handler = null;
+	}
+
+    /**
+     * This method ends the search that is running, e.g. when a MoveHandler has run out of
+     * time. It must be called from the search's own thread, i.e. from the MoveHandler; no
+     * more plays are given after it returns, and generate returns soon after.
+     */
+	public void stop() {
+		stopped = true;
+	}
+
+    /**
+     * This method sets when the searches end: a search still running then stops as if stop
+     * had been called. The clock is looked at after each anchor and every CLOCK_INTERVAL
+     * steps of the search, so a search stops soon after the deadline even while it finds no
+     * plays.
+     *
+     * @param deadline, the time to stop, as given by System.nanoTime, or NO_DEADLINE
+     */
+	public void setDeadline(long deadline) {
+		this.deadline = deadline;
+	}
+
+    /**
+     * This method returns whether or not the last search was ended by stop
+     *
+     * @return a boolean, whether the search was stopped before it finished
+     */
+	public boolean isStopped() {
+		return stopped;
+	}
+
+    /**
+     * This is a private helper function that marks the anchor squares: the empty squares next
+     * to a finalized letter, or only the center square if there are none.
+     */
+	private void findAnchors() {
+		boolean any = false;
+		for (int square = 0; square < BoardModel.SQUARES; square++) {
+			anchors[square] = !model.isFinalized(square) && hasFinalizedNeighbor(square);
+			any |= anchors[square];
+		}
+		if (!any && !model.isFinalized(BoardModel.CENTER)) {
+			anchors[BoardModel.CENTER] = true;
+		}
+	}
+
+    /**
+     * This is a private helper function that returns whether or not a square is next to a
+     * finalized letter
+     *
+     * @param square, the square's number
+     * @return a boolean, whether one of the four squares around it is finalized
+     */
+	private boolean hasFinalizedNeighbor(int square) {
+		int x = square / BoardModel.SIZE;
+		int y = square % BoardModel.SIZE;
+		return (x > 0 && model.isFinalized(square - BoardModel.SIZE))
+				|| (x < BoardModel.SIZE - 1 && model.isFinalized(square + BoardModel.SIZE))
+				|| (y > 0 && model.isFinalized(square - 1))
+				|| (y < BoardModel.SIZE - 1 && model.isFinalized(square + 1));
+	}
+
+    /**
+     * This is a private helper function that searches every line in one direction
+     *
+     * @param direction, ACROSS or DOWN
+     */
+	private void generate(boolean direction) {
+		for (int line = 0; line < BoardModel.SIZE && !stopped; line++) {
+			generateLine(direction, line);
+		}
+	}
+
+    /**
+     * This is a private helper function that searches one line from each of its anchors. If the
+     * square before an anchor holds a letter, the word's start is already on the board and is
+     * read off it; otherwise the start is built from the rack, on at most as many empty squares
+     * as there are before the anchor and after the previous one.
+     *
+     * @param direction, ACROSS or DOWN
+     * @param line, the row or column
+     */
+	private void generateLine(boolean direction, int line) {
+		this.direction = direction;
+		this.line = line;
+		int previousAnchor = -1;
+		for (int position = 0; position < BoardModel.SIZE && !stopped; position++) {
+			if (!anchors[BoardModel.square(direction, line, position)]) {
+				continue;
+			}
+			anchor = position;
+			if (position > 0 && isFinalized(position - 1)) {
+				int start = position - 1;
+				while (start > 0 && isFinalized(start - 1)) {
+					start--;
+				}
+				int node = Dawg.ROOT;
+				for (int p = start; p < position && node != Dawg.NONE; p++) {
+					node = words.child(node, Letters.toLowerChar(letterAt(p)));
+				}
+				if (node != Dawg.NONE) {
+					extendRight(node, start, position);
+				}
+			} else {
+				int limit = Math.min(position - previousAnchor - 1, rackSize - 1);
+				leftPart(Dawg.ROOT, 0, limit);
+			}
+			previousAnchor = position;
+			checkClock();
+		}
+	}
+
+    /**
+     * This is a private helper function that builds every start of a word from the rack on the
+     * empty squares before the anchor, extending each one through the anchor.
+     *
+     * @param node, the node of the word graph reached by the start built so far
+     * @param length, the number of letters in the start so far
+     * @param limit, how many more letters the start may have
+     */
+	private void leftPart(int node, int length, int limit) {
+		extendRight(node, anchor - length, anchor);
+		if (limit == 0 || stopped) {
+			return;
+		}
+		for (int edge = words.edgeStart(node); edge < words.edgeEnd(node); edge++) {
+			int code = Letters.encode(words.edgeLabel(edge));
+			if (rack[code] == 0) {
+				continue;
+			}
+			rack[code]--;
+			// the start is shifted one square back to make room for the new letter
+			for (int i = anchor - length - 1; i < anchor - 1; i++) {
+				placed[i] = placed[i + 1];
+			}
+			placed[anchor - 1] = code;
+			leftPart(words.edgeTarget(edge), length + 1, limit - 1);
+			for (int i = anchor - 1; i > anchor - length - 1; i--) {
+				placed[i] = placed[i - 1];
+			}
+			rack[code]++;
+		}
+	}
+
+    /**
+     * This is a private helper function that extends a word to the right, from the anchor on.
+     * Letters on the board are followed; on empty squares each rack letter that the word graph
+     * and the square's cross-check allow is tried. A word is recorded whenever it ends before an
+     * empty square or the edge, once the anchor is covered.
+     *
+     * @param node, the node of the word graph reached by the letters so far
+     * @param start, the position of the word's first letter
+     * @param position, the position of the next letter
+     */
+	private void extendRight(int node, int start, int position) {
+		if (++sinceClockCheck == CLOCK_INTERVAL) {
+			sinceClockCheck = 0;
+			checkClock();
+		}
+		if (stopped) {
+			return;
+		}
+		if (position == BoardModel.SIZE || !isFinalized(position)) {
+			if (position > anchor && words.isTerminal(node)) {
+				record(start, position);
+			}
+			if (position == BoardModel.SIZE) {
+				return;
+			}
+			int square = BoardModel.square(direction, line, position);
+			int allowed = crossChecks.getCrossCheck(square, direction);
+			for (int edge = words.edgeStart(node); edge < words.edgeEnd(node); edge++) {
+				int code = Letters.encode(words.edgeLabel(edge));
+				if (rack[code] == 0 || (allowed & (1 << (code - 1))) == 0) {
+					continue;
+				}
+				rack[code]--;
+				placed[position] = code;
+				extendRight(words.edgeTarget(edge), start, position + 1);
+				rack[code]++;
+			}
+		} else {
+			int next = words.child(node, Letters.toLowerChar(letterAt(position)));
+			if (next != Dawg.NONE) {
+				extendRight(next, start, position + 1);
+			}
+		}
+	}
+
+    /**
+     * This is a private helper function that stops the search if the deadline has passed
+     */
+	private void checkClock() {
+		if (deadline != NO_DEADLINE && System.nanoTime() - deadline > 0) {
+			stopped = true;
+		}
+	}
+
+    /**
+     * This is a private helper function that fills the Move for the word [start, end), scores
+     * it and gives it to the handler.
+     *
+     * @param start, the position of the word's first letter
+     * @param end, the position after the word's last letter
+     */
+	private void record(int start, int end) {
+		if (end - start < 2) {
+			return;
+		}
+		move.reset(direction, line, start);
+		int wordScore = 0;
+		int wordMultiplier = 1;
+		int crossTotal = 0;
+		for (int position = start; position < end; position++) {
+			int square = BoardModel.square(direction, line, position);
+			if (isFinalized(position)) {
+				int code = letterAt(position);
+				move.addLetter(code, false);
+				wordScore += model.getLetterValue(code);
+				continue;
+			}
+			int code = placed[position];
+			move.addLetter(code, true);
+			int value = model.getLetterValue(code) * model.getLetterMultiplier(square);
+			int multiplier = model.getWordMultiplier(square);
+			wordScore += value;
+			wordMultiplier *= multiplier;
+			if (crossChecks.hasCrossWord(square, direction)) {
+				crossTotal += (crossChecks.getCrossScore(square, direction) + value) * multiplier;
+			}
+		}
+		if (move.getNumTiles() == 1 && direction == BoardModel.DOWN
+				&& crossChecks.hasCrossWord(move.getSquare(firstNew()), BoardModel.DOWN)) {
+			// the same tile makes a word across too, and was given as an ACROSS play
+			return;
+		}
+		int score = wordScore * wordMultiplier + crossTotal;
+		if (move.getNumTiles() == Player.NUM_TILES) {
+			score += Move.BINGO_BONUS;
+		}
+		move.setScore(score);
+		handler.move(move);
+	}
+
+    /**
+     * This is a private helper function that returns where the first new tile of the Move is
+     *
+     * @return an int, the position in the word of the first new tile
+     */
+	private int firstNew() {
+		int i = 0;
+		while (!move.isNew(i)) {
+			i++;
+		}
+		return i;
+	}
+
+    /**
+     * This is a private helper function that returns whether or not a position on the current
+     * line holds a finalized letter
+     *
+     * @param position, the position on the line
+     * @return a boolean, whether the square is finalized
+     */
+	private boolean isFinalized(int position) {
+		return model.isFinalized(BoardModel.square(direction, line, position));
+	}
+
+    /**
+     * This is a private helper function that returns the letter on a position of the current
+     * line
+     *
+     * @param position, the position on the line
+     * @return an int, the letter code
+     */
+	private int letterAt(int position) {
+		return model.getLetter(BoardModel.square(direction, line, position));
+	}
+}
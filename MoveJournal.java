@@ -0,0 +1,280 @@
+
+
+import java.util.Arrays;
+
+/**
+ * This class records every change a turn makes to a game, so that turns can be taken back and
+ * made again without copying the board: each letter placed, each rack slot changed, each tile
+ * drawn from or returned to the bag, and each score change. Taking back or making again a turn
+ * costs only as much as the number of changes it made.
+ * <p>
+ * The journal only records; the caller makes the changes itself and then records them. Undo
+ * and redo make the changes through a Target, so the same journal works for a headless
+ * GameState in a search and for the Swing game, whose Target also redraws the Tiles and
+ * racks. Recording a new turn after an undo throws away the turns that could have been redone.
+ */
+public class MoveJournal {
+	/**
+	 * The game a journal changes when it takes back or makes again a turn.
+	 */
+	public interface Target {
+	    /**
+	     * This method puts a finalized letter on a square, or empties it
+	     *
+	     * @param square, the square's number
+	     * @param code, the letter code, or Letters.NONE to empty the square
+	     */
+		void setSquare(int square, int code);
+
+	    /**
+	     * This method puts a letter in one slot of a player's rack, or empties the slot
+	     *
+	     * @param player, 0 for the first player, 1 for the second
+	     * @param slot, the slot, from 0 to Player.NUM_TILES - 1
+	     * @param code, the letter code, or Letters.NONE for an empty slot
+	     */
+		void setRackSlot(int player, int slot, int code);
+
+	    /**
+	     * This method takes a given letter out of the bag
+	     *
+	     * @param code, the letter code
+	     */
+		void takeFromBag(int code);
+
+	    /**
+	     * This method puts a letter back in the bag
+	     *
+	     * @param code, the letter code
+	     */
+		void returnToBag(int code);
+
+	    /**
+	     * This method adds points to a player's score, or takes them away
+	     *
+	     * @param player, 0 for the first player, 1 for the second
+	     * @param points, the points to add, which may be negative
+	     */
+		void addPoints(int player, int points);
+	}
+
+	// the kinds of change, the first int of each entry
+	private static final int PLACE = 0;
+	private static final int RACK = 1;
+	private static final int DRAW = 2;
+	private static final int RETURN = 3;
+	private static final int SCORE = 4;
+	private static final int ENTRY_SIZE = 4;
+
+	// the entries, ENTRY_SIZE ints each: kind, then up to three arguments
+	private int[] entries = new int[64 * ENTRY_SIZE];
+	private int numEntries;
+	private int redoEntries;
+
+	// where each turn's entries start, and whose turn it was
+	private int[] turnStarts = new int[16];
+	private int[] turnPlayers = new int[16];
+	private int numTurns;
+	private int redoTurns;
+
+    /**
+     * This method starts recording a new turn
+     *
+     * @param player, 0 for the first player, 1 for the second
+     */
+	public void beginTurn(int player) {
+		if (numTurns == turnStarts.length) {
+			turnStarts = Arrays.copyOf(turnStarts, 2 * numTurns);
+			turnPlayers = Arrays.copyOf(turnPlayers, 2 * numTurns);
+		}
+		turnStarts[numTurns] = numEntries;
+		turnPlayers[numTurns] = player;
+		numTurns++;
+		redoTurns = numTurns;
+		redoEntries = numEntries;
+	}
+
+    /**
+     * This method records that a letter was placed and finalized on an empty square
+     *
+     * @param square, the square's number
+     * @param code, the letter code
+     */
+	public void recordPlace(int square, int code) {
+		add(PLACE, square, code, 0);
+	}
+
+    /**
+     * This method records that one slot of a player's rack changed
+     *
+     * @param player, 0 for the first player, 1 for the second
+     * @param slot, the slot
+     * @param oldCode, the letter code the slot held before, or Letters.NONE
+     * @param newCode, the letter code the slot holds now, or Letters.NONE
+     */
+	public void recordRack(int player, int slot, int oldCode, int newCode) {
+		add(RACK, player * Player.NUM_TILES + slot, oldCode, newCode);
+	}
+
+    /**
+     * This method records that a letter was drawn from the bag
+     *
+     * @param code, the letter code
+     */
+	public void recordDraw(int code) {
+		add(DRAW, code, 0, 0);
+	}
+
+    /**
+     * This method records that a letter was put back in the bag
+     *
+     * @param code, the letter code
+     */
+	public void recordReturn(int code) {
+		add(RETURN, code, 0, 0);
+	}
+
+    /**
+     * This method records that points were added to a player's score
+     *
+     * @param player, 0 for the first player, 1 for the second
+     * @param points, the points added, which may be negative
+     */
+	public void recordScore(int player, int points) {
+		add(SCORE, player, points, 0);
+	}
+
+    /**
+     * This method returns the number of turns recorded, including the one being recorded
+     *
+     * @return an int, the number of turns that can be taken back
+     */
+	public int getNumTurns() {
+		return numTurns;
+	}
+
+    /**
+     * This method returns whether or not the turn being recorded has made no changes yet
+     *
+     * @return a boolean, whether the last turn is empty, or true if there is no turn
+     */
+	public boolean isTurnEmpty() {
+		return numTurns == 0 || turnStarts[numTurns - 1] == numEntries;
+	}
+
+    /**
+     * This method returns whether or not there is a turn to take back
+     *
+     * @return a boolean, whether undo can be called
+     */
+	public boolean canUndo() {
+		return numTurns > 0;
+	}
+
+    /**
+     * This method returns whether or not there is a taken back turn to make again
+     *
+     * @return a boolean, whether redo can be called
+     */
+	public boolean canRedo() {
+		return redoTurns > numTurns;
+	}
+
+    /**
+     * This method takes back the last turn, undoing its changes in the opposite order
+     *
+     * @param target, the game to change
+     * @return an int, the player whose turn was taken back
+     * @throws IllegalStateException if there is no turn
+     */
+	public int undo(Target target) {
+		if (!canUndo()) {
+			throw new IllegalStateException("no turn to undo");
+		}
+		numTurns--;
+		int start = turnStarts[numTurns];
+		for (int e = numEntries - ENTRY_SIZE; e >= start; e -= ENTRY_SIZE) {
+			int a = entries[e + 1];
+			int b = entries[e + 2];
+			switch (entries[e]) {
+			case PLACE:
+				target.setSquare(a, Letters.NONE);
+				break;
+			case RACK:
+				target.setRackSlot(a / Player.NUM_TILES, a % Player.NUM_TILES, b);
+				break;
+			case DRAW:
+				target.returnToBag(a);
+				break;
+			case RETURN:
+				target.takeFromBag(a);
+				break;
+			default:
+				target.addPoints(a, -b);
+			}
+		}
+		numEntries = start;
+		return turnPlayers[numTurns];
+	}
+
+    /**
+     * This method makes again the last turn taken back, redoing its changes in order
+     *
+     * @param target, the game to change
+     * @return an int, the player whose turn was made again
+     * @throws IllegalStateException if there is no turn to redo
+     */
+	public int redo(Target target) {
+		if (!canRedo()) {
+			throw new IllegalStateException("no turn to redo");
+		}
+		int end = numTurns + 1 < redoTurns ? turnStarts[numTurns + 1] : redoEntries;
+		for (int e = numEntries; e < end; e += ENTRY_SIZE) {
+			int a = entries[e + 1];
+			int b = entries[e + 2];
+			switch (entries[e]) {
+			case PLACE:
+				target.setSquare(a, b);
+				break;
+			case RACK:
+				target.setRackSlot(a / Player.NUM_TILES, a % Player.NUM_TILES, entries[e + 3]);
+				break;
+			case DRAW:
+				target.takeFromBag(a);
+				break;
+			case RETURN:
+				target.returnToBag(a);
+				break;
+			default:
+				target.addPoints(a, b);
+			}
+		}
+		numEntries = end;
+		return turnPlayers[numTurns++];
+	}
+
+    /**
+     * This is a private helper function that adds an entry to the turn being recorded, and
+     * throws away the turns that could have been redone
+     *
+     * @param kind, the kind of change
+     * @param a, the first argument
+     * @param b, the second argument
+     * @param c, the third argument
+     */
+	private void add(int kind, int a, int b, int c) {
+		if (numTurns == 0) {
+			throw new IllegalStateException("beginTurn has not been called");
+		}
+		if (numEntries == entries.length) {
+			entries = Arrays.copyOf(entries, 2 * entries.length);
+		}
+		entries[numEntries] = kind;
+		entries[numEntries + 1] = a;
+		entries[numEntries + 2] = b;
+		entries[numEntries + 3] = c;
+		numEntries += ENTRY_SIZE;
+		redoTurns = numTurns;
+		redoEntries = numEntries;
+	}
+}
@@ -0,0 +1,163 @@
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * This class checks that a MoveJournal takes turns back and makes them again exactly. Seeded
+ * games on a GameState mix random legal plays with random undos and redos. A snapshot of the
+ * whole state is taken each time a turn is played: every square's letter and finalized flag,
+ * the board's and the game's Zobrist keys, both racks slot by slot, both scores, the Bag and
+ * every cross-check and cross score. Each undo or redo must then give back exactly the snapshot
+ * of the state it returns to, and each game ends by undoing every turn back to the deal. After
+ * every turn, undo and redo the key GameState keeps must also equal the key worked out from
+ * scratch.
+ * <p>
+ * Usage: java MoveJournalCheck [games] [seed]
+ */
+public class MoveJournalCheck {
+	private static final int DEFAULT_GAMES = 200;
+
+	// the number of random steps in each game
+	private static final int STEPS = 60;
+
+	public static void main(String[] args) throws IOException {
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : 0;
+
+		ScrabbleRules rules = new ScrabbleRules();
+		if (rules.getDictionary() == null) {
+			throw new IOException("the word list could not be read");
+		}
+		Dawg words = rules.getDictionary().getWordGraph();
+		MoveGenerator generator = new MoveGenerator(words);
+		int checks = 0;
+		int mismatches = 0;
+		long undoNanos = 0;
+		int undos = 0;
+		for (int game = 0; game < games; game++) {
+			SplittableRandom random = new SplittableRandom(seed + game);
+			BoardModel model = new BoardModel(rules.getLetterValues());
+			GameState state = new GameState(model, new CrossCheckTable(model, words),
+					new Bag(rules.getTileDistribution(), random.split()));
+			MoveJournal journal = new MoveJournal();
+			state.deal(0, journal);
+			state.deal(1, journal);
+
+			// snapshots.get(k) is the state after k turns past the deal
+			List<String> snapshots = new ArrayList<String>();
+			snapshots.add(snapshot(state));
+			int turns = 0;
+			int player = 0;
+			for (int step = 0; step < STEPS; step++) {
+				int action = random.nextInt(10);
+				if (action < 6) {
+					final List<Move> moves = new ArrayList<Move>();
+					generator.generate(model, state.getCrossChecks(), state.getRack(player),
+							new MoveGenerator.MoveHandler() {
+						@Override
+						public void move(Move move) {
+							moves.add(new Move(move));
+						}
+					});
+					if (moves.isEmpty()) {
+						player = 1 - player;
+						continue;
+					}
+					state.play(player, moves.get(random.nextInt(moves.size())), journal);
+					while (snapshots.size() > turns + 1) {
+						snapshots.remove(snapshots.size() - 1);
+					}
+					snapshots.add(snapshot(state));
+					if (!keyIsRight(state)) {
+						mismatches++;
+					}
+					turns++;
+					player = 1 - player;
+				} else if (action < 8 && turns > 0) {
+					long start = System.nanoTime();
+					player = journal.undo(state);
+					undoNanos += System.nanoTime() - start;
+					undos++;
+					turns--;
+					checks++;
+					if (!snapshot(state).equals(snapshots.get(turns)) || !keyIsRight(state)) {
+						mismatches++;
+					}
+				} else if (journal.canRedo()) {
+					player = 1 - journal.redo(state);
+					turns++;
+					checks++;
+					if (!snapshot(state).equals(snapshots.get(turns)) || !keyIsRight(state)) {
+						mismatches++;
+					}
+				}
+			}
+			while (turns > 0) {
+				journal.undo(state);
+				turns--;
+				checks++;
+				if (!snapshot(state).equals(snapshots.get(turns)) || !keyIsRight(state)) {
+					mismatches++;
+				}
+			}
+			if (!state.getCrossChecks().verify()) {
+				mismatches++;
+			}
+		}
+		System.out.printf("%d games, %d states compared, %d mismatches, mean undo %.1f us%n",
+				games, checks, mismatches, undoNanos / 1000.0 / Math.max(1, undos));
+	}
+
+    /**
+     * This is a private helper function that writes down everything in a GameState that a
+     * turn can change
+     *
+     * @param state, the GameState
+     * @return a String, equal for two states only if they are the same
+     */
+	private static String snapshot(GameState state) {
+		StringBuilder text = new StringBuilder();
+		BoardModel model = state.getModel();
+		CrossCheckTable crossChecks = state.getCrossChecks();
+		for (int square = 0; square < BoardModel.SQUARES; square++) {
+			text.append(model.getLetter(square)).append(model.isFinalized(square) ? '!' : '.');
+			text.append(crossChecks.getCrossCheck(square, BoardModel.ACROSS)).append(',');
+			text.append(crossChecks.getCrossCheck(square, BoardModel.DOWN)).append(',');
+			text.append(crossChecks.getCrossScore(square, BoardModel.ACROSS)).append(',');
+			text.append(crossChecks.getCrossScore(square, BoardModel.DOWN)).append(';');
+		}
+		text.append(model.getKey()).append(',').append(state.getKey(0)).append('|');
+		for (int player = 0; player < 2; player++) {
+			for (int slot = 0; slot < Player.NUM_TILES; slot++) {
+				text.append(state.getRackSlot(player, slot)).append(',');
+			}
+			text.append(state.getScore(player)).append('|');
+		}
+		for (int code = 1; code <= Letters.COUNT; code++) {
+			text.append(state.getBag().getCount(code)).append(',');
+		}
+		return text.append(state.getBag().size()).toString();
+	}
+
+    /**
+     * This is a private helper function that returns whether or not the key a GameState keeps
+     * is the key of its board and its racks slot by slot
+     *
+     * @param state, the GameState
+     * @return a boolean, whether GameState.getKey equals the key worked out from scratch
+     */
+	private static boolean keyIsRight(GameState state) {
+		long key = Zobrist.boardKey(state.getModel());
+		for (int player = 0; player < 2; player++) {
+			int[] counts = new int[Letters.COUNT + 1];
+			for (int slot = 0; slot < Player.NUM_TILES; slot++) {
+				counts[state.getRackSlot(player, slot)]++;
+			}
+			key ^= Zobrist.rackKey(player, counts);
+		}
+		return state.getKey(0) == key && state.getKey(1) == (key ^ Zobrist.SIDE);
+	}
+}
@@ -0,0 +1,119 @@
+
+
+/**
+ * This class checks the words formed by the letters placed during the current turn. Instead of
+ * reading every row and column of the Board, it starts from the pending letters: the main word
+ * is the run of letters through them along the line they were placed in, and each pending
+ * letter may also form a cross word in the other direction. Words that were finalized in
+ * earlier turns have already been checked and are never looked at again, so the work depends on
+ * how many letters were placed, not on how full the Board is.
+ */
+public class MoveValidator {
+
+    /**
+     * This method checks every word formed by the pending letters of a BoardModel.
+     * <p>
+     * If the pending letters share a row, the main direction is ACROSS; if they share a column
+     * it is DOWN. A single letter is checked in both directions. Letters that are not in one
+     * line are each checked in both directions too, but BoardModel.allMovesInLine should
+     * normally reject such a turn first.
+     *
+     * @param model, the BoardModel holding the turn's pending letters
+     * @param dictionary, the Dictionary of legal words
+     * @return a ValidationReport of every word formed and whether it is legal
+     */
+	public static ValidationReport validate(BoardModel model, Dictionary dictionary) {
+		ValidationReport report = new ValidationReport();
+		int count = model.getNumPending();
+		int[] squares = new int[count];
+		for (int i = 0; i < count; i++) {
+			squares[i] = model.getPending(i);
+		}
+
+		boolean sameRow = true;
+		boolean sameColumn = true;
+		for (int i = 1; i < count; i++) {
+			sameRow &= BoardModel.lineOf(squares[i], BoardModel.ACROSS)
+					== BoardModel.lineOf(squares[0], BoardModel.ACROSS);
+			sameColumn &= BoardModel.lineOf(squares[i], BoardModel.DOWN)
+					== BoardModel.lineOf(squares[0], BoardModel.DOWN);
+		}
+		boolean main = (count > 1 && sameColumn && !sameRow) ? BoardModel.DOWN : BoardModel.ACROSS;
+		sortByPosition(squares, main);
+
+		char[] buffer = new char[BoardModel.SIZE];
+		// the main word(s): each run of letters along the main line is checked on its own, so a
+		// turn with a gap passes as long as every run is a word, as it always has
+		int lastRunStart = -1;
+		int lastRunLine = -1;
+		for (int square : squares) {
+			int line = BoardModel.lineOf(square, main);
+			int start = model.runStart(square, main);
+			if (start != lastRunStart || line != lastRunLine) {
+				checkRun(model, dictionary, main, line, start, model.runEnd(square, main), buffer,
+						report);
+				lastRunStart = start;
+				lastRunLine = line;
+			}
+		}
+		// the cross words, one per pending letter
+		for (int square : squares) {
+			int line = BoardModel.lineOf(square, !main);
+			checkRun(model, dictionary, !main, line, model.runStart(square, !main),
+					model.runEnd(square, !main), buffer, report);
+			if (!model.hasNeighbor(square)) {
+				report.setIsolatedTile();
+			}
+		}
+		return report;
+	}
+
+    /**
+     * This is a private helper function that looks up the run of letters [start, end) on a
+     * line and adds it to the report, if it is long enough to be a word.
+     *
+     * @param model, the BoardModel
+     * @param dictionary, the Dictionary of legal words
+     * @param direction, ACROSS or DOWN
+     * @param line, the line of the run
+     * @param start, the position of the first letter
+     * @param end, the position after the last letter
+     * @param buffer, space for the letters of the run
+     * @param report, where the word is recorded
+     */
+	private static void checkRun(BoardModel model, Dictionary dictionary, boolean direction,
+			int line, int start, int end, char[] buffer, ValidationReport report) {
+		if (end - start < 2) {
+			return;
+		}
+		for (int position = start; position < end; position++) {
+			int code = model.getLetter(BoardModel.square(direction, line, position));
+			buffer[position - start] = Letters.decode(code).charAt(0);
+		}
+		String word = new String(buffer, 0, end - start);
+		report.addWord(word, BoardModel.square(direction, line, start), direction,
+				dictionary.isWord(word));
+	}
+
+    /**
+     * This is a private helper function that sorts a handful of squares into reading order
+     * along a direction, with an insertion sort.
+     *
+     * @param squares, the squares to sort
+     * @param direction, ACROSS or DOWN
+     */
+	private static void sortByPosition(int[] squares, boolean direction) {
+		for (int i = 1; i < squares.length; i++) {
+			int square = squares[i];
+			int key = BoardModel.lineOf(square, direction) * BoardModel.SIZE
+					+ BoardModel.positionOf(square, direction);
+			int j = i - 1;
+			while (j >= 0 && BoardModel.lineOf(squares[j], direction) * BoardModel.SIZE
+					+ BoardModel.positionOf(squares[j], direction) > key) {
+				squares[j + 1] = squares[j];
+				j--;
+			}
+			squares[j + 1] = square;
+		}
+	}
+}
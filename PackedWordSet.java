@@ -0,0 +1,138 @@
+
+
+/**
+ * This class is a set of words tuned for membership checks. A word of up to MAX_PACKED_LETTERS
+ * plain letters a-z is packed into a single long, five bits per letter, and stored in an
+ * open-addressing hash table of longs. Checking a word packs it on the fly, folding upper case
+ * into lower case with a bit mask, so a lookup neither calls toLowerCase() nor allocates.
+ * <p>
+ * A long only has room for twelve five-bit letters, so longer words, and words with apostrophes
+ * or letters outside a-z, are kept in a small overflow Dawg, which also checks words without
+ * allocating.
+ */
+public class PackedWordSet {
+	/** The longest word that is packed into a long; anything longer goes to the overflow. */
+	public static final int MAX_PACKED_LETTERS = 12;
+
+	private static final long EMPTY = 0L;
+	private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+	private final long[] table;
+	private final int mask;
+	private final int shift;
+	private final int numPacked;
+	private final Dawg overflow;
+
+    /**
+     * Constructs a PackedWordSet holding every word of a Dawg
+     *
+     * @param words, the Dawg of lower case words to store
+     */
+	public PackedWordSet(Dawg words) {
+		int packable = 0;
+		for (String word : words) {
+			if (pack(word) != EMPTY) {
+				packable++;
+			}
+		}
+		// keep the table at most half full so that probe sequences stay short
+		int capacity = Integer.highestOneBit(Math.max(packable, 1) * 2 - 1) << 1;
+		table = new long[capacity];
+		mask = capacity - 1;
+		shift = 64 - Integer.numberOfTrailingZeros(capacity);
+
+		DawgBuilder rest = new DawgBuilder();
+		int count = 0;
+		for (String word : words) {
+			long key = pack(word);
+			if (key == EMPTY) {
+				rest.add(word);
+			} else {
+				int slot = slot(key);
+				while (table[slot] != EMPTY) {
+					slot = (slot + 1) & mask;
+				}
+				table[slot] = key;
+				count++;
+			}
+		}
+		numPacked = count;
+		overflow = rest.build();
+	}
+
+    /**
+     * This method packs a word into a long, five bits per letter with the first letter in the
+     * lowest bits. Upper and lower case letters pack to the same value.
+     *
+     * @param word, the word to pack
+     * @return a long, the packed word, or 0 if the word is empty, too long or has a character
+     * 			outside A-Z and a-z
+     */
+	public static long pack(CharSequence word) {
+		int length = word.length();
+		if (length == 0 || length > MAX_PACKED_LETTERS) {
+			return EMPTY;
+		}
+		long key = 0;
+		for (int i = 0; i < length; i++) {
+			char c = word.charAt(i);
+			int lower = c | 0x20;
+			if (lower < 'a' || lower > 'z') {
+				return EMPTY;
+			}
+			key |= ((long) (c & 0x1F)) << (5 * i);
+		}
+		return key;
+	}
+
+    /**
+     * This method returns whether or not the set contains a word, ignoring case
+     *
+     * @param word, the word to look for
+     * @return a boolean, whether or not the word is in the set
+     */
+	public boolean contains(CharSequence word) {
+		long key = pack(word);
+		if (key == EMPTY) {
+			return word.length() > 0 && overflow.contains(word);
+		}
+		int slot = slot(key);
+		long stored;
+		while ((stored = table[slot]) != EMPTY) {
+			if (stored == key) {
+				return true;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return false;
+	}
+
+    /**
+     * This method returns the number of words in the set
+     *
+     * @return an int, the number of words
+     */
+	public int size() {
+		return numPacked + overflow.size();
+	}
+
+    /**
+     * This method returns the number of words kept in the overflow instead of the table
+     *
+     * @return an int, the number of overflow words
+     */
+	public int getNumOverflow() {
+		return overflow.size();
+	}
+
+    /**
+     * This is a private helper function that spreads a packed word over the table with a
+     * multiplicative hash.
+     *
+     * @param key, the packed word
+     * @return an int, the first slot to probe
+     */
+	private int slot(long key) {
+		return (int) ((key * GOLDEN) >>> shift);
+	}
+}
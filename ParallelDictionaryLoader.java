@@ -0,0 +1,192 @@
+
+
+import java.io.CharArrayReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class loads a Dictionary from a text file using every core. The file is read into
+ * memory and split into chunks at line boundaries. Each chunk is tokenized, lower cased and
+ * sorted by its own task on a ForkJoinPool, and the sorted chunks are then merged into a single
+ * DawgBuilder in order.
+ * <p>
+ * Chunks always start right after a line break, so a word is never cut in half and each chunk's
+ * TokenScanner finds exactly the words a single scanner over the whole file would find. The
+ * resulting Dictionary holds the same words as Dictionary.makeFromText.
+ */
+public class ParallelDictionaryLoader {
+	// chunks per worker thread, so that a slow chunk does not leave the other workers idle
+	private static final int CHUNKS_PER_THREAD = 4;
+	private static final int MIN_CHUNK_CHARS = 1 << 16;
+
+    /**
+     * This method loads a Dictionary from a text file on the common ForkJoinPool
+     *
+     * @param filename, the location of the file from which to read words
+     * @return a Dictionary with the words from the file
+     * @throws IOException if the file cannot be read
+     */
+	public static Dictionary load(String filename) throws IOException {
+		return load(filename, ForkJoinPool.commonPool());
+	}
+
+    /**
+     * This method loads a Dictionary from a text file on the given pool
+     *
+     * @param filename, the location of the file from which to read words
+     * @param pool, the pool that tokenizes the chunks
+     * @return a Dictionary with the words from the file
+     * @throws IOException if the file cannot be read
+     */
+	public static Dictionary load(String filename, ForkJoinPool pool) throws IOException {
+		char[] text = readAll(filename);
+		int[] bounds = splitAtLines(text, pool.getParallelism() * CHUNKS_PER_THREAD);
+
+		List<ChunkTask> tasks = new ArrayList<ChunkTask>();
+		for (int i = 0; i + 1 < bounds.length; i++) {
+			tasks.add(new ChunkTask(text, bounds[i], bounds[i + 1]));
+		}
+		for (ChunkTask task : tasks) {
+			pool.execute(task);
+		}
+
+		// merge the sorted chunks; the builder drops words that appear in more than one chunk
+		DawgBuilder builder = new DawgBuilder();
+		PriorityQueue<Cursor> queue = new PriorityQueue<Cursor>();
+		for (ChunkTask task : tasks) {
+			String[] words = task.join();
+			if (words.length > 0) {
+				queue.add(new Cursor(words));
+			}
+		}
+		while (!queue.isEmpty()) {
+			Cursor cursor = queue.poll();
+			builder.add(cursor.current());
+			if (cursor.advance()) {
+				queue.add(cursor);
+			}
+		}
+		return new Dictionary(builder.build());
+	}
+
+    /**
+     * This is a private helper function that reads a whole file into memory
+     *
+     * @param filename, the file to read
+     * @return a char[] holding exactly the characters of the file
+     * @throws IOException if the file cannot be read
+     */
+	private static char[] readAll(String filename) throws IOException {
+		Reader in = new FileReader(filename);
+		try {
+			char[] text = new char[1 << 20];
+			int length = 0;
+			int n;
+			while ((n = in.read(text, length, text.length - length)) != -1) {
+				length += n;
+				if (length == text.length) {
+					text = Arrays.copyOf(text, text.length * 2);
+				}
+			}
+			return Arrays.copyOf(text, length);
+		} finally {
+			in.close();
+		}
+	}
+
+    /**
+     * This is a private helper function that chooses where the chunks start and end. Every
+     * boundary except the first and last is moved forward to just after a line break.
+     *
+     * @param text, the characters of the file
+     * @param chunks, the number of chunks wanted
+     * @return an int[] of chunk boundaries, starting with 0 and ending with text.length
+     */
+	private static int[] splitAtLines(char[] text, int chunks) {
+		int chunkSize = Math.max(MIN_CHUNK_CHARS, text.length / Math.max(chunks, 1) + 1);
+		List<Integer> bounds = new ArrayList<Integer>();
+		bounds.add(0);
+		int start = 0;
+		while (start < text.length) {
+			int end = Math.min(text.length, start + chunkSize);
+			while (end < text.length && text[end - 1] != '\n' && text[end - 1] != '\r') {
+				end++;
+			}
+			bounds.add(end);
+			start = end;
+		}
+		int[] result = new int[bounds.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = bounds.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Tokenizes one chunk of the file and returns its lower case words, sorted.
+	 */
+	@SuppressWarnings("serial")
+	private static class ChunkTask extends RecursiveTask<String[]> {
+		private final char[] text;
+		private final int start;
+		private final int end;
+
+		ChunkTask(char[] text, int start, int end) {
+			this.text = text;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected String[] compute() {
+			final List<String> words = new ArrayList<String>();
+			try {
+				TokenScanner ts = new TokenScanner(new CharArrayReader(text, start, end - start));
+				ts.forEachWord(Dictionary.lowerCasing(new TokenScanner.WordHandler() {
+					@Override
+					public void word(char[] chars, int offset, int length) {
+						words.add(new String(chars, offset, length));
+					}
+				}));
+			} catch (IOException e) {
+				// a CharArrayReader never fails
+			}
+			Collections.sort(words);
+			return words.toArray(new String[words.size()]);
+		}
+	}
+
+	/**
+	 * A position in one sorted chunk, ordered by the word it is on.
+	 */
+	private static class Cursor implements Comparable<Cursor> {
+		private final String[] words;
+		private int index = 0;
+
+		Cursor(String[] words) {
+			this.words = words;
+		}
+
+		String current() {
+			return words[index];
+		}
+
+		boolean advance() {
+			index++;
+			return index < words.length;
+		}
+
+		@Override
+		public int compareTo(Cursor other) {
+			return current().compareTo(other.current());
+		}
+	}
+}
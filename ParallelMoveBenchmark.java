@@ -0,0 +1,151 @@
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class checks and times ParallelMoveGenerator. Seeded self-play games, in which each
+ * player makes its best play, give a set of real positions. On every position the best plays
+ * found on pools of 1 to N threads are compared with the best plays of a single MoveGenerator,
+ * play by play, and must be the same. Then each pool is timed on all the positions, after an
+ * untimed sweep to warm up, and the time per position and the speed-up over one thread are
+ * printed. The speed-up can only be as large as the number of cores the machine has.
+ * <p>
+ * Usage: java ParallelMoveBenchmark [maxThreads] [games] [seed]
+ */
+public class ParallelMoveBenchmark {
+	private static final int DEFAULT_GAMES = 4;
+
+	// the number of best plays asked for
+	private static final int COUNT = 20;
+
+	// the number of timed passes over the positions; the fastest is reported
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) throws IOException {
+		int maxThreads = args.length > 0 ? Integer.parseInt(args[0])
+				: Math.max(4, Runtime.getRuntime().availableProcessors());
+		int games = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_GAMES;
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : 0;
+
+		ScrabbleRules rules = new ScrabbleRules();
+		if (rules.getDictionary() == null) {
+			throw new IOException("the word list could not be read");
+		}
+		Dawg words = rules.getDictionary().getWordGraph();
+		MoveGenerator generator = new MoveGenerator(words);
+
+		// the positions, and the best plays of the single generator on each
+		List<BoardModel> models = new ArrayList<BoardModel>();
+		List<CrossCheckTable> tables = new ArrayList<CrossCheckTable>();
+		List<int[]> racks = new ArrayList<int[]>();
+		List<List<Move>> expected = new ArrayList<List<Move>>();
+		for (int game = 0; game < games; game++) {
+			BoardModel model = new BoardModel(rules.getLetterValues());
+			GameState state = new GameState(model, new CrossCheckTable(model, words),
+					new Bag(rules.getTileDistribution(), new SplittableRandom(seed + game)));
+			MoveJournal journal = new MoveJournal();
+			state.deal(0, journal);
+			state.deal(1, journal);
+			int passes = 0;
+			for (int player = 0; passes < 2; player = 1 - player) {
+				int[] rack = state.getRack(player);
+				TopMoves best = new TopMoves(COUNT);
+				generator.generate(model, state.getCrossChecks(), rack.clone(), best);
+				if (best.size() == 0) {
+					passes++;
+					continue;
+				}
+				passes = 0;
+				BoardModel copy = new BoardModel(model);
+				models.add(copy);
+				tables.add(new CrossCheckTable(state.getCrossChecks(), copy));
+				racks.add(rack);
+				List<Move> moves = best.toList();
+				expected.add(moves);
+				state.play(player, moves.get(0), journal);
+			}
+		}
+		System.out.println(models.size() + " positions from " + games + " games");
+
+		ForkJoinPool[] pools = new ForkJoinPool[maxThreads + 1];
+		ParallelMoveGenerator[] generators = new ParallelMoveGenerator[maxThreads + 1];
+		int mismatches = 0;
+		for (int threads = 1; threads <= maxThreads; threads++) {
+			pools[threads] = new ForkJoinPool(threads);
+			generators[threads] = new ParallelMoveGenerator(words, pools[threads]);
+			for (int p = 0; p < models.size(); p++) {
+				List<Move> moves = generators[threads].topMoves(models.get(p), tables.get(p),
+						racks.get(p), COUNT);
+				if (!same(moves, expected.get(p))) {
+					mismatches++;
+					System.out.println(threads + " threads differ on position " + p);
+				}
+			}
+		}
+		System.out.println(mismatches == 0 ? "every thread count gave the same plays"
+				: mismatches + " positions differ");
+
+		// one untimed sweep over every pool first, so the JIT has settled before any is timed
+		for (int threads = 1; threads <= maxThreads; threads++) {
+			time(generators[threads], models, tables, racks);
+		}
+		double oneThread = 0;
+		for (int threads = 1; threads <= maxThreads; threads++) {
+			double millis = time(generators[threads], models, tables, racks);
+			pools[threads].shutdown();
+			if (threads == 1) {
+				oneThread = millis;
+			}
+			System.out.printf("%d threads: %.3f ms a position, speed-up %.2f%n", threads, millis,
+					oneThread / millis);
+		}
+		System.out.println(Runtime.getRuntime().availableProcessors() + " cores available");
+	}
+
+    /**
+     * This is a private helper function that times the fastest of ROUNDS passes over the
+     * positions
+     *
+     * @param generator, the ParallelMoveGenerator
+     * @param models, the BoardModels of the positions
+     * @param tables, the CrossCheckTables of the positions
+     * @param racks, the racks to move in the positions
+     * @return a double, the milliseconds a position
+     */
+	private static double time(ParallelMoveGenerator generator, List<BoardModel> models,
+			List<CrossCheckTable> tables, List<int[]> racks) {
+		long best = Long.MAX_VALUE;
+		for (int round = 0; round < ROUNDS; round++) {
+			long start = System.nanoTime();
+			for (int p = 0; p < models.size(); p++) {
+				generator.topMoves(models.get(p), tables.get(p), racks.get(p), COUNT);
+			}
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best / 1000000.0 / models.size();
+	}
+
+    /**
+     * This is a private helper function that returns whether or not two lists of plays are the
+     * same plays in the same order
+     *
+     * @param a, the first list
+     * @param b, the second list
+     * @return a boolean, whether each play of a is the same as the play of b in its place
+     */
+	private static boolean same(List<Move> a, List<Move> b) {
+		if (a.size() != b.size()) {
+			return false;
+		}
+		for (int i = 0; i < a.size(); i++) {
+			if (Move.BEST_FIRST.compare(a.get(i), b.get(i)) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
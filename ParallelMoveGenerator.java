@@ -0,0 +1,139 @@
+
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class finds the best plays of a rack using several threads. The search of each row
+ * (ACROSS) and each column (DOWN) is independent of the others, so the 30 lines are shared
+ * out between the threads of a ForkJoinPool. Each thread searches its lines with its own
+ * MoveGenerator and its own copy of the rack, and keeps the best plays of all of them in one
+ * TopMoves of its own. When every line has been searched the TopMoves of the threads are
+ * merged. Because Move.BEST_FIRST orders every play, the result is the same whatever the number
+ * of threads or the order the lines were searched in.
+ */
+public class ParallelMoveGenerator {
+	private static final int LINES = 2 * BoardModel.SIZE;
+
+	private final Dawg words;
+	private final ForkJoinPool pool;
+	private final ThreadLocal<MoveGenerator> generators;
+
+    /**
+     * Constructs a ParallelMoveGenerator that runs on the common ForkJoinPool.
+     *
+     * @param words, the word graph of the Dictionary (see Dictionary.getWordGraph)
+     */
+	public ParallelMoveGenerator(Dawg words) {
+		this(words, ForkJoinPool.commonPool());
+	}
+
+    /**
+     * Constructs a ParallelMoveGenerator that runs on a given ForkJoinPool.
+     *
+     * @param words, the word graph of the Dictionary
+     * @param pool, the ForkJoinPool to run the searches on
+     */
+	public ParallelMoveGenerator(final Dawg words, ForkJoinPool pool) {
+		this.words = words;
+		this.pool = pool;
+		this.generators = new ThreadLocal<MoveGenerator>() {
+			@Override
+			protected MoveGenerator initialValue() {
+				return new MoveGenerator(words);
+			}
+		};
+	}
+
+    /**
+     * This method returns the best plays of a Player's rack on a Board
+     *
+     * @param board, the Board
+     * @param player, the Player whose letters are used
+     * @param count, the number of plays to return
+     * @return a List of at most count Moves, best first
+     */
+	public List<Move> topMoves(Board board, Player player, int count) {
+		return topMoves(board.getModel(), board.getCrossChecks(), MoveGenerator.rackOf(player),
+				count);
+	}
+
+    /**
+     * This method returns the best plays of a rack on a BoardModel. The BoardModel, the
+     * CrossCheckTable and the rack are only read, so they must not change during the search.
+     *
+     * @param model, the BoardModel
+     * @param crossChecks, the up to date CrossCheckTable of the model
+     * @param rack, how many of each letter code the player holds
+     * @param count, the number of plays to return
+     * @return a List of at most count Moves, best first
+     */
+	public List<Move> topMoves(BoardModel model, CrossCheckTable crossChecks, int[] rack,
+			int count) {
+		ConcurrentMap<Thread, Worker> workers = new ConcurrentHashMap<Thread, Worker>();
+		pool.invoke(new LineTask(model, crossChecks, rack, count, workers, 0, LINES));
+		TopMoves best = new TopMoves(count);
+		for (Worker worker : workers.values()) {
+			best.addAll(worker.best);
+		}
+		return best.toList();
+	}
+
+	/**
+	 * The best plays found by one thread, and the copy of the rack it searches with.
+	 */
+	private static class Worker {
+		private final TopMoves best;
+		private final int[] rack;
+
+		Worker(int[] rack, int count) {
+			this.best = new TopMoves(count);
+			// the generator changes the rack while it searches, so each thread has its own
+			this.rack = rack.clone();
+		}
+	}
+
+	/**
+	 * Searches a range of lines, numbered ACROSS rows first and then DOWN columns, by splitting
+	 * it in half until one line is left.
+	 */
+	@SuppressWarnings("serial")
+	private class LineTask extends RecursiveAction {
+		private final BoardModel model;
+		private final CrossCheckTable crossChecks;
+		private final int[] rack;
+		private final int count;
+		private final ConcurrentMap<Thread, Worker> workers;
+		private final int from;
+		private final int to;
+
+		LineTask(BoardModel model, CrossCheckTable crossChecks, int[] rack, int count,
+				ConcurrentMap<Thread, Worker> workers, int from, int to) {
+			this.model = model;
+			this.crossChecks = crossChecks;
+			this.rack = rack;
+			this.count = count;
+			this.workers = workers;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new LineTask(model, crossChecks, rack, count, workers, from, middle),
+						new LineTask(model, crossChecks, rack, count, workers, middle, to));
+				return;
+			}
+			Worker worker = workers.computeIfAbsent(Thread.currentThread(),
+					thread -> new Worker(rack, count));
+			boolean direction = from < BoardModel.SIZE ? BoardModel.ACROSS : BoardModel.DOWN;
+			generators.get().generate(model, crossChecks, worker.rack, direction,
+					from % BoardModel.SIZE, worker.best);
+		}
+	}
+}
@@ -12,12 +12,16 @@ import java.awt.Font;
 /**
  * This class models each player in the game. Thus, it stores the name, points and letters of each
  * player as well as several other static fields shared among all Players. There are also methods
- * provided which handles the Player's interactions with other classes created.
+ * provided which handles the Player's interactions with other classes created. The letters are
+ * kept in a Rack, which counts them and their points; the slots only remember which of the
+ * seven tile buttons shows each letter.
  */
 public class Player {
 	private String name;
-	private String[] myLetters;
-	private static final int NUM_TILES = 7;
+	private Rack rack;
+	// the letter code shown by each tile button, or Letters.NONE for an empty slot
+	private byte[] slots;
+	public static final int NUM_TILES = 7;
 	private static JButton[] tileButtons = new JButton[NUM_TILES];
 	private static Bag tileBag;
 	private JLabel pointDisplay;
@@ -35,10 +39,11 @@ public class Player {
      */
     public Player(Bag tileBag, ScrabbleRules rules) {
     	name = "Sam";
-    	myLetters = new String[NUM_TILES];
+    	rack = new Rack(rules.getLetterValues());
+    	slots = new byte[NUM_TILES];
     	this.tileBag = tileBag;
     	for (int i = 0; i < NUM_TILES; i++) {
-    		myLetters[i] = tileBag.take();
+    		setIndex(i, tileBag.take());
      	}
     	myPoints = 0;
     	pointDisplay = new JLabel(name + ": " + myPoints);
@@ -63,11 +68,16 @@ public class Player {
      * @return an int of the total points of the Player's current hand
      */
     public int getUnplayedLetterPoints() {
-    	int total = 0;
-    	for (int i = 0; i < NUM_TILES; i++) {
-    		total += gameRules.getValue(myLetters[i]);
-    	}
-    	return total;
+    	return rack.getPoints();
+    }
+    
+    /**
+     * This method gets the Rack of letters the Player holds
+     * 
+     * @return the Rack, which must not be changed by the caller
+     */
+    public Rack getRack() {
+    	return rack;
     }
     
     /**
@@ -101,7 +111,7 @@ public class Player {
      */
     public void drawMyTiles() {
     	for (int i = 0; i < NUM_TILES; i++) {
-    		tileButtons[i].setText(myLetters[i]);
+    		tileButtons[i].setText(getLetter(i));
      	}
     }
     
@@ -132,9 +142,9 @@ public class Player {
      */
     public void exchangeTile(JButton button) {
     	int index = Player.getButtonIndex(button); 
-    	String oldLetter = myLetters[index];
+    	String oldLetter = getLetter(index);
     	String newLetter = tileBag.exchange(oldLetter);
-    	myLetters[index] = newLetter;
+    	setIndex(index, newLetter);
     	button.setText(newLetter);
     	this.drawMyTiles();
     }
@@ -146,12 +156,7 @@ public class Player {
      * @return a boolean determining whether or not the Player is allowed to exchange Tiles
      */
     public boolean allowedToExchange() {
-    	for (int i = 0; i < NUM_TILES; i++) {
-    		if (myLetters[i].equals("")) {
-    			return false;
-    		}
-    	}
-    	return true;
+    	return rack.size() == NUM_TILES;
     }
     
     /**
@@ -161,9 +166,9 @@ public class Player {
      * @return none
      */
     public void fillLetters() {
-    	for (int i = 0; i < NUM_TILES; i++) {
-    		if (myLetters[i].equals("")) {
-    			myLetters[i] = tileBag.take();
+    	for (int i = 0; i < NUM_TILES && !tileBag.noMoreTiles(); i++) {
+    		if (slots[i] == Letters.NONE) {
+    			setIndex(i, tileBag.take());
     		}
     	}
     }
@@ -206,25 +211,42 @@ public class Player {
     }
     
     /**
-     * This method gets the letter stored at a specific index in myLetters[]
+     * This method gets the letter shown at a specific index of the Player's tile buttons
      * 
      * @param index, the index of the letter in the array
      * @return an String that is the letter stored at the index
      */
     public String getLetter(int index) {
-    	String letter = myLetters[index];
-    	return letter;
+    	return slots[index] == Letters.NONE ? "" : Letters.decode(slots[index]);
+    }
+    
+    /**
+     * This method puts a letter in one of the Player's slots without redrawing the buttons,
+     * for when a turn is taken back
+     * 
+     * @param index, the index of the letter in the array
+     * @param letter, the letter being stored at that index, or "" for an empty slot
+     * @return none
+     */
+    public void setLetter(int index, String letter) {
+    	this.setIndex(index, letter);
     }
     
     /**
-     * This method adds a letters to myLetters[] at a specific index
+     * This method puts a letter at a specific index of the Player's slots, keeping the Rack up to
+     * date
      * 
      * @param index, the index of the letter in the array
      * @param letter, the letter being stored at that index
      * @return none
      */
     private void setIndex(int index, String letter) {
-    	myLetters[index] = letter;
+    	rack.remove(slots[index]);
+    	int code = Letters.encode(letter);
+    	slots[index] = (byte) code;
+    	if (code != Letters.NONE) {
+    		rack.add(code);
+    	}
 	}
 
     /**
@@ -251,13 +273,13 @@ public class Player {
     }
     
     /**
-     * This method removes a letter from myLetters at a specific index
+     * This method removes a letter from a specific index of the Player's slots
      * 
      * @param index, the index of the letter in the array
      * @return none
      */
     public void removeLetter(int index) {
-    	myLetters[index] = "";
+    	setIndex(index, "");
     	tileButtons[index].setText("");
     }
 
@@ -289,12 +311,7 @@ public class Player {
      * @return a boolean, whether the player has used all the letters in their "hand"
      */
 	public boolean usedAllLetters() {
-		for (int i = 0; i < myLetters.length; i++) {
-			if (!myLetters[i].equals("")) {
-				return false;
-			}
-		}
-		return true;
+		return rack.isEmpty();
 	}
 
     /**
@@ -0,0 +1,194 @@
+
+
+/**
+ * This class is a player's rack as a multiset of letters: how many of each letter code it
+ * holds, packed 3 bits per letter into two longs, with the number of tiles and their point
+ * total kept up to date as tiles are added and removed. A rack never holds more than
+ * Player.NUM_TILES tiles, so 3 bits are enough for any count. The 26 counts take 78 bits, one
+ * word and a bit more, so the codes 1 to 21 are in the first long and 22 to 26 in the second.
+ * <p>
+ * Two racks holding the same letters have the same key, whatever order the tiles came in, so
+ * the key can index tables of rack values.
+ */
+public class Rack {
+	/** The most copies of one letter a rack can hold. */
+	public static final int MAX_COUNT = 7;
+
+	private static final int BITS = 3;
+	private static final int LOW_CODES = 64 / BITS;
+	private static final long MASK = (1L << BITS) - 1;
+
+	private final int[] letterValues;
+	private long low;
+	private long high;
+	private int size;
+	private int points;
+
+    /**
+     * Constructs an empty Rack.
+     *
+     * @param letterValues, the value of each letter code, shared with the caller and never
+     * 			modified (see ScrabbleRules.getLetterValues)
+     */
+	public Rack(int[] letterValues) {
+		this.letterValues = letterValues;
+	}
+
+    /**
+     * Constructs a copy of another Rack.
+     *
+     * @param other, the Rack to copy
+     */
+	public Rack(Rack other) {
+		this.letterValues = other.letterValues;
+		this.low = other.low;
+		this.high = other.high;
+		this.size = other.size;
+		this.points = other.points;
+	}
+
+    /**
+     * This method returns how many copies of a letter the Rack holds
+     *
+     * @param code, the letter code
+     * @return an int, from 0 to MAX_COUNT
+     */
+	public int count(int code) {
+		if (code <= LOW_CODES) {
+			return (int) ((low >>> (BITS * (code - 1))) & MASK);
+		}
+		return (int) ((high >>> (BITS * (code - 1 - LOW_CODES))) & MASK);
+	}
+
+    /**
+     * This method adds a tile to the Rack
+     *
+     * @param code, the letter code of the tile
+     * @throws IllegalArgumentException if the code is Letters.NONE
+     * @throws IllegalStateException if the Rack already holds MAX_COUNT copies of the letter
+     */
+	public void add(int code) {
+		if (code == Letters.NONE) {
+			throw new IllegalArgumentException("no letter to add");
+		}
+		if (count(code) == MAX_COUNT) {
+			throw new IllegalStateException("too many copies of " + Letters.decode(code));
+		}
+		if (code <= LOW_CODES) {
+			low += 1L << (BITS * (code - 1));
+		} else {
+			high += 1L << (BITS * (code - 1 - LOW_CODES));
+		}
+		size++;
+		points += letterValues[code];
+	}
+
+    /**
+     * This method takes a tile off the Rack, if the Rack holds one
+     *
+     * @param code, the letter code of the tile
+     * @return a boolean, whether a tile was taken off
+     */
+	public boolean remove(int code) {
+		if (code == Letters.NONE || count(code) == 0) {
+			return false;
+		}
+		if (code <= LOW_CODES) {
+			low -= 1L << (BITS * (code - 1));
+		} else {
+			high -= 1L << (BITS * (code - 1 - LOW_CODES));
+		}
+		size--;
+		points -= letterValues[code];
+		return true;
+	}
+
+    /**
+     * This method takes every tile off the Rack
+     */
+	public void clear() {
+		low = 0;
+		high = 0;
+		size = 0;
+		points = 0;
+	}
+
+    /**
+     * This method returns the number of tiles on the Rack
+     *
+     * @return an int, the number of tiles
+     */
+	public int size() {
+		return size;
+	}
+
+    /**
+     * This method returns whether or not the Rack has no tiles
+     *
+     * @return a boolean, whether the Rack is empty
+     */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+    /**
+     * This method returns the face value of the tiles on the Rack
+     *
+     * @return an int, the sum of the tiles' values
+     */
+	public int getPoints() {
+		return points;
+	}
+
+    /**
+     * This method returns the canonical key of the Rack: its letters in alphabetical order,
+     * 5 bits each, the first letter in the highest bits used. Racks hold at most
+     * Player.NUM_TILES letters, so the key takes at most 35 bits, and two Racks have the same
+     * key only if they hold the same letters.
+     *
+     * @return a long, the key, or 0 for an empty Rack
+     */
+	public long getKey() {
+		long key = 0;
+		for (int code = 1; code <= Letters.COUNT; code++) {
+			for (int n = count(code); n > 0; n--) {
+				key = (key << 5) | code;
+			}
+		}
+		return key;
+	}
+
+    /**
+     * This method returns how many of each letter the Rack holds
+     *
+     * @return a new int[], indexed by letter code, as MoveGenerator takes
+     */
+	public int[] getCounts() {
+		int[] counts = new int[Letters.COUNT + 1];
+		for (int code = 1; code <= Letters.COUNT; code++) {
+			counts[code] = count(code);
+		}
+		return counts;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof Rack && ((Rack) other).low == low && ((Rack) other).high == high;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(low * 31 + high);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder letters = new StringBuilder();
+		for (int code = 1; code <= Letters.COUNT; code++) {
+			for (int n = count(code); n > 0; n--) {
+				letters.append(Letters.decode(code));
+			}
+		}
+		return letters.toString();
+	}
+}
@@ -0,0 +1,194 @@
+
+
+import java.util.Arrays;
+
+/**
+ * This class holds the score of a turn word by word, as worked out by ScoringEngine. The same
+ * object is filled again for every turn (or every candidate move a computer player tries), so
+ * its arrays only grow and scoring a move does not create any objects. Each word records where
+ * it starts, its direction, its letters and the points it is worth.
+ */
+public class ScoreBreakdown {
+	private int numWords;
+	private int total;
+	private int[] startSquares;
+	private boolean[] directions;
+	private int[] lengths;
+	private int[] wordMultipliers;
+	private int[] scores;
+	private byte[][] letters;
+
+    /**
+     * Constructs an empty ScoreBreakdown with room for a main word and a cross word for each of
+     * the letters of a full rack; it grows if a move ever forms more words than that.
+     */
+	public ScoreBreakdown() {
+		allocate(16);
+	}
+
+    /**
+     * This is a private helper function that makes room for a number of words, keeping the
+     * words already recorded.
+     *
+     * @param capacity, the number of words to make room for
+     */
+	private void allocate(int capacity) {
+		startSquares = startSquares == null ? new int[capacity] : Arrays.copyOf(startSquares, capacity);
+		directions = directions == null ? new boolean[capacity] : Arrays.copyOf(directions, capacity);
+		lengths = lengths == null ? new int[capacity] : Arrays.copyOf(lengths, capacity);
+		wordMultipliers = wordMultipliers == null ? new int[capacity]
+				: Arrays.copyOf(wordMultipliers, capacity);
+		scores = scores == null ? new int[capacity] : Arrays.copyOf(scores, capacity);
+		int old = letters == null ? 0 : letters.length;
+		letters = letters == null ? new byte[capacity][] : Arrays.copyOf(letters, capacity);
+		for (int i = old; i < capacity; i++) {
+			letters[i] = new byte[BoardModel.SIZE];
+		}
+	}
+
+    /**
+     * This method forgets every word, ready for the next move to be scored
+     */
+	void clear() {
+		numWords = 0;
+		total = 0;
+	}
+
+    /**
+     * This method starts recording a new word and returns its number. Its letters are then
+     * given with setLetter and its score with finish.
+     *
+     * @param startSquare, the square of the word's first letter
+     * @param direction, BoardModel.ACROSS or BoardModel.DOWN
+     * @param length, the number of letters in the word
+     * @return an int, the number of the word in this breakdown
+     */
+	int startWord(int startSquare, boolean direction, int length) {
+		if (numWords == scores.length) {
+			allocate(numWords * 2);
+		}
+		startSquares[numWords] = startSquare;
+		directions[numWords] = direction;
+		lengths[numWords] = length;
+		return numWords++;
+	}
+
+    /**
+     * This method records one letter of a word
+     *
+     * @param word, the number of the word
+     * @param position, the letter's position in the word, starting at 0
+     * @param code, the letter's code (see Letters)
+     */
+	void setLetter(int word, int position, int code) {
+		letters[word][position] = (byte) code;
+	}
+
+    /**
+     * This method records the points of a word, and adds them to the total
+     *
+     * @param word, the number of the word
+     * @param wordMultiplier, the product of the word premiums the word newly covers
+     * @param score, the points the word is worth, with every premium applied
+     */
+	void finish(int word, int wordMultiplier, int score) {
+		wordMultipliers[word] = wordMultiplier;
+		scores[word] = score;
+		total += score;
+	}
+
+    /**
+     * This method returns the points of the whole move
+     *
+     * @return an int, the sum of the points of every word
+     */
+	public int getTotal() {
+		return total;
+	}
+
+    /**
+     * This method returns how many words the move formed
+     *
+     * @return an int, the number of words
+     */
+	public int getNumWords() {
+		return numWords;
+	}
+
+    /**
+     * This method returns the square of a word's first letter
+     *
+     * @param i, the number of the word
+     * @return an int, the square's number (see BoardModel.index)
+     */
+	public int getStartSquare(int i) {
+		return startSquares[i];
+	}
+
+    /**
+     * This method returns the direction a word is read in
+     *
+     * @param i, the number of the word
+     * @return a boolean, BoardModel.ACROSS or BoardModel.DOWN
+     */
+	public boolean getDirection(int i) {
+		return directions[i];
+	}
+
+    /**
+     * This method returns the number of letters in a word
+     *
+     * @param i, the number of the word
+     * @return an int, the word's length
+     */
+	public int getLength(int i) {
+		return lengths[i];
+	}
+
+    /**
+     * This method returns the word premium a word earned, such as 2 for one double word square
+     *
+     * @param i, the number of the word
+     * @return an int, the word's multiplier
+     */
+	public int getWordMultiplier(int i) {
+		return wordMultipliers[i];
+	}
+
+    /**
+     * This method returns the points a word is worth
+     *
+     * @param i, the number of the word
+     * @return an int, the word's score
+     */
+	public int getScore(int i) {
+		return scores[i];
+	}
+
+    /**
+     * This method returns the letters of a word, in upper case
+     *
+     * @param i, the number of the word
+     * @return a String, the word
+     */
+	public String getWord(int i) {
+		char[] chars = new char[lengths[i]];
+		for (int j = 0; j < chars.length; j++) {
+			chars[j] = Letters.decode(letters[i][j]).charAt(0);
+		}
+		return new String(chars);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < numWords; i++) {
+			text.append(getWord(i)).append(' ').append(scores[i]);
+			if (wordMultipliers[i] > 1) {
+				text.append(" (x").append(wordMultipliers[i]).append(')');
+			}
+			text.append(", ");
+		}
+		return text.append("total ").append(total).toString();
+	}
+}
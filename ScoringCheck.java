@@ -0,0 +1,82 @@
+
+
+import java.util.SplittableRandom;
+
+/**
+ * This class checks ScoringEngine against the full scan of BoardModel.calculateScore on random
+ * boards. Each board gets random finalized letters and then a turn of random pending letters:
+ * usually up to seven in one row or column, with or without gaps, and otherwise scattered
+ * anywhere, since the engine and the scan must agree on any board. The engine's total must
+ * equal the scan's, and must also equal the sum of the words in its ScoreBreakdown. The letter
+ * values and boards come from a fixed seed, so a run can be repeated exactly.
+ * <p>
+ * Usage: java ScoringCheck [boards] [seed]
+ */
+public class ScoringCheck {
+	private static final int DEFAULT_BOARDS = 200000;
+
+	public static void main(String[] args) {
+		int boards = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_BOARDS;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : 0;
+
+		SplittableRandom random = new SplittableRandom(seed);
+		int[] letterValues = new int[Letters.COUNT + 1];
+		for (int code = 1; code <= Letters.COUNT; code++) {
+			letterValues[code] = random.nextInt(11);
+		}
+		ScoreBreakdown breakdown = new ScoreBreakdown();
+		int mismatches = 0;
+		int scored = 0;
+		for (int b = 0; b < boards; b++) {
+			BoardModel model = new BoardModel(letterValues);
+			int density = random.nextInt(1, 100);
+			for (int square = 0; square < BoardModel.SQUARES; square++) {
+				if (random.nextInt(100) < density / 2) {
+					model.setLetter(square, random.nextInt(1, Letters.COUNT + 1));
+				}
+			}
+			model.finalizeAll();
+
+			int tiles = random.nextInt(1, Player.NUM_TILES + 1);
+			if (random.nextInt(4) != 0) {
+				boolean direction = random.nextBoolean();
+				int line = random.nextInt(BoardModel.SIZE);
+				int position = random.nextInt(BoardModel.SIZE);
+				for (int placed = 0; placed < tiles && position < BoardModel.SIZE; position++) {
+					int square = BoardModel.square(direction, line, position);
+					if (model.isEmpty(square)) {
+						model.setLetter(square, random.nextInt(1, Letters.COUNT + 1));
+						placed++;
+						position += random.nextInt(8) == 0 ? 1 : 0;
+					}
+				}
+			} else {
+				for (int placed = 0; placed < tiles; placed++) {
+					int square = random.nextInt(BoardModel.SQUARES);
+					if (model.isEmpty(square)) {
+						model.setLetter(square, random.nextInt(1, Letters.COUNT + 1));
+					}
+				}
+			}
+
+			int expected = model.calculateScore();
+			int score = ScoringEngine.score(model, breakdown);
+			int sum = 0;
+			for (int i = 0; i < breakdown.getNumWords(); i++) {
+				sum += breakdown.getScore(i);
+			}
+			if (score != expected || sum != expected) {
+				mismatches++;
+				if (mismatches <= 10) {
+					System.out.println("board " + b + ": the scan gives " + expected
+							+ ", the engine " + score + " from " + breakdown);
+				}
+			}
+			if (expected > 0) {
+				scored++;
+			}
+		}
+		System.out.println(boards + " boards, " + scored + " with words scored, " + mismatches
+				+ " mismatches");
+	}
+}
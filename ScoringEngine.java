@@ -0,0 +1,108 @@
+
+
+/**
+ * This class scores a turn starting from the letters placed during it. The words that count are
+ * exactly the runs of two or more letters that pass through a pending square, so instead of
+ * scanning every row and column of the Board (see BoardModel.calculateScore) it follows the
+ * run through each pending square in both directions, skipping runs it has already scored.
+ * Letter and word premiums count only on the squares covered this turn, since
+ * BoardModel.getLetterMultiplier and getWordMultiplier return 1 for finalized squares.
+ * <p>
+ * The results go into a ScoreBreakdown given by the caller, so scoring creates no objects.
+ */
+public class ScoringEngine {
+
+    /**
+     * This method scores the pending letters of a BoardModel. The words along the line of play
+     * are recorded before the cross words.
+     *
+     * @param model, the BoardModel holding the turn's pending letters
+     * @param breakdown, where the score of each word is written; its old contents are cleared
+     * @return an int, the total score of the turn
+     */
+	public static int score(BoardModel model, ScoreBreakdown breakdown) {
+		breakdown.clear();
+		boolean main = mainDirection(model);
+		scoreDirection(model, main, breakdown);
+		scoreDirection(model, !main, breakdown);
+		return breakdown.getTotal();
+	}
+
+    /**
+     * This is a private helper function that picks the direction of the line of play: DOWN if
+     * the pending letters share a column but not a row, otherwise ACROSS.
+     *
+     * @param model, the BoardModel
+     * @return a boolean, BoardModel.ACROSS or BoardModel.DOWN
+     */
+	private static boolean mainDirection(BoardModel model) {
+		int count = model.getNumPending();
+		if (count < 2) {
+			return BoardModel.ACROSS;
+		}
+		int first = model.getPending(0);
+		for (int i = 1; i < count; i++) {
+			if (BoardModel.lineOf(model.getPending(i), BoardModel.DOWN)
+					!= BoardModel.lineOf(first, BoardModel.DOWN)) {
+				return BoardModel.ACROSS;
+			}
+		}
+		return BoardModel.DOWN;
+	}
+
+    /**
+     * This is a private helper function that scores every run through a pending square in one
+     * direction. A run is skipped if an earlier pending square already lies in it.
+     *
+     * @param model, the BoardModel
+     * @param direction, ACROSS or DOWN
+     * @param breakdown, where the scores are written
+     */
+	private static void scoreDirection(BoardModel model, boolean direction,
+			ScoreBreakdown breakdown) {
+		int count = model.getNumPending();
+		for (int i = 0; i < count; i++) {
+			int square = model.getPending(i);
+			int line = BoardModel.lineOf(square, direction);
+			int start = model.runStart(square, direction);
+			boolean seen = false;
+			for (int j = 0; j < i && !seen; j++) {
+				int other = model.getPending(j);
+				seen = BoardModel.lineOf(other, direction) == line
+						&& model.runStart(other, direction) == start;
+			}
+			if (!seen) {
+				scoreRun(model, direction, line, start, model.runEnd(square, direction), breakdown);
+			}
+		}
+	}
+
+    /**
+     * This is a private helper function that scores the run of letters [start, end) on a line,
+     * if it is long enough to be a word.
+     *
+     * @param model, the BoardModel
+     * @param direction, ACROSS or DOWN
+     * @param line, the line of the run
+     * @param start, the position of the first letter
+     * @param end, the position after the last letter
+     * @param breakdown, where the score is written
+     */
+	private static void scoreRun(BoardModel model, boolean direction, int line, int start,
+			int end, ScoreBreakdown breakdown) {
+		if (end - start < 2) {
+			return;
+		}
+		int word = breakdown.startWord(BoardModel.square(direction, line, start), direction,
+				end - start);
+		int wordScore = 0;
+		int wordMultiplier = 1;
+		for (int position = start; position < end; position++) {
+			int square = BoardModel.square(direction, line, position);
+			breakdown.setLetter(word, position - start, model.getLetter(square));
+			wordScore += model.getValue(square);
+			wordMultiplier *= model.getWordMultiplier(square);
+		}
+		breakdown.finish(word, wordMultiplier, wordScore * wordMultiplier);
+	}
+}
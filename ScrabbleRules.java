@@ -7,42 +7,80 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.Collections;
 import java.util.Map;
 import java.util.TreeMap;
 
 public class ScrabbleRules {
 	private Map<String, Integer> letterValues;
+	private int[] letterValuesByCode;
 	private Dictionary scrabbleWords;
+	private int[] tileDistribution;
+	private LeaveTable leaveTable;
 	
 	/**
 	 * This class models the rules of the game. It creates a Dictionary of the scrabble words,
 	 * sets up the Instructions, creates a mapping of letters to their values and sets up 
-	 * the high score reader, writers. 
+	 * the high score reader, writers. The Dictionary and the letter values come from the
+	 * LexiconCache, so every game played in the same program shares one copy of them.
 	 */
 	public ScrabbleRules() {
 	    scrabbleWords = null;
 		try {
-			scrabbleWords = Dictionary.make("files/Scrabble_Dictionary.txt");
-			letterValues = new TreeMap<String, Integer>();
-			Reader in = new FileReader("files/Scrabble_Values.txt"); 
-	        BufferedReader br = new BufferedReader(in);
-	        boolean hasNext = true;
-	        while (hasNext) {
-	        	String letter = br.readLine();
-	        	if (letter == null) {
-	        		hasNext = false;
-	        	} else {
-	        		int value = Integer.parseInt(br.readLine());
-	        		letterValues.put(letter, value);
-	        	}
-	        }
-	        br.close();
-			
+			scrabbleWords = LexiconCache.getDictionary("files/Scrabble_Dictionary.txt");
+			letterValues = LexiconCache.get("files/Scrabble_Values.txt", "letterValues",
+					new LexiconCache.Loader<Map<String, Integer>>() {
+				@Override
+				public Map<String, Integer> load(String filename) throws IOException {
+					return readLetterValues(filename);
+				}
+			});
+			tileDistribution = LexiconCache.get("files/Scrabble_Letters.txt", "tileDistribution",
+					new LexiconCache.Loader<int[]>() {
+				@Override
+				public int[] load(String filename) throws IOException {
+					return readTileDistribution(filename);
+				}
+			});
+			final int[] distribution = tileDistribution;
+			leaveTable = LexiconCache.get(LeaveTable.DEFAULT_FILE, "leaveTable",
+					new LexiconCache.Loader<LeaveTable>() {
+				@Override
+				public LeaveTable load(String filename) throws IOException {
+					return LeaveTable.load(filename, distribution);
+				}
+			});
 		} catch (IOException e) {
 			// do nothing
 		}
 	}
 
+    /**
+     * This method reads the value of each letter from a file that lists each letter on one
+     * line and its value on the next.
+     * 
+     * @param filename, the path of the file of letter values
+     * @return an unmodifiable Map from each letter to its value
+     * @throws IOException if the file cannot be read
+     */
+	private static Map<String, Integer> readLetterValues(String filename) throws IOException {
+		Map<String, Integer> values = new TreeMap<String, Integer>();
+		Reader in = new FileReader(filename); 
+        BufferedReader br = new BufferedReader(in);
+        boolean hasNext = true;
+        while (hasNext) {
+        	String letter = br.readLine();
+        	if (letter == null) {
+        		hasNext = false;
+        	} else {
+        		int value = Integer.parseInt(br.readLine());
+        		values.put(letter, value);
+        	}
+        }
+        br.close();
+		return Collections.unmodifiableMap(values);
+	}
+
     /**
      * This method returns whether or not a given word is in the Scrabble dictionary
      * 
@@ -66,6 +104,80 @@ public class ScrabbleRules {
 		return letterValues.get(letter);
 	}
 	
+    /**
+     * This method returns the Scrabble value of each letter code (see Letters), for the
+     * headless models that work with codes instead of Strings. The array is shared and must
+     * not be modified.
+     * 
+     * @return an int[] holding the value of each letter code, with 0 for Letters.NONE
+     */
+	public int[] getLetterValues() {
+		if (letterValuesByCode == null) {
+			int[] values = new int[Letters.COUNT + 1];
+			for (int code = 1; code <= Letters.COUNT; code++) {
+				Integer value = letterValues == null ? null : letterValues.get(Letters.decode(code));
+				values[code] = value == null ? 0 : value;
+			}
+			letterValuesByCode = values;
+		}
+		return letterValuesByCode;
+	}
+
+    /**
+     * This method returns how many tiles of each letter a full game has, read from the same
+     * file the Bag is filled from
+     * 
+     * @return an int[] holding the number of tiles of each letter code, shared and not to be
+     * 			modified
+     */
+	public int[] getTileDistribution() {
+		if (tileDistribution == null) {
+			tileDistribution = new int[Letters.COUNT + 1];
+		}
+		return tileDistribution;
+	}
+
+    /**
+     * This method reads a file that lists one letter per line, once for each tile, and counts
+     * the tiles of each letter.
+     * 
+     * @param filename, the path of the file of tiles
+     * @return an int[] holding the number of tiles of each letter code
+     * @throws IOException if the file cannot be read
+     */
+	private static int[] readTileDistribution(String filename) throws IOException {
+		int[] counts = new int[Letters.COUNT + 1];
+		BufferedReader br = new BufferedReader(new FileReader(filename));
+		String line = br.readLine();
+		while (line != null) {
+			int code = Letters.encode(line.trim());
+			if (code != Letters.NONE) {
+				counts[code]++;
+			}
+			line = br.readLine();
+		}
+		br.close();
+		return counts;
+	}
+
+    /**
+     * This method returns the table of leave values made by LeaveTrainer for these tiles
+     * 
+     * @return the shared, memory-mapped LeaveTable, or null if there is no up to date one
+     */
+	public LeaveTable getLeaveTable() {
+		return leaveTable;
+	}
+
+    /**
+     * This method returns the Dictionary of the Scrabble words
+     * 
+     * @return the shared Dictionary
+     */
+	public Dictionary getDictionary() {
+		return scrabbleWords;
+	}
+
     /**
      * This method returns the String of instructions read from a file
      * 
@@ -0,0 +1,510 @@
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class chooses between a few candidate plays by simulating what happens after each one.
+ * A playout makes the candidate play, gives the opponent a random rack from the tiles the
+ * player cannot see (the tiles not on the board and not on the player's rack), and then lets
+ * both sides play a few turns with the ComputerPlayer's quick rating. The result of a playout
+ * is the change in the score difference plus the value of the player's final leave, and
+ * whether the player would then be ahead.
+ * <p>
+ * Playouts run in rounds on a ForkJoinPool. After each round every candidate gets a 95%
+ * confidence interval, and candidates that are clearly worse than the best (whose interval
+ * lies wholly below the best one's) are dropped, so the later rounds are spent on the close
+ * decisions. Playout i of every candidate uses the same random numbers, so the candidates are
+ * compared on the same racks, and the results do not depend on the number of threads. A time
+ * budget can also be set, in which case no round is started once it has run out; the results
+ * then depend on how fast the machine is.
+ */
+public class Simulator {
+	/** The number of standard errors in a 95% confidence interval. */
+	public static final double Z_95 = 1.96;
+
+	/** The time budget that never runs out, which is the default. */
+	public static final long NO_TIME_LIMIT = Long.MAX_VALUE;
+
+	private final ForkJoinPool pool;
+	private final ThreadLocal<ComputerPlayer> players;
+	private final Dawg words;
+	private int plies = 2;
+	private int batchSize = 16;
+	private int minIterations = 32;
+	private int maxIterations = 512;
+	private long seed = 0;
+	private long timeBudget = NO_TIME_LIMIT;
+	private LeaveTable leaves;
+
+	/**
+	 * The results of the playouts of one candidate play.
+	 */
+	public static class Candidate {
+		private final Move move;
+		private int iterations;
+		private double equitySum;
+		private double equitySquares;
+		private double wins;
+		private boolean pruned;
+
+		Candidate(Move move) {
+			this.move = move;
+		}
+
+		void add(double equity, double win) {
+			iterations++;
+			equitySum += equity;
+			equitySquares += equity * equity;
+			wins += win;
+		}
+
+	    /**
+	     * This method returns the candidate play
+	     *
+	     * @return the Move
+	     */
+		public Move getMove() {
+			return move;
+		}
+
+	    /**
+	     * This method returns the number of playouts made of the candidate
+	     *
+	     * @return an int, the number of playouts
+	     */
+		public int getIterations() {
+			return iterations;
+		}
+
+	    /**
+	     * This method returns the average equity of the playouts: the change in the score
+	     * difference plus the value of the final leave
+	     *
+	     * @return a double, the mean equity in points
+	     */
+		public double getMeanEquity() {
+			return iterations == 0 ? 0 : equitySum / iterations;
+		}
+
+	    /**
+	     * This method returns the half-width of the 95% confidence interval of the mean equity
+	     *
+	     * @return a double, in points, or infinity with fewer than two playouts
+	     */
+		public double getEquityError() {
+			if (iterations < 2) {
+				return Double.POSITIVE_INFINITY;
+			}
+			double mean = equitySum / iterations;
+			double variance = Math.max(0, (equitySquares - iterations * mean * mean)
+					/ (iterations - 1));
+			return Z_95 * Math.sqrt(variance / iterations);
+		}
+
+	    /**
+	     * This method returns the share of playouts after which the player is ahead, with a
+	     * tie counting as half
+	     *
+	     * @return a double, from 0 to 1
+	     */
+		public double getWinRate() {
+			return iterations == 0 ? 0 : wins / iterations;
+		}
+
+	    /**
+	     * This method returns the half-width of the 95% confidence interval of the win rate
+	     *
+	     * @return a double, from 0 to 1
+	     */
+		public double getWinError() {
+			if (iterations == 0) {
+				return 1;
+			}
+			double p = wins / iterations;
+			return Z_95 * Math.sqrt(p * (1 - p) / iterations);
+		}
+
+	    /**
+	     * This method returns whether or not the candidate was dropped as clearly worse
+	     *
+	     * @return a boolean, whether the simulation stopped early for this candidate
+	     */
+		public boolean isPruned() {
+			return pruned;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s: equity %.1f +/- %.1f, wins %.1f%% +/- %.1f%% (%d playouts%s)",
+					move, getMeanEquity(), getEquityError(), 100 * getWinRate(),
+					100 * getWinError(), iterations, pruned ? ", dropped" : "");
+		}
+	}
+
+    /**
+     * Constructs a Simulator that runs on the common ForkJoinPool.
+     *
+     * @param words, the word graph of the Dictionary (see Dictionary.getWordGraph)
+     */
+	public Simulator(Dawg words) {
+		this(words, ForkJoinPool.commonPool());
+	}
+
+    /**
+     * Constructs a Simulator that runs on a given ForkJoinPool.
+     *
+     * @param words, the word graph of the Dictionary
+     * @param pool, the ForkJoinPool to run the playouts on
+     */
+	public Simulator(final Dawg words, ForkJoinPool pool) {
+		this.words = words;
+		this.pool = pool;
+		this.players = new ThreadLocal<ComputerPlayer>() {
+			@Override
+			protected ComputerPlayer initialValue() {
+				ComputerPlayer player = new ComputerPlayer(words);
+				player.setTimeBudget(Integer.MAX_VALUE);
+				return player;
+			}
+		};
+	}
+
+    /**
+     * This method sets how many turns are played after the candidate play
+     *
+     * @param plies, the number of turns, starting with the opponent's
+     */
+	public void setPlies(int plies) {
+		this.plies = plies;
+	}
+
+    /**
+     * This method sets how many playouts of each candidate are made in each round
+     *
+     * @param batchSize, the number of playouts per round
+     */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+    /**
+     * This method sets how many playouts are made before any candidate can be dropped, and
+     * at most
+     *
+     * @param minIterations, the playouts before dropping candidates
+     * @param maxIterations, the most playouts of any candidate
+     */
+	public void setIterations(int minIterations, int maxIterations) {
+		this.minIterations = minIterations;
+		this.maxIterations = maxIterations;
+	}
+
+    /**
+     * This method sets the seed of the random racks, so a simulation can be repeated
+     *
+     * @param seed, the seed
+     */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+    /**
+     * This method sets how long a simulation may take. The first round is always played, and
+     * no other round is started once the time is up.
+     *
+     * @param millis, the time budget of each simulation, in milliseconds, or NO_TIME_LIMIT
+     */
+	public void setTimeBudget(long millis) {
+		timeBudget = millis;
+	}
+
+    /**
+     * This method sets the table the playouts rate leaves with
+     *
+     * @param leaves, the LeaveTable, or null to use the static formula
+     */
+	public void setLeaveTable(LeaveTable leaves) {
+		this.leaves = leaves;
+	}
+
+    /**
+     * This method returns the tiles a player cannot see: every tile of the game that is not
+     * finalized on the board and not on the player's rack. They are in the Bag or on the
+     * opponent's rack.
+     *
+     * @param distribution, the number of tiles of each letter code in a full game (see
+     * 			ScrabbleRules.getTileDistribution)
+     * @param model, the BoardModel
+     * @param rack, how many of each letter code the player holds
+     * @return an int[], how many of each letter code are unseen
+     */
+	public static int[] unseenTiles(int[] distribution, BoardModel model, int[] rack) {
+		int[] unseen = distribution.clone();
+		for (int square = 0; square < BoardModel.SQUARES; square++) {
+			if (model.isFinalized(square)) {
+				unseen[model.getLetter(square)]--;
+			}
+		}
+		for (int code = 1; code <= Letters.COUNT; code++) {
+			unseen[code] = Math.max(0, unseen[code] - rack[code]);
+		}
+		unseen[Letters.NONE] = 0;
+		return unseen;
+	}
+
+    /**
+     * This method simulates the best scoring plays of a rack and returns them best first
+     *
+     * @param model, the BoardModel, with no pending letters
+     * @param crossChecks, the up to date CrossCheckTable of the model
+     * @param rack, how many of each letter code the player holds
+     * @param unseen, how many of each letter code the player cannot see (see unseenTiles)
+     * @param spread, the player's score minus the opponent's before the play
+     * @param numCandidates, how many of the best scoring plays to simulate
+     * @return a List of the Candidates, by mean equity, best first
+     */
+	public List<Candidate> simulate(BoardModel model, CrossCheckTable crossChecks, int[] rack,
+			int[] unseen, int spread, int numCandidates) {
+		TopMoves top = new TopMoves(numCandidates);
+		new MoveGenerator(words).generate(model, crossChecks, rack.clone(), top);
+		return simulate(model, crossChecks, rack, unseen, spread, top.toList());
+	}
+
+    /**
+     * This method simulates some candidate plays and returns them best first
+     *
+     * @param model, the BoardModel, with no pending letters
+     * @param crossChecks, the up to date CrossCheckTable of the model
+     * @param rack, how many of each letter code the player holds
+     * @param unseen, how many of each letter code the player cannot see (see unseenTiles)
+     * @param spread, the player's score minus the opponent's before the play
+     * @param moves, the candidate plays
+     * @return a List of the Candidates, by mean equity, best first
+     */
+	public List<Candidate> simulate(BoardModel model, CrossCheckTable crossChecks, int[] rack,
+			int[] unseen, int spread, List<Move> moves) {
+		List<Candidate> candidates = new ArrayList<Candidate>();
+		for (Move move : moves) {
+			candidates.add(new Candidate(new Move(move)));
+		}
+		List<Candidate> live = new ArrayList<Candidate>(candidates);
+		long start = System.nanoTime();
+		long budget = timeBudget >= NO_TIME_LIMIT / 1000000 ? NO_TIME_LIMIT : timeBudget * 1000000;
+		int done = 0;
+		while (done < maxIterations && (live.size() > 1 || done == 0) && !live.isEmpty()
+				&& (done == 0 || System.nanoTime() - start < budget)) {
+			int count = Math.min(batchSize, maxIterations - done);
+			double[][] equity = new double[live.size()][count];
+			double[][] wins = new double[live.size()][count];
+			List<PlayoutTask> tasks = new ArrayList<PlayoutTask>();
+			for (int c = 0; c < live.size(); c++) {
+				for (int i = 0; i < count; i++) {
+					tasks.add(new PlayoutTask(model, crossChecks, rack, unseen, spread,
+							live.get(c).getMove(), done + i, equity[c], wins[c], i));
+				}
+			}
+			pool.invoke(new RoundTask(tasks));
+			// the results are added in a fixed order, so the sums do not depend on the threads
+			for (int c = 0; c < live.size(); c++) {
+				for (int i = 0; i < count; i++) {
+					live.get(c).add(equity[c][i], wins[c][i]);
+				}
+			}
+			done += count;
+			if (done >= minIterations) {
+				prune(live);
+			}
+		}
+		Collections.sort(candidates, BY_EQUITY);
+		return candidates;
+	}
+
+	/**
+	 * Orders candidates by mean equity, best first, and then by Move.BEST_FIRST.
+	 */
+	private static final Comparator<Candidate> BY_EQUITY = new Comparator<Candidate>() {
+		@Override
+		public int compare(Candidate a, Candidate b) {
+			int order = Double.compare(b.getMeanEquity(), a.getMeanEquity());
+			return order != 0 ? order : Move.BEST_FIRST.compare(a.getMove(), b.getMove());
+		}
+	};
+
+    /**
+     * This is a private helper function that drops the candidates whose confidence interval
+     * lies wholly below the interval of the candidate with the best mean equity
+     *
+     * @param live, the candidates still being simulated
+     */
+	private static void prune(List<Candidate> live) {
+		Candidate best = Collections.min(live, BY_EQUITY);
+		double bestLow = best.getMeanEquity() - best.getEquityError();
+		for (int c = live.size() - 1; c >= 0; c--) {
+			Candidate candidate = live.get(c);
+			if (candidate != best
+					&& candidate.getMeanEquity() + candidate.getEquityError() < bestLow) {
+				candidate.pruned = true;
+				live.remove(c);
+			}
+		}
+	}
+
+	/**
+	 * Runs the playouts of one round.
+	 */
+	@SuppressWarnings("serial")
+	private static class RoundTask extends RecursiveAction {
+		private final List<PlayoutTask> tasks;
+
+		RoundTask(List<PlayoutTask> tasks) {
+			this.tasks = tasks;
+		}
+
+		@Override
+		protected void compute() {
+			ForkJoinTask.invokeAll(tasks);
+		}
+	}
+
+	/**
+	 * Plays out one candidate once and stores the equity and the win.
+	 */
+	@SuppressWarnings("serial")
+	private class PlayoutTask extends RecursiveAction {
+		private final BoardModel model;
+		private final CrossCheckTable crossChecks;
+		private final int[] rack;
+		private final int[] unseen;
+		private final int spread;
+		private final Move move;
+		private final int iteration;
+		private final double[] equity;
+		private final double[] wins;
+		private final int slot;
+
+		PlayoutTask(BoardModel model, CrossCheckTable crossChecks, int[] rack, int[] unseen,
+				int spread, Move move, int iteration, double[] equity, double[] wins, int slot) {
+			this.model = model;
+			this.crossChecks = crossChecks;
+			this.rack = rack;
+			this.unseen = unseen;
+			this.spread = spread;
+			this.move = move;
+			this.iteration = iteration;
+			this.equity = equity;
+			this.wins = wins;
+			this.slot = slot;
+		}
+
+		@Override
+		protected void compute() {
+			SplittableRandom random = new SplittableRandom(seed ^ (iteration * 0x9E3779B97F4A7C15L));
+			BoardModel board = new BoardModel(model);
+			CrossCheckTable checks = new CrossCheckTable(crossChecks, board);
+			Bag bag = new Bag(unseen, random);
+			int[] own = rack.clone();
+			int[] opponent = new int[Letters.COUNT + 1];
+			// the opponent's rack is drawn before the player refills, as it is already there
+			draw(bag, opponent);
+			int delta = play(board, checks, move, own);
+			draw(bag, own);
+			boolean over = size(own) == 0;
+			if (over) {
+				delta += 2 * value(board, opponent);
+			}
+			ComputerPlayer player = players.get();
+			player.setLeaveTable(leaves);
+			for (int ply = 0; ply < plies && !over; ply++) {
+				boolean opponentMoves = ply % 2 == 0;
+				int[] mover = opponentMoves ? opponent : own;
+				Move reply = player.chooseMove(board, checks, mover);
+				if (reply == null) {
+					continue;
+				}
+				int points = play(board, checks, reply, mover);
+				draw(bag, mover);
+				if (size(mover) == 0) {
+					points += 2 * value(board, opponentMoves ? own : opponent);
+					over = true;
+				}
+				delta += opponentMoves ? -points : points;
+			}
+			equity[slot] = delta + (over ? 0 : player.rateLeave(own));
+			int finalSpread = spread + delta;
+			wins[slot] = finalSpread > 0 ? 1 : finalSpread == 0 ? 0.5 : 0;
+		}
+	}
+
+    /**
+     * This is a private helper function that makes a play on a board: its tiles are placed,
+     * finalized and taken off the rack, and the cross-checks are brought up to date
+     *
+     * @param board, the BoardModel
+     * @param checks, the CrossCheckTable of the board
+     * @param move, the play
+     * @param rack, the rack the tiles come from
+     * @return an int, the play's score
+     */
+	private static int play(BoardModel board, CrossCheckTable checks, Move move, int[] rack) {
+		int[] squares = new int[move.getNumTiles()];
+		int n = 0;
+		for (int i = 0; i < move.getLength(); i++) {
+			if (move.isNew(i)) {
+				squares[n++] = move.getSquare(i);
+				rack[move.getLetter(i)]--;
+			}
+		}
+		move.placeOn(board);
+		board.finalizeAll();
+		checks.update(squares, n);
+		return move.getScore();
+	}
+
+    /**
+     * This is a private helper function that fills a rack up to seven tiles from a bag
+     *
+     * @param bag, the Bag of the playout
+     * @param rack, the rack to fill
+     */
+	private static void draw(Bag bag, int[] rack) {
+		for (int n = size(rack); n < Player.NUM_TILES && !bag.noMoreTiles(); n++) {
+			rack[bag.takeCode()]++;
+		}
+	}
+
+    /**
+     * This is a private helper function that returns the number of tiles on a rack
+     *
+     * @param rack, how many of each letter code the rack holds
+     * @return an int, the number of tiles
+     */
+	private static int size(int[] rack) {
+		int size = 0;
+		for (int code = 1; code <= Letters.COUNT; code++) {
+			size += rack[code];
+		}
+		return size;
+	}
+
+    /**
+     * This is a private helper function that returns the face value of the tiles on a rack
+     *
+     * @param board, the BoardModel, for the letter values
+     * @param rack, how many of each letter code the rack holds
+     * @return an int, the sum of the tiles' values
+     */
+	private static int value(BoardModel board, int[] rack) {
+		int value = 0;
+		for (int code = 1; code <= Letters.COUNT; code++) {
+			value += rack[code] * board.getLetterValue(code);
+		}
+		return value;
+	}
+}
@@ -0,0 +1,131 @@
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class checks that a Simulator gives the same results whatever the number of threads it
+ * runs on. Seeded self-play games, in which each player makes the play with the best equity,
+ * give a set of positions while the Bag still has tiles. Each position is simulated on pools of
+ * 1, 2 and 4 threads with no time budget, and every candidate of every run must come out the
+ * same: the same order, the same number of playouts, the same sums and the same candidates
+ * dropped. It also counts how often the simulation chooses a different play than the best
+ * equity would, and times the simulations.
+ * <p>
+ * Usage: java SimulatorCheck [games] [seed]
+ */
+public class SimulatorCheck {
+	private static final int DEFAULT_GAMES = 2;
+	private static final int[] THREADS = { 1, 2, 4 };
+
+	// a position is simulated every this many turns
+	private static final int TURNS_APART = 3;
+
+	public static void main(String[] args) throws IOException {
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : 0;
+
+		ScrabbleRules rules = new ScrabbleRules();
+		if (rules.getDictionary() == null) {
+			throw new IOException("the word list could not be read");
+		}
+		Dawg words = rules.getDictionary().getWordGraph();
+		ComputerPlayer greedy = new ComputerPlayer(words);
+		greedy.setTimeBudget(Integer.MAX_VALUE);
+		greedy.setLeaveTable(rules.getLeaveTable());
+		ComputerPlayer candidates = new ComputerPlayer(words);
+		candidates.setTimeBudget(Integer.MAX_VALUE);
+		candidates.setLeaveTable(rules.getLeaveTable());
+
+		ForkJoinPool[] pools = new ForkJoinPool[THREADS.length];
+		Simulator[] simulators = new Simulator[THREADS.length];
+		for (int t = 0; t < THREADS.length; t++) {
+			pools[t] = new ForkJoinPool(THREADS[t]);
+			simulators[t] = new Simulator(words, pools[t]);
+			simulators[t].setLeaveTable(rules.getLeaveTable());
+		}
+		candidates.setSimulator(simulators[0], ComputerPlayer.DEFAULT_CANDIDATES);
+
+		int positions = 0;
+		int differ = 0;
+		int changed = 0;
+		long[] nanos = new long[THREADS.length];
+		for (int game = 0; game < games; game++) {
+			BoardModel model = new BoardModel(rules.getLetterValues());
+			GameState state = new GameState(model, new CrossCheckTable(model, words),
+					new Bag(rules.getTileDistribution(), new SplittableRandom(seed + game)));
+			MoveJournal journal = new MoveJournal();
+			state.deal(0, journal);
+			state.deal(1, journal);
+			int passes = 0;
+			for (int turn = 0, player = 0; passes < 2; turn++, player = 1 - player) {
+				int[] rack = state.getRack(player);
+				Move move = greedy.chooseMove(model, state.getCrossChecks(), rack);
+				if (move == null) {
+					passes++;
+					continue;
+				}
+				passes = 0;
+				if (turn % TURNS_APART == 0 && !state.getBag().noMoreTiles()) {
+					int[] unseen = Simulator.unseenTiles(rules.getTileDistribution(), model, rack);
+					int spread = state.getScore(player) - state.getScore(1 - player);
+					String expected = null;
+					for (int t = 0; t < THREADS.length; t++) {
+						long start = System.nanoTime();
+						List<Simulator.Candidate> results = simulators[t].simulate(model,
+								state.getCrossChecks(), rack, unseen, spread,
+								ComputerPlayer.DEFAULT_CANDIDATES);
+						nanos[t] += System.nanoTime() - start;
+						String outcome = describe(results);
+						if (expected == null) {
+							expected = outcome;
+						} else if (!outcome.equals(expected)) {
+							differ++;
+							System.out.println("position " + positions + " differs on "
+									+ THREADS[t] + " threads");
+						}
+					}
+					Move chosen = candidates.chooseMove(model, state.getCrossChecks(), rack,
+							unseen, spread);
+					if (Move.BEST_FIRST.compare(chosen, move) != 0) {
+						changed++;
+					}
+					positions++;
+				}
+				state.play(player, move, journal);
+			}
+		}
+		for (ForkJoinPool pool : pools) {
+			pool.shutdown();
+		}
+
+		System.out.println(positions + " positions simulated, " + differ + " differ between "
+				+ "thread counts");
+		for (int t = 0; t < THREADS.length; t++) {
+			System.out.printf("%d threads: %.0f ms a position%n", THREADS[t],
+					nanos[t] / 1000000.0 / Math.max(1, positions));
+		}
+		System.out.println("the simulation chose another play than the best equity on "
+				+ changed + " of " + positions);
+	}
+
+    /**
+     * This is a private helper function that writes down everything a simulation found
+     *
+     * @param results, the Candidates, best first
+     * @return a String, equal for two simulations only if they found the same
+     */
+	private static String describe(List<Simulator.Candidate> results) {
+		List<String> lines = new ArrayList<String>();
+		for (Simulator.Candidate candidate : results) {
+			lines.add(candidate.getMove() + " " + candidate.getIterations() + " "
+					+ Double.doubleToLongBits(candidate.getMeanEquity()) + " "
+					+ Double.doubleToLongBits(candidate.getEquityError()) + " "
+					+ Double.doubleToLongBits(candidate.getWinRate()) + " " + candidate.isPruned());
+		}
+		return lines.toString();
+	}
+}
@@ -7,77 +7,45 @@ import javax.swing.JButton;
 
 @SuppressWarnings("serial")
 public class Tile extends JButton {
-	private String letter;
-	private int value;
-	private boolean isEmpty;
-	private int letterMultiplier;
-	private int wordMultiplier;
-	private boolean finalized;
+	private BoardModel model;
+	private int square;
 	private int buttonIndex;
 	private ScrabbleRules rules;
 
 	/**
-	 * This class models each Tile on the Board in the game. Thus, it stores the letter and value
-	 * of each Tile, as well as its letterMultiplier, wordMultiplier and several other fields in
-	 * its state. The Tile Models each of the spaces on a physical Scrabble board. All the Tiles
-	 * here are contained within the Board object. There are methods here that are provided for
-	 * the interaction between Tile and other classes.
+	 * This class models each Tile on the Board in the game. The letter, value, multipliers and
+	 * finalized state of each Tile live in the Board's BoardModel, and a Tile is the button that
+	 * views one square of that model. The Tile Models each of the spaces on a physical Scrabble
+	 * board. All the Tiles here are contained within the Board object. There are methods here
+	 * that are provided for the interaction between Tile and other classes.
 	 */
-	Tile(int letterMultiplier, int wordMultiplier, ScrabbleRules rules) {
+	Tile(BoardModel model, int square, ScrabbleRules rules) {
 		super(" ");
-		letter = " ";
-		value = 0;
-		isEmpty = true;
-		this.letterMultiplier = letterMultiplier;
-		this.wordMultiplier = wordMultiplier;
-		this.finalized = false;
+		this.model = model;
+		this.square = square;
 		this.buttonIndex = -1;
 		this.rules = rules;
 	}
 	
-    /**
-     * This method makes a Copy of the Tile with the same exact state
-     * 
-     * @return an Tile that is a copy of the current Tile
-     */
-	public Tile makeCopy() {
-		Tile duplicate = new Tile(this.letterMultiplier, this.wordMultiplier, rules);
-		if (this.letter != " ") {
-			duplicate.setTile(this.letter, this.value);
-			duplicate.finalize();
-		} 
-		duplicate.setText(this.getText());
-		duplicate.setFont(this.getFont());
-		return duplicate; 
-	}
-	
     /**
      * This method gets the letter of the current Tile
      * 
      * @return an String that is the letter of the current Tile
      */
 	public String getLetter() {
-		String returnedLetter = this.letter;
-		return returnedLetter;
+		return Letters.decode(model.getLetter(square));
 	}
 	
     /**
-     * This method sets the Tiles to a specific letter and value
+     * This method sets the Tiles to a specific letter. The value always comes from the
+     * ScrabbleRules, through the model's letter values.
      * 
      * @param letter, a String that is the new letter that the Tile is getting
      * @param vlaue, an int that is the corresponding value to the new letter
-     * @return an int of the current points the player has
+     * @return none
      */
 	public void setTile(String letter, int value) {
-		this.letter = letter;
-		this.value = value;
-		if (letter.equals(" ")) {
-			this.value = 0;
-			this.isEmpty = true;
-		} else {
-			this.value = rules.getValue(letter);
-			this.isEmpty = false;
-		}
+		model.setLetter(square, Letters.encode(letter));
 	}
 	
     /**
@@ -91,8 +59,8 @@ public class Tile extends JButton {
      */
 	public void putLetterOnTile(int tileIndex, Player currentPlayer) {
 		String newLetter = currentPlayer.getLetter(tileIndex);
-		if (this.letter != " ") {
-			String oldLetter = this.letter;
+		if (!this.isEmpty()) {
+			String oldLetter = this.getLetter();
 			currentPlayer.returnLetter(buttonIndex, oldLetter);
 		} else {
 			currentPlayer.removeLetter(tileIndex);
@@ -112,8 +80,8 @@ public class Tile extends JButton {
      * @return none
      */
 	public void removeLetterFromTile(int tileIndex, Player currentPlayer) {
-		if (this.letter != " ") {
-			String oldLetter = this.letter;
+		if (!this.isEmpty()) {
+			String oldLetter = this.getLetter();
 			this.setTile(" ", 0);
 			this.initialDraw();
 			currentPlayer.returnLetter(this.buttonIndex, oldLetter);
@@ -121,6 +89,16 @@ public class Tile extends JButton {
 		}
 	}
 	
+    /**
+     * This method gets the index of the Player's Tile Button that the letter on this Tile came
+     * from during the current turn
+     * 
+     * @return an int, the index of the Button, or -1 if the letter was not placed this turn
+     */
+	public int getButtonIndex() {
+		return buttonIndex;
+	}
+	
     /**
      * This method "finalizes" a Tile by updating its state. This essentially prevents the 
      * Tile's letter from ever being changed in the future.
@@ -128,11 +106,8 @@ public class Tile extends JButton {
      * @return none
      */
 	public void finalize() {
-		this.finalized = true;
+		model.finalizeSquare(square);
 		this.buttonIndex = -1;
-		this.isEmpty = false;
-		this.letterMultiplier = 1;
-		this.wordMultiplier = 1;
 		this.setBackground(new Color(245, 245, 220));
 	}
 	
@@ -142,7 +117,7 @@ public class Tile extends JButton {
      * @return a boolean, whether or not the Tile is finalized
      */
 	public boolean isFinalized() {
-		return finalized;
+		return model.isFinalized(square);
 	}
 	
     /**
@@ -152,8 +127,7 @@ public class Tile extends JButton {
      * @return an int, that is the total Tile Value
      */
 	public int getValue() {
-		int oldMultiplier = letterMultiplier;
-		return oldMultiplier * value;
+		return model.getValue(square);
 	}
 	
     /**
@@ -162,7 +136,7 @@ public class Tile extends JButton {
      * @return an int, that is the letterMultiplier of the current Tile
      */
 	public int getLetterMultiplier() {
-		return this.letterMultiplier;
+		return model.getLetterMultiplier(square);
 	}
 	
     /**
@@ -171,7 +145,7 @@ public class Tile extends JButton {
      * @return an int, that is the wordMultiplier of the current Tile
      */
 	public int getWordMultiplier() {
-		return this.wordMultiplier;
+		return model.getWordMultiplier(square);
 	}
 
     /**
@@ -218,6 +192,6 @@ public class Tile extends JButton {
      * @return a boolean, whether or not the Tile is empty
      */
 	public boolean isEmpty() {
-		return this.isEmpty;
+		return model.isEmpty(square);
 	}
 }
@@ -2,13 +2,38 @@
 
 import java.io.IOException;
 import java.io.Reader;
-import java.io.StringWriter;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
 public class TokenScanner implements Iterator<String> {
+	private static final int BLOCK_SIZE = 8192;
+
 	private Reader reader;
 	private int c;
+
+	// the block of characters read from the reader; c is block[pos - 1] while it is in the block
+	private char[] block = new char[BLOCK_SIZE];
+	private int pos = 0;
+	private int limit = 0;
+
+	// the characters of a token that started in an earlier block
+	private char[] spill = new char[64];
+	private int spillLength = 0;
+
+	// the start of the token being scanned, and where the last token scanned is
+	private int tokenStart = -1;
+	private char[] tokenChars;
+	private int tokenOffset;
+	private int tokenLength;
+
+	/**
+	 * Receives the words found by forEachWord(). The characters of a word are only valid until
+	 * the method returns, since the scanner reuses its buffers for the next word.
+	 */
+	public interface WordHandler {
+		void word(char[] chars, int start, int length);
+	}
     
     /**
      * Creates a TokenScanner for the argued Reader.
@@ -18,6 +43,9 @@ public class TokenScanner implements Iterator<String> {
      * compute
      * all of the tokens in advance.
      * <p>
+     * Characters are read from the Reader in blocks of BLOCK_SIZE and token boundaries are found
+     * by indexing into the block, so the scanner reads at most one block ahead of the tokens it
+     * has returned.
      *
      * @param in The source Reader for character data
      * @throws IOException If there is an error in reading
@@ -28,7 +56,95 @@ public class TokenScanner implements Iterator<String> {
         	throw new IllegalArgumentException("input is null");
         }
         	reader = in;
-        	c = reader.read();
+        	limit = readBlock();
+        	c = limit > 0 ? block[pos++] : -1;
+    }
+
+    /**
+     * This is a private helper function that fills the block from the Reader.
+     *
+     * @return the number of characters read, or -1 at the end of the stream
+     * @throws IOException If there is an error in reading
+     */
+    private int readBlock() throws IOException {
+    	int n = 0;
+    	while (n == 0) {
+    		n = reader.read(block, 0, block.length);
+    	}
+    	return n;
+    }
+
+    /**
+     * This is a private helper function that returns the next character, reading a new block
+     * when the current one is used up. Any part of the current token that is still in the old
+     * block is moved to the spill buffer first.
+     *
+     * @return the next character, or -1 at the end of the stream
+     */
+    private int read() {
+    	if (pos == limit) {
+    		if (tokenStart >= 0) {
+    			int length = limit - tokenStart;
+    			if (spillLength + length > spill.length) {
+    				spill = Arrays.copyOf(spill, Math.max(spill.length * 2, spillLength + length));
+    			}
+    			System.arraycopy(block, tokenStart, spill, spillLength, length);
+    			spillLength += length;
+    			tokenStart = 0;
+    		}
+    		pos = 0;
+    		try {
+    			limit = Math.max(readBlock(), 0);
+    		} catch (IOException e) {
+    			limit = 0;
+    		}
+    		if (limit == 0) {
+    			return -1;
+    		}
+    	}
+    	return block[pos++];
+    }
+
+    /**
+     * This is a private helper function that reads the next token and records where its
+     * characters are in tokenChars, tokenOffset and tokenLength. A word token is a run of word
+     * characters. Any other token runs until the next word character, except that an 'n' right
+     * after a backslash stays part of the non-word token.
+     *
+     * @return whether the token is a word
+     */
+    private boolean scanToken() {
+    	tokenStart = pos - 1;
+    	spillLength = 0;
+    	boolean isWord = isWordCharacter(c);
+    	if (isWord) {
+    		while (c != -1 && isWordCharacter(c)) {
+    			c = read();
+    		}
+    	} else {
+    		int prev = c;
+    		while ((c != -1 && (!isWordCharacter(c) || (prev == '\\' && c == 'n')))) {
+    			prev = c;
+    			c = read();
+    		}
+    	}
+    	int end = (c == -1) ? limit : pos - 1;
+    	if (spillLength == 0) {
+    		tokenChars = block;
+    		tokenOffset = tokenStart;
+    		tokenLength = end - tokenStart;
+    	} else {
+    		int length = end - tokenStart;
+    		if (spillLength + length > spill.length) {
+    			spill = Arrays.copyOf(spill, spillLength + length);
+    		}
+    		System.arraycopy(block, tokenStart, spill, spillLength, length);
+    		tokenChars = spill;
+    		tokenOffset = 0;
+    		tokenLength = spillLength + length;
+    	}
+    	tokenStart = -1;
+    	return isWord;
     }
 
     /**
@@ -85,25 +201,27 @@ public class TokenScanner implements Iterator<String> {
         if (!hasNext()) {
         	throw new NoSuchElementException();
         }
-    	StringWriter buf = new StringWriter();
-    	try {
-			if (isWordCharacter(c)) {
-				while (c != -1 && isWordCharacter(c)) {
-				buf.write(c);
-				c = reader.read();
-				}
-			} else {
-				int prev = c;
-				while ((c != -1 && (!isWordCharacter(c) || (prev == '\\' && c == 'n')))) {
-					prev = c;
-					buf.write(c);
-					c = reader.read();
-				}
-			}
-		} catch (IOException e) {
-		
-		} 
-        return buf.toString();
+    	scanToken();
+        return new String(tokenChars, tokenOffset, tokenLength);
+    }
+
+    /**
+     * Reads the rest of the tokens and passes each word token to the handler without making a
+     * String for it. Non-word tokens are skipped exactly as next() would return them, so the
+     * handler sees the same words, in the same order, as a loop over next() and isWord().
+     *
+     * @param handler The receiver of the words
+     * @throws IllegalArgumentException If the handler is null
+     */
+    public void forEachWord(WordHandler handler) {
+    	if (handler == null) {
+    		throw new IllegalArgumentException("handler is null");
+    	}
+    	while (hasNext()) {
+    		if (scanToken()) {
+    			handler.word(tokenChars, tokenOffset, tokenLength);
+    		}
+    	}
     }
 
     /**
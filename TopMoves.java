@@ -0,0 +1,79 @@
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * This class keeps the best few plays offered to it, in the order of Move.BEST_FIRST. It can be
+ * used as the MoveHandler of a MoveGenerator: each play it keeps is copied into a Move of its
+ * own, and once it is full those Moves are reused for better plays, so it creates at most
+ * capacity Moves however many plays it is offered.
+ */
+public class TopMoves implements MoveGenerator.MoveHandler {
+	private final int capacity;
+
+	// the worst kept play is at the head
+	private final PriorityQueue<Move> heap;
+
+    /**
+     * Constructs an empty TopMoves.
+     *
+     * @param capacity, the number of plays to keep
+     */
+	public TopMoves(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be at least 1");
+		}
+		this.capacity = capacity;
+		this.heap = new PriorityQueue<Move>(capacity, Collections.reverseOrder(Move.BEST_FIRST));
+	}
+
+    /**
+     * This method keeps a copy of a play if it is one of the best so far
+     *
+     * @param move, the play, which is not kept itself
+     */
+	@Override
+	public void move(Move move) {
+		if (heap.size() < capacity) {
+			heap.add(new Move(move));
+		} else if (Move.BEST_FIRST.compare(move, heap.peek()) < 0) {
+			Move worst = heap.poll();
+			worst.copyFrom(move);
+			heap.add(worst);
+		}
+	}
+
+    /**
+     * This method offers every play kept by another TopMoves to this one
+     *
+     * @param other, the TopMoves to merge in, which is left unchanged
+     */
+	public void addAll(TopMoves other) {
+		for (Move move : other.heap) {
+			move(move);
+		}
+	}
+
+    /**
+     * This method returns the number of plays kept
+     *
+     * @return an int, at most the capacity
+     */
+	public int size() {
+		return heap.size();
+	}
+
+    /**
+     * This method returns the plays kept, best first
+     *
+     * @return a new List of the kept Moves
+     */
+	public List<Move> toList() {
+		List<Move> moves = new ArrayList<Move>(heap);
+		Collections.sort(moves, Move.BEST_FIRST);
+		return moves;
+	}
+}
@@ -0,0 +1,221 @@
+
+
+/**
+ * This class keeps track of the tiles a player cannot see, and answers how likely a draw is.
+ * It counts the tiles of each letter that are not finalized on the board: the tiles in the Bag
+ * and on both racks. The tiles a player cannot see are those less the player's own Rack, so one
+ * tracker serves both players. A tile put on or taken off the board costs one update, and a
+ * tile taken from the Bag or exchanged needs none, as it only moves between the Bag and a Rack,
+ * which counts its own letters.
+ * <p>
+ * The tiles a player will draw are equally likely to be any of the tiles the player cannot
+ * see, since the player cannot tell which of them are on the opponent's rack. The chances are
+ * hypergeometric, and are worked out from a table of binomial coefficients made once for the
+ * whole program, so a question costs a few multiplications rather than a pass over the
+ * possible draws.
+ */
+public class UnseenTiles {
+	/** The most tiles a game can have for the binomial table. */
+	public static final int MAX_TILES = 128;
+
+	// BINOMIAL[n][k] is n choose k
+	private static final double[][] BINOMIAL = new double[MAX_TILES + 1][];
+
+	static {
+		for (int n = 0; n <= MAX_TILES; n++) {
+			BINOMIAL[n] = new double[n + 1];
+			BINOMIAL[n][0] = 1;
+			BINOMIAL[n][n] = 1;
+			for (int k = 1; k < n; k++) {
+				BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + BINOMIAL[n - 1][k];
+			}
+		}
+	}
+
+	private final int[] counts = new int[Letters.COUNT + 1];
+	private int total;
+
+    /**
+     * Constructs an UnseenTiles for an empty board.
+     *
+     * @param distribution, how many tiles of each letter code a game has
+     * 			(see ScrabbleRules.getTileDistribution)
+     * @throws IllegalArgumentException if the game has more than MAX_TILES tiles
+     */
+	public UnseenTiles(int[] distribution) {
+		for (int code = 1; code <= Letters.COUNT; code++) {
+			counts[code] = distribution[code];
+			total += distribution[code];
+		}
+		if (total > MAX_TILES) {
+			throw new IllegalArgumentException("too many tiles: " + total);
+		}
+	}
+
+    /**
+     * This method records that a tile was finalized on the board
+     *
+     * @param code, the letter code of the tile
+     */
+	public void place(int code) {
+		if (code != Letters.NONE) {
+			counts[code]--;
+			total--;
+		}
+	}
+
+    /**
+     * This method records that a finalized tile was taken off the board, when a turn is taken
+     * back
+     *
+     * @param code, the letter code of the tile
+     */
+	public void remove(int code) {
+		if (code != Letters.NONE) {
+			counts[code]++;
+			total++;
+		}
+	}
+
+    /**
+     * This method returns how many tiles of a letter a player cannot see
+     *
+     * @param code, the letter code
+     * @param rack, the player's Rack
+     * @return an int, the number of tiles in the Bag and on the opponent's rack
+     */
+	public int getCount(int code, Rack rack) {
+		return counts[code] - rack.count(code);
+	}
+
+    /**
+     * This method returns how many tiles a player cannot see
+     *
+     * @param rack, the player's Rack
+     * @return an int, the number of tiles in the Bag and on the opponent's rack
+     */
+	public int size(Rack rack) {
+		return total - rack.size();
+	}
+
+    /**
+     * This method returns how many tiles of each letter a player cannot see
+     *
+     * @param rack, the player's Rack
+     * @return a new int[], indexed by letter code
+     */
+	public int[] getCounts(Rack rack) {
+		int[] unseen = new int[Letters.COUNT + 1];
+		for (int code = 1; code <= Letters.COUNT; code++) {
+			unseen[code] = counts[code] - rack.count(code);
+		}
+		return unseen;
+	}
+
+    /**
+     * This method returns the chance that a player draws at least a number of tiles of a letter
+     *
+     * @param rack, the player's Rack
+     * @param code, the letter code
+     * @param atLeast, the number of tiles of the letter wanted
+     * @param draws, the number of tiles drawn
+     * @return a double, the probability, from 0 to 1
+     */
+	public double chanceOfDrawing(Rack rack, int code, int atLeast, int draws) {
+		int pool = size(rack);
+		int letter = getCount(code, rack);
+		draws = Math.min(draws, pool);
+		double ways = 0;
+		for (int k = Math.max(atLeast, 0); k <= Math.min(letter, draws); k++) {
+			ways += choose(letter, k) * choose(pool - letter, draws - k);
+		}
+		return ways / choose(pool, draws);
+	}
+
+    /**
+     * This method returns the chance that a player draws at least the given tiles, such as the
+     * letters that would make the player's leave a likely bingo
+     *
+     * @param rack, the player's Rack
+     * @param wanted, how many tiles of each letter code are wanted
+     * @param draws, the number of tiles drawn
+     * @return a double, the probability, from 0 to 1
+     */
+	public double chanceOfDrawing(Rack rack, int[] wanted, int draws) {
+		int pool = size(rack);
+		draws = Math.min(draws, pool);
+		int[] letters = new int[Letters.COUNT];
+		int numLetters = 0;
+		int others = pool;
+		for (int code = 1; code <= Letters.COUNT; code++) {
+			if (wanted[code] > 0) {
+				letters[numLetters++] = code;
+				others -= getCount(code, rack);
+			}
+		}
+		return ways(rack, wanted, letters, numLetters, 0, draws, others) / choose(pool, draws);
+	}
+
+    /**
+     * This method returns the tiles a player cannot see, for a label: each letter as many
+     * times as it is unseen, in alphabetical order
+     *
+     * @param rack, the player's Rack
+     * @return a String, such as "AAB EE"
+     */
+	public String describe(Rack rack) {
+		StringBuilder letters = new StringBuilder();
+		for (int code = 1; code <= Letters.COUNT; code++) {
+			int count = getCount(code, rack);
+			if (count > 0 && letters.length() > 0) {
+				letters.append(' ');
+			}
+			for (int i = 0; i < count; i++) {
+				letters.append(Letters.decode(code));
+			}
+		}
+		return letters.toString();
+	}
+
+    /**
+     * This method returns a binomial coefficient from the table
+     *
+     * @param n, the number of things, from 0 to MAX_TILES
+     * @param k, the number chosen
+     * @return a double, n choose k, or 0 if k is less than 0 or more than n
+     */
+	public static double choose(int n, int k) {
+		if (k < 0 || k > n) {
+			return 0;
+		}
+		return BINOMIAL[n][k];
+	}
+
+    /**
+     * This is a private helper function that counts the draws holding at least the wanted
+     * tiles of the letters from one on, by choosing how many of that letter are drawn
+     *
+     * @param rack, the player's Rack
+     * @param wanted, how many tiles of each letter code are wanted
+     * @param letters, the letter codes that are wanted
+     * @param numLetters, the number of letter codes that are wanted
+     * @param i, the first letter not chosen yet
+     * @param draws, the number of tiles still to draw
+     * @param others, the number of unseen tiles that are not wanted
+     * @return a double, the number of draws
+     */
+	private double ways(Rack rack, int[] wanted, int[] letters, int numLetters, int i,
+			int draws, int others) {
+		if (i == numLetters) {
+			return choose(others, draws);
+		}
+		int code = letters[i];
+		int letter = getCount(code, rack);
+		double ways = 0;
+		for (int k = wanted[code]; k <= Math.min(letter, draws); k++) {
+			ways += choose(letter, k)
+					* ways(rack, wanted, letters, numLetters, i + 1, draws - k, others);
+		}
+		return ways;
+	}
+}
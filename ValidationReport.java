@@ -0,0 +1,143 @@
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class is the result of checking the letters placed during a turn (see MoveValidator).
+ * It lists every word the new letters form, where the word is on the Board and whether it is
+ * in the Dictionary, so the game can tell a player exactly which word was rejected.
+ */
+public class ValidationReport {
+	private final List<CheckedWord> words = new ArrayList<CheckedWord>();
+	private boolean isolatedTile = false;
+
+	/**
+	 * A word formed by the new letters, and the result of looking it up.
+	 */
+	public static class CheckedWord {
+		private final String word;
+		private final int startSquare;
+		private final boolean direction;
+		private final boolean valid;
+
+		CheckedWord(String word, int startSquare, boolean direction, boolean valid) {
+			this.word = word;
+			this.startSquare = startSquare;
+			this.direction = direction;
+			this.valid = valid;
+		}
+
+	    /**
+	     * This method returns the letters of the word, in upper case
+	     *
+	     * @return a String, the word
+	     */
+		public String getWord() {
+			return word;
+		}
+
+	    /**
+	     * This method returns the square of the word's first letter
+	     *
+	     * @return an int, the square's number (see BoardModel.index)
+	     */
+		public int getStartSquare() {
+			return startSquare;
+		}
+
+	    /**
+	     * This method returns the direction the word is read in
+	     *
+	     * @return a boolean, BoardModel.ACROSS or BoardModel.DOWN
+	     */
+		public boolean getDirection() {
+			return direction;
+		}
+
+	    /**
+	     * This method returns whether or not the word is in the Dictionary
+	     *
+	     * @return a boolean, whether the word is legal
+	     */
+		public boolean isValid() {
+			return valid;
+		}
+
+		@Override
+		public String toString() {
+			return word + (valid ? "" : " (not a word)");
+		}
+	}
+
+    /**
+     * This method records a word that was checked
+     *
+     * @param word, the letters of the word
+     * @param startSquare, the square of the first letter
+     * @param direction, BoardModel.ACROSS or BoardModel.DOWN
+     * @param valid, whether the word is in the Dictionary
+     */
+	void addWord(String word, int startSquare, boolean direction, boolean valid) {
+		words.add(new CheckedWord(word, startSquare, direction, valid));
+	}
+
+    /**
+     * This method records that a new letter was placed with no letter next to it
+     */
+	void setIsolatedTile() {
+		isolatedTile = true;
+	}
+
+    /**
+     * This method returns whether or not a new letter was placed with no letter next to it
+     *
+     * @return a boolean, whether some new letter stands alone
+     */
+	public boolean hasIsolatedTile() {
+		return isolatedTile;
+	}
+
+    /**
+     * This method returns every word that was checked, the main word first
+     *
+     * @return an unmodifiable List of the checked words
+     */
+	public List<CheckedWord> getWords() {
+		return Collections.unmodifiableList(words);
+	}
+
+    /**
+     * This method returns the words that are not in the Dictionary
+     *
+     * @return a List of the rejected words
+     */
+	public List<CheckedWord> getInvalidWords() {
+		List<CheckedWord> invalid = new ArrayList<CheckedWord>();
+		for (CheckedWord word : words) {
+			if (!word.isValid()) {
+				invalid.add(word);
+			}
+		}
+		return invalid;
+	}
+
+    /**
+     * This method returns whether or not the turn only forms legal words and leaves no new
+     * letter standing alone
+     *
+     * @return a boolean, whether the turn's words are all legal
+     */
+	public boolean isValid() {
+		if (isolatedTile) {
+			return false;
+		}
+		for (CheckedWord word : words) {
+			if (!word.isValid()) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,115 @@
+
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+/**
+ * This class times Dictionary.isWord on hits and misses, comparing the three ways of checking
+ * a word: the TreeSet of Strings the Dictionary used to keep, which lower cases every query,
+ * the word graph, and the PackedWordSet of withPackedLookup. The hits are random words of the
+ * list in upper case, the way the Board asks for them, and the misses are other words with
+ * one letter changed so that they are no longer words. The three must agree on every query,
+ * and the number of disagreements is printed as a check.
+ * <p>
+ * Each lookup is timed over several rounds, after the first has warmed up the JIT, and the
+ * fastest round is reported. The queries come from a fixed seed, so a run can be repeated.
+ * <p>
+ * Usage: java WordLookupBenchmark [queries] [dictionaryFile]
+ */
+public class WordLookupBenchmark {
+	private static final int DEFAULT_QUERIES = 2000000;
+	private static final String DEFAULT_DICTIONARY = "files/Scrabble_Dictionary.txt";
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) throws IOException {
+		int queries = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_QUERIES;
+		String file = args.length > 1 ? args[1] : DEFAULT_DICTIONARY;
+
+		Dictionary graph = Dictionary.make(file);
+		Dictionary packed = graph.withPackedLookup();
+		String[] words = new String[graph.getNumWords()];
+		int n = 0;
+		TreeSet<String> tree = new TreeSet<String>();
+		for (String word : graph.getWordGraph()) {
+			words[n++] = word;
+			tree.add(word);
+		}
+
+		SplittableRandom random = new SplittableRandom(7);
+		String[] hits = new String[queries];
+		String[] misses = new String[queries];
+		for (int i = 0; i < queries; i++) {
+			hits[i] = words[random.nextInt(words.length)].toUpperCase();
+			String miss;
+			do {
+				char[] letters = words[random.nextInt(words.length)].toUpperCase().toCharArray();
+				letters[random.nextInt(letters.length)] = (char) ('A' + random.nextInt(26));
+				miss = new String(letters);
+			} while (tree.contains(miss.toLowerCase()));
+			misses[i] = miss;
+		}
+
+		int disagreements = 0;
+		for (String[] set : new String[][] { hits, misses }) {
+			for (String word : set) {
+				boolean expected = treeLookup(tree, word);
+				if (graph.isWord(word) != expected || packed.isWord(word) != expected) {
+					disagreements++;
+				}
+			}
+		}
+		System.out.printf("%d words, %d hits and %d misses, %d disagreements%n", words.length,
+				queries, queries, disagreements);
+
+		String[] names = { "TreeSet", "Dawg", "packed" };
+		for (int kind = 0; kind < names.length; kind++) {
+			System.out.printf("%-8s hits %5.0f ns, misses %5.0f ns%n", names[kind],
+					time(kind, tree, graph, packed, hits), time(kind, tree, graph, packed, misses));
+		}
+	}
+
+    /**
+     * This is a private helper function that checks a word the way the Dictionary used to,
+     * with a TreeSet of lower case Strings
+     *
+     * @param tree, the TreeSet of every word
+     * @param word, the word to check
+     * @return a boolean, whether or not the word is in the set
+     */
+	private static boolean treeLookup(TreeSet<String> tree, String word) {
+		return TokenScanner.isWord(word) && tree.contains(word.toLowerCase());
+	}
+
+    /**
+     * This is a private helper function that returns the fastest time per lookup of one kind
+     * over ROUNDS rounds
+     *
+     * @param kind, 0 for the TreeSet, 1 for the word graph and 2 for the PackedWordSet
+     * @param tree, the TreeSet of every word
+     * @param graph, the Dictionary that checks words on its graph
+     * @param packed, the Dictionary that checks words with a PackedWordSet
+     * @param queries, the words to check
+     * @return a double, nanoseconds per lookup
+     */
+	private static double time(int kind, TreeSet<String> tree, Dictionary graph,
+			Dictionary packed, String[] queries) {
+		long best = Long.MAX_VALUE;
+		int found = 0;
+		for (int round = 0; round < ROUNDS; round++) {
+			long start = System.nanoTime();
+			for (String word : queries) {
+				boolean hit = kind == 0 ? treeLookup(tree, word)
+						: kind == 1 ? graph.isWord(word) : packed.isWord(word);
+				if (hit) {
+					found++;
+				}
+			}
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		if (found < 0) {
+			System.out.println(found);
+		}
+		return (double) best / queries.length;
+	}
+}
@@ -0,0 +1,101 @@
+
+
+import java.util.SplittableRandom;
+
+/**
+ * This class holds the random numbers of the 64-bit Zobrist keys of game positions. A key is
+ * the exclusive or of one number for each letter on the board (by square and letter), one for
+ * each letter on each rack (by player, letter and how many of it the rack holds), and one for
+ * the side to move. Placing or removing a letter changes the key by a single exclusive or, so
+ * a search can keep its key up to date as it makes and takes back plays, and two positions
+ * with different keys are always different.
+ * <p>
+ * The numbers come from a fixed seed, so a key means the same position in every run.
+ */
+public class Zobrist {
+	/** The number added for the second player to move. */
+	public static final long SIDE;
+
+	/** The number added when the last turn was a pass. */
+	public static final long PASSED;
+
+	// indexed [square * (Letters.COUNT + 1) + code]; empty squares add nothing
+	private static final long[] SQUARES = new long[BoardModel.SQUARES * (Letters.COUNT + 1)];
+
+	// indexed [(player * (Letters.COUNT + 1) + code) * (MAX_COUNT + 1) + count]
+	private static final int MAX_COUNT = Player.NUM_TILES;
+	private static final long[] RACKS = new long[2 * (Letters.COUNT + 1) * (MAX_COUNT + 1)];
+
+	static {
+		SplittableRandom random = new SplittableRandom(0x5C4A8B1E5EEDL);
+		for (int square = 0; square < BoardModel.SQUARES; square++) {
+			for (int code = 1; code <= Letters.COUNT; code++) {
+				SQUARES[square * (Letters.COUNT + 1) + code] = random.nextLong();
+			}
+		}
+		for (int player = 0; player < 2; player++) {
+			for (int code = 1; code <= Letters.COUNT; code++) {
+				for (int count = 1; count <= MAX_COUNT; count++) {
+					RACKS[(player * (Letters.COUNT + 1) + code) * (MAX_COUNT + 1) + count]
+							= random.nextLong();
+				}
+			}
+		}
+		SIDE = random.nextLong();
+		PASSED = random.nextLong();
+	}
+
+    /**
+     * This method returns the number for a letter on a square
+     *
+     * @param square, the square's number
+     * @param code, the letter code
+     * @return a long, the number, or 0 for Letters.NONE
+     */
+	public static long square(int square, int code) {
+		return SQUARES[square * (Letters.COUNT + 1) + code];
+	}
+
+    /**
+     * This method returns the number for a rack holding some copies of a letter. When a rack
+     * goes from n to m copies, its key changes by rack(player, code, n) ^ rack(player, code, m).
+     *
+     * @param player, 0 for the first player, 1 for the second
+     * @param code, the letter code
+     * @param count, how many copies of the letter the rack holds, from 0 to Player.NUM_TILES
+     * @return a long, the number, or 0 if the count is 0
+     */
+	public static long rack(int player, int code, int count) {
+		return RACKS[(player * (Letters.COUNT + 1) + code) * (MAX_COUNT + 1) + count];
+	}
+
+    /**
+     * This method returns the key of a whole rack
+     *
+     * @param player, 0 for the first player, 1 for the second
+     * @param counts, how many of each letter code the rack holds
+     * @return a long, the exclusive or of the numbers of the rack's letters
+     */
+	public static long rackKey(int player, int[] counts) {
+		long key = 0;
+		for (int code = 1; code <= Letters.COUNT; code++) {
+			key ^= rack(player, code, counts[code]);
+		}
+		return key;
+	}
+
+    /**
+     * This method works out the key of the letters on a BoardModel from scratch. BoardModel
+     * keeps the same key up to date (see BoardModel.getKey), so this is for tests and debugging.
+     *
+     * @param model, the BoardModel
+     * @return a long, the exclusive or of the numbers of the board's letters
+     */
+	public static long boardKey(BoardModel model) {
+		long key = 0;
+		for (int square = 0; square < BoardModel.SQUARES; square++) {
+			key ^= square(square, model.getLetter(square));
+		}
+		return key;
+	}
+}
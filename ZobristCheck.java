@@ -0,0 +1,110 @@
+
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * This class checks the Zobrist keys on random positions. Each position is made by placing,
+ * finalizing and clearing random letters on a BoardModel, so its key is built up the way a
+ * game builds it, and then given two random racks and a side to move. The check counts:
+ * <ul>
+ * <li>positions whose incremental board key differs from Zobrist.boardKey worked out from
+ * scratch, or from the key of a copy of the BoardModel;</li>
+ * <li>pairs of different positions with the same key. Each key is stored with a fingerprint
+ * of the whole position made by a different hash, so two positions are only counted as the
+ * same if the fingerprints agree too.</li>
+ * </ul>
+ * It also times placing a letter and reading the key. The positions come from a fixed seed,
+ * so a run can be repeated exactly.
+ * <p>
+ * Usage: java ZobristCheck [positions] [seed]
+ */
+public class ZobristCheck {
+	private static final int DEFAULT_POSITIONS = 2000000;
+
+	// the number of placements timed
+	private static final int TIMED_PLACEMENTS = 50000000;
+
+	public static void main(String[] args) {
+		int numPositions = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_POSITIONS;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : 9;
+
+		int[] letterValues = new int[Letters.COUNT + 1];
+		SplittableRandom random = new SplittableRandom(seed);
+		Map<Long, Long> fingerprints = new HashMap<Long, Long>(2 * numPositions);
+		int collisions = 0;
+		int mismatches = 0;
+		for (int p = 0; p < numPositions; p++) {
+			BoardModel model = new BoardModel(letterValues);
+			for (int i = random.nextInt(1, 60); i > 0; i--) {
+				int square = random.nextInt(BoardModel.SQUARES);
+				if (model.isFinalized(square)) {
+					if (random.nextInt(4) == 0) {
+						model.clearSquare(square);
+					}
+					continue;
+				}
+				model.setLetter(square, random.nextInt(Letters.COUNT + 1));
+				if (random.nextBoolean()) {
+					model.finalizeAll();
+				}
+			}
+			int[][] racks = new int[2][Letters.COUNT + 1];
+			for (int player = 0; player < 2; player++) {
+				for (int i = random.nextInt(Player.NUM_TILES + 1); i > 0; i--) {
+					int code = random.nextInt(1, Letters.COUNT + 1);
+					if (racks[player][code] < Rack.MAX_COUNT) {
+						racks[player][code]++;
+					}
+				}
+			}
+			int side = random.nextInt(2);
+
+			if (model.getKey() != Zobrist.boardKey(model)
+					|| new BoardModel(model).getKey() != model.getKey()) {
+				mismatches++;
+			}
+			long key = model.getKey() ^ Zobrist.rackKey(0, racks[0])
+					^ Zobrist.rackKey(1, racks[1]) ^ (side == 0 ? 0 : Zobrist.SIDE);
+			Long old = fingerprints.put(key, fingerprint(model, racks, side));
+			if (old != null && old != fingerprint(model, racks, side)) {
+				collisions++;
+			}
+		}
+		System.out.println(numPositions + " positions, " + fingerprints.size() + " distinct keys, "
+				+ collisions + " collisions, " + mismatches + " incremental key mismatches");
+
+		BoardModel model = new BoardModel(letterValues);
+		long sink = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < TIMED_PLACEMENTS; i++) {
+			model.setLetter(i % BoardModel.SQUARES, (i >> 4) % (Letters.COUNT + 1));
+			sink += model.getKey();
+		}
+		double nanos = (double) (System.nanoTime() - start) / TIMED_PLACEMENTS;
+		System.out.printf("setLetter and getKey: %.1f ns (%d)%n", nanos, sink & 1);
+	}
+
+    /**
+     * This is a private helper function that returns a 64-bit FNV-1a hash of a whole position,
+     * which has nothing to do with the Zobrist numbers
+     *
+     * @param model, the BoardModel
+     * @param racks, how many of each letter code each player holds
+     * @param side, the player to move
+     * @return a long, the fingerprint
+     */
+	private static long fingerprint(BoardModel model, int[][] racks, int side) {
+		long hash = 0xCBF29CE484222325L;
+		for (int square = 0; square < BoardModel.SQUARES; square++) {
+			hash = (hash ^ model.getLetter(square)) * 0x100000001B3L;
+		}
+		for (int player = 0; player < 2; player++) {
+			for (int code = 1; code <= Letters.COUNT; code++) {
+				hash = (hash ^ racks[player][code]) * 0x100000001B3L;
+			}
+		}
+		return (hash ^ side) * 0x100000001B3L;
+	}
+}